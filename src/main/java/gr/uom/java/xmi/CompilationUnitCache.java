@@ -0,0 +1,64 @@
+package gr.uom.java.xmi;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.jdt.core.dom.CompilationUnit;
+
+/**
+ * Least-recently-used cache of parsed compilation units, keyed by a content identifier
+ * (e.g., the git blob id of the file) and bounded by the total length of the cached source files.
+ * Only the JDT trees are cached; the UML model elements are always rebuilt from them,
+ * because model elements carry state that is mutated while a model diff is computed.
+ */
+public class CompilationUnitCache {
+	private final long maxCachedCharacters;
+	private long cachedCharacters;
+	private final LinkedHashMap<String, Entry> map = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+
+	private static class Entry {
+		private final CompilationUnit compilationUnit;
+		private final int length;
+
+		private Entry(CompilationUnit compilationUnit, int length) {
+			this.compilationUnit = compilationUnit;
+			this.length = length;
+		}
+	}
+
+	public CompilationUnitCache(long maxCachedCharacters) {
+		this.maxCachedCharacters = maxCachedCharacters;
+	}
+
+	public synchronized CompilationUnit get(String key) {
+		Entry entry = map.get(key);
+		return entry != null ? entry.compilationUnit : null;
+	}
+
+	public synchronized void put(String key, CompilationUnit compilationUnit, int length) {
+		if(length > maxCachedCharacters) {
+			return;
+		}
+		Entry previous = map.put(key, new Entry(compilationUnit, length));
+		if(previous != null) {
+			cachedCharacters -= previous.length;
+		}
+		cachedCharacters += length;
+		Iterator<Map.Entry<String, Entry>> iterator = map.entrySet().iterator();
+		while(cachedCharacters > maxCachedCharacters && iterator.hasNext()) {
+			Entry eldest = iterator.next().getValue();
+			iterator.remove();
+			cachedCharacters -= eldest.length;
+		}
+	}
+
+	public synchronized int size() {
+		return map.size();
+	}
+
+	public synchronized void clear() {
+		map.clear();
+		cachedCharacters = 0;
+	}
+}
@@ -0,0 +1,21 @@
+package gr.uom.java.xmi;
+
+/**
+ * Highest Java language level that the parsed files of a repository required.
+ * Sharing an instance among the readers of the same repository allows the files to be parsed directly
+ * at that level, instead of being parsed first at the default level and re-parsed at the level
+ * recommended by the compiler problems.
+ */
+public class JavaLanguageLevel {
+	private volatile String javaCoreVersion;
+
+	public String getJavaCoreVersion() {
+		return javaCoreVersion;
+	}
+
+	public synchronized void update(String javaCoreVersion) {
+		if(this.javaCoreVersion == null || Double.parseDouble(javaCoreVersion) > Double.parseDouble(this.javaCoreVersion)) {
+			this.javaCoreVersion = javaCoreVersion;
+		}
+	}
+}
@@ -29,7 +29,7 @@ public abstract class UMLAbstractClass {
 	protected List<UMLComment> comments;
 	private List<UMLAnonymousClass> anonymousClassList;
 	private Map<List<String>, Integer> operationIdentifierSignatureMap;
-	private Map<String, VariableDeclaration> fieldDeclarationMap;
+	private volatile Map<String, VariableDeclaration> fieldDeclarationMap;
 	private List<UMLInitializer> initializers;
 	private UMLType superclass;
     private List<UMLType> implementedInterfaces;
@@ -234,11 +234,14 @@ public abstract class UMLAbstractClass {
 	}
 
 	public Map<String, VariableDeclaration> getFieldDeclarationMap() {
-		if(this.fieldDeclarationMap == null) {
+		Map<String, VariableDeclaration> fieldDeclarationMap = this.fieldDeclarationMap;
+		if(fieldDeclarationMap == null) {
+			//the map is published after it is filled, since the classes of a model can be diffed in parallel
 			fieldDeclarationMap = new LinkedHashMap<String, VariableDeclaration>();
 			for(UMLAttribute attribute : attributes) {
 				fieldDeclarationMap.put(attribute.getName(), attribute.getVariableDeclaration());
 			}
+			this.fieldDeclarationMap = fieldDeclarationMap;
 		}
 		return fieldDeclarationMap;
 	}
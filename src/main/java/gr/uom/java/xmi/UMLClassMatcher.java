@@ -45,7 +45,19 @@ public interface UMLClassMatcher {
 
 	public MatchResult match(UMLClass removedClass, UMLClass addedClass);
 
+	/**
+	 * Cheap necessary condition for a match, checked before calling {@link #match(UMLClass, UMLClass)}.
+	 * @return false if the classes certainly do not match.
+	 */
+	public default boolean isCandidate(UMLClass removedClass, UMLClass addedClass) {
+		return true;
+	}
+
 	public static class Move implements UMLClassMatcher {
+		public boolean isCandidate(UMLClass removedClass, UMLClass addedClass) {
+			return removedClass.getNonQualifiedName().equals(addedClass.getNonQualifiedName());
+		}
+
 		public MatchResult match(UMLClass removedClass, UMLClass addedClass) {
 			MatchResult matchResult = removedClass.hasSameAttributesAndOperations(addedClass);
 			if(removedClass.hasSameNameAndKind(addedClass) && matchResult.isMatch()) {
@@ -60,6 +72,10 @@ public interface UMLClassMatcher {
 	}
 
 	public static class RelaxedMove implements UMLClassMatcher {
+		public boolean isCandidate(UMLClass removedClass, UMLClass addedClass) {
+			return removedClass.getNonQualifiedName().equals(addedClass.getNonQualifiedName());
+		}
+
 		public MatchResult match(UMLClass removedClass, UMLClass addedClass) {
 			MatchResult matchResult = removedClass.hasCommonAttributesAndOperations(addedClass);
 			if(removedClass.hasSameNameAndKind(addedClass) && matchResult.isMatch()) {
@@ -74,6 +90,10 @@ public interface UMLClassMatcher {
 	}
 
 	public static class ExtremelyRelaxedMove implements UMLClassMatcher {
+		public boolean isCandidate(UMLClass removedClass, UMLClass addedClass) {
+			return removedClass.getNonQualifiedName().equals(addedClass.getNonQualifiedName());
+		}
+
 		public MatchResult match(UMLClass removedClass, UMLClass addedClass) {
 			MatchResult matchResult = removedClass.hasAttributesAndOperationsWithCommonNames(addedClass);
 			if(removedClass.hasSameNameAndKind(addedClass) && matchResult.isMatch()) {
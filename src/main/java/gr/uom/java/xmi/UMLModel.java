@@ -1,14 +1,17 @@
 package gr.uom.java.xmi;
 
+import gr.uom.java.xmi.diff.DetectionTimeBudget;
 import gr.uom.java.xmi.diff.UMLClassDiff;
 import gr.uom.java.xmi.diff.UMLModelDiff;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 
 import org.refactoringminer.api.RefactoringMinerTimedOutException;
 
@@ -22,6 +25,10 @@ public class UMLModel {
     private boolean partial;
     private Map<String, TreeContext> treeContextMap = new LinkedHashMap<>();
     private Map<String, List<UMLComment>> commentMap = new LinkedHashMap<>();
+    //indexes of classList, each mapping a key to the first class in the list with that key
+    private Map<UMLClass, UMLClass> classMap = new HashMap<>();
+    private Map<String, UMLClass> qualifiedNameMap = new HashMap<>();
+    private Map<String, UMLClass> qualifiedNameSuffixMap = new HashMap<>();
 
     public UMLModel(Set<String> repositoryDirectories) {
     	this.repositoryDirectories = repositoryDirectories;
@@ -48,6 +55,12 @@ public class UMLModel {
 
 	public void addClass(UMLClass umlClass) {
         classList.add(umlClass);
+        classMap.putIfAbsent(umlClass, umlClass);
+        String qualifiedName = umlClass.getName();
+        qualifiedNameMap.putIfAbsent(qualifiedName, umlClass);
+        for(int index = qualifiedName.indexOf('.'); index != -1; index = qualifiedName.indexOf('.', index + 1)) {
+        	qualifiedNameSuffixMap.putIfAbsent(qualifiedName.substring(index + 1), umlClass);
+        }
     }
 
     public void addGeneralization(UMLGeneralization umlGeneralization) {
@@ -59,13 +72,24 @@ public class UMLModel {
     }
 
     public UMLClass getClass(UMLClass umlClassFromOtherModel) {
-    	ListIterator<UMLClass> it = classList.listIterator();
-        while(it.hasNext()) {
-            UMLClass umlClass = it.next();
-            if(umlClass.equals(umlClassFromOtherModel))
-                return umlClass;
-        }
-        return null;
+    	return classMap.get(umlClassFromOtherModel);
+    }
+
+    public boolean containsClass(UMLClass umlClassFromOtherModel) {
+    	return classMap.containsKey(umlClassFromOtherModel);
+    }
+
+    /**
+     * @param className A qualified class name, or a suffix of a qualified class name starting after a dot.
+     * @return The first class whose qualified name is equal to the given name, otherwise the first class whose
+     * qualified name ends with the given name, or null if there is no such class.
+     */
+    public UMLClass getClassByName(String className) {
+    	UMLClass umlClass = qualifiedNameMap.get(className);
+    	if(umlClass != null) {
+    		return umlClass;
+    	}
+    	return qualifiedNameSuffixMap.get(className);
     }
 
     public List<UMLClass> getClassList() {
@@ -129,13 +153,56 @@ public class UMLModel {
     }
 
 	public UMLModelDiff diff(UMLModel umlModel) throws RefactoringMinerTimedOutException {
+    	return diff(umlModel, null);
+    }
+
+	/**
+	 * @param classDiffPool The pool processing the diffs of the classes common to both models in parallel,
+	 *                      or null to process them one by one on the calling thread. Both produce the same model diff.
+	 */
+	public UMLModelDiff diff(UMLModel umlModel, ForkJoinPool classDiffPool) throws RefactoringMinerTimedOutException {
+    	return diff(umlModel, classDiffPool, null);
+    }
+
+	/**
+	 * @param classDiffPool The pool processing the diffs of the classes common to both models in parallel,
+	 *                      or null to process them one by one on the calling thread. Both produce the same model diff.
+	 * @param timeBudget The time budget of the diff and of the subsequent detection of refactorings, or null for no limit.
+	 * If the budget is exhausted and allows partial results, the model diff is returned {@link UMLModelDiff#isIncomplete() incomplete}.
+	 */
+	public UMLModelDiff diff(UMLModel umlModel, ForkJoinPool classDiffPool, DetectionTimeBudget timeBudget) throws RefactoringMinerTimedOutException {
+    	return diff(umlModel, classDiffPool, timeBudget, false);
+    }
+
+	/**
+	 * @param classDiffPool The pool processing the diffs of the classes common to both models in parallel,
+	 *                      or null to process them one by one on the calling thread. Both produce the same model diff.
+	 * @param timeBudget The time budget of the diff and of the subsequent detection of refactorings, or null for no limit.
+	 * If the budget is exhausted and allows partial results, the model diff is returned {@link UMLModelDiff#isIncomplete() incomplete}.
+	 * @param classRenameBlocking Whether the classes compared for class renames are blocked, when too many to be compared exhaustively.
+	 * @see UMLModelDiff#setClassRenameBlocking(boolean)
+	 */
+	public UMLModelDiff diff(UMLModel umlModel, ForkJoinPool classDiffPool, DetectionTimeBudget timeBudget, boolean classRenameBlocking) throws RefactoringMinerTimedOutException {
     	UMLModelDiff modelDiff = new UMLModelDiff(this, umlModel);
+    	modelDiff.setTimeBudget(timeBudget);
+    	modelDiff.setClassRenameBlocking(classRenameBlocking);
+    	try {
+    		populateDiff(umlModel, classDiffPool, modelDiff);
+    	}
+    	catch(RefactoringMinerTimedOutException e) {
+    		modelDiff.reportTimeout(e);
+    	}
+    	return modelDiff;
+    }
+
+	private void populateDiff(UMLModel umlModel, ForkJoinPool classDiffPool, UMLModelDiff modelDiff) throws RefactoringMinerTimedOutException {
+    	modelDiff.checkTimeBudget();
     	for(UMLClass umlClass : classList) {
-    		if(!umlModel.classList.contains(umlClass))
+    		if(!umlModel.containsClass(umlClass))
     			modelDiff.reportRemovedClass(umlClass);
     	}
     	for(UMLClass umlClass : umlModel.classList) {
-    		if(!this.classList.contains(umlClass))
+    		if(!this.containsClass(umlClass))
     			modelDiff.reportAddedClass(umlClass);
     	}
     	modelDiff.checkForMovedClasses(umlModel.repositoryDirectories, new UMLClassMatcher.Move());
@@ -158,16 +225,26 @@ public class UMLModel {
     			modelDiff.reportAddedRealization(umlRealization);
     	}
     	modelDiff.checkForRealizationChanges();
-    	for(UMLClass umlClass : classList) {
-    		if(umlModel.classList.contains(umlClass)) {
-    			UMLClassDiff classDiff = new UMLClassDiff(umlClass, umlModel.getClass(umlClass), modelDiff);
-    			classDiff.process();
-    			modelDiff.addUMLClassDiff(classDiff);
+    	if(classDiffPool == null) {
+	    	for(UMLClass umlClass : classList) {
+	    		if(umlModel.containsClass(umlClass)) {
+	    			UMLClassDiff classDiff = new UMLClassDiff(umlClass, umlModel.getClass(umlClass), modelDiff);
+	    			classDiff.process();
+	    			modelDiff.addUMLClassDiff(classDiff);
+	    		}
+	    	}
+    	}
+    	else {
+    		List<UMLClassDiff> classDiffs = new ArrayList<UMLClassDiff>();
+    		for(UMLClass umlClass : classList) {
+    			if(umlModel.containsClass(umlClass)) {
+    				classDiffs.add(new UMLClassDiff(umlClass, umlModel.getClass(umlClass), modelDiff));
+    			}
     		}
+    		modelDiff.processUMLClassDiffs(classDiffs, classDiffPool);
     	}
     	modelDiff.checkForMovedClasses(umlModel.repositoryDirectories, new UMLClassMatcher.RelaxedMove());
     	modelDiff.checkForRenamedClasses(new UMLClassMatcher.RelaxedRename());
     	modelDiff.inferClassRenameBasedOnFilePaths(new UMLClassMatcher.RelaxedRename());
-    	return modelDiff;
     }
 }
@@ -3,12 +3,15 @@ package gr.uom.java.xmi;
 import static gr.uom.java.xmi.decomposition.Visitor.stringify;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Enumeration;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import javax.swing.tree.DefaultMutableTreeNode;
 import javax.swing.tree.TreeNode;
@@ -59,6 +62,7 @@ import org.eclipse.jdt.core.dom.TypeDeclarationStatement;
 import org.eclipse.jdt.core.dom.TypeParameter;
 import org.eclipse.jdt.core.dom.VariableDeclarationFragment;
 import org.eclipse.jdt.core.dom.VariableDeclarationStatement;
+import org.refactoringminer.api.RefactoringMinerTimedOutException;
 
 import com.github.gumtreediff.gen.jdt.JdtVisitor;
 import com.github.gumtreediff.tree.TreeContext;
@@ -80,11 +84,27 @@ public class UMLModelASTReader {
 	private static final String FHIR_GENERATED = "for FHIR";
 	private static final String CAMEL_GENERATED = "Generated by camel-package-maven-plugin";
 	private static final String DEFAULT_JAVA_CORE_VERSION = JavaCore.VERSION_14;
+	private static final int PARALLEL_PARSING_BATCH_SIZE = 256;
 	private UMLModel umlModel;
 
-	public UMLModelASTReader(Map<String, String> javaFileContents, Set<String> repositoryDirectories, boolean astDiff) {
+	public UMLModelASTReader(Map<String, String> javaFileContents, Set<String> repositoryDirectories, boolean astDiff) throws RefactoringMinerTimedOutException {
+		this(javaFileContents, repositoryDirectories, astDiff, Collections.emptyMap(), null, null, null);
+	}
+
+	/**
+	 * @param fileContentKeys Maps a file path to an identifier of its contents (e.g., the git blob id).
+	 * @param cache Compilation units of previously parsed contents, or null to always parse the files.
+	 * @param parserPool Pool used to parse the files in parallel, or null to parse the files sequentially.
+	 * The resulting model is the same in both cases.
+	 * @param languageLevel Language level detected in previously parsed files of the same repository,
+	 * updated with the language level detected in these files, or null to detect the language level of each file.
+	 * @throws RefactoringMinerTimedOutException If the current thread is interrupted before all the files are parsed.
+	 * The interrupt status of the thread is kept.
+	 */
+	public UMLModelASTReader(Map<String, String> javaFileContents, Set<String> repositoryDirectories, boolean astDiff,
+			Map<String, String> fileContentKeys, CompilationUnitCache cache, ForkJoinPool parserPool, JavaLanguageLevel languageLevel) throws RefactoringMinerTimedOutException {
 		this.umlModel = new UMLModel(repositoryDirectories);
-		processJavaFileContents(javaFileContents, astDiff);
+		processJavaFileContents(javaFileContents, astDiff, fileContentKeys, cache, parserPool, languageLevel);
 	}
 
 	public static ASTNode processBlock(String methodBody) {
@@ -110,36 +130,149 @@ public class UMLModelASTReader {
 		return methodBodyBlock;
 	}
 
-	private void processJavaFileContents(Map<String, String> javaFileContents, boolean astDiff) {
-		ASTParser parser = ASTParser.newParser(AST.getJLSLatest());
+	private void processJavaFileContents(Map<String, String> javaFileContents, boolean astDiff, Map<String, String> fileContentKeys, CompilationUnitCache cache, ForkJoinPool parserPool, JavaLanguageLevel languageLevel) throws RefactoringMinerTimedOutException {
+		List<String> filePaths = new ArrayList<String>();
 		for(String filePath : javaFileContents.keySet()) {
-			String javaFileContent = javaFileContents.get(filePath);
-			if((javaFileContent.contains(FREE_MARKER_GENERATED) || javaFileContent.contains(FREE_MARKER_GENERATED_2) || javaFileContent.contains(ANTLR_GENERATED) ||
-					javaFileContent.contains(XTEXT_GENERATED) || javaFileContent.contains(LWJGL_GENERATED) || javaFileContent.contains(TEST_GENERATOR_GENERATED) ||
-					javaFileContent.contains(THRIFT_GENERATED) || javaFileContent.contains(AUTOREST_GENERATED) || javaFileContent.contains(FHIR_GENERATED) ||
-					javaFileContent.contains(CAMEL_GENERATED)) &&
-					!javaFileContent.contains("\"" + CAMEL_GENERATED + "\"") &&
-					!javaFileContent.contains("private static final String FREE_MARKER_GENERATED = \"generated using freemarker\";")) {
-				continue;
-			}
-			char[] charArray = javaFileContent.toCharArray();
-			try {
-				CompilationUnit compilationUnit = getCompilationUnit(DEFAULT_JAVA_CORE_VERSION, parser, charArray);
-				String maxRecommendedVersionFromProblems = getMaxRecommendedVersionFromProblems(compilationUnit);
-				if (maxRecommendedVersionFromProblems != null)
-					compilationUnit = getCompilationUnit(maxRecommendedVersionFromProblems, parser, charArray);
-				processCompilationUnit(filePath, compilationUnit, javaFileContent);
-				if(astDiff) {
-					IScanner scanner = ToolFactory.createScanner(true, false, false, false);
-					scanner.setSource(charArray);
-					JdtVisitor visitor = new JdtVisitor(scanner);
-					compilationUnit.accept(visitor);
-					TreeContext treeContext = visitor.getTreeContext();
-					this.umlModel.getTreeContextMap().put(filePath, treeContext);
+			if(!isGenerated(javaFileContents.get(filePath))) {
+				filePaths.add(filePath);
+			}
+		}
+		if(parserPool == null) {
+			ASTParser parser = ASTParser.newParser(AST.getJLSLatest());
+			for(String filePath : filePaths) {
+				checkInterrupted();
+				String javaFileContent = javaFileContents.get(filePath);
+				CompilationUnit compilationUnit = parseJavaFileContent(parser, javaFileContent, cache != null ? fileContentKeys.get(filePath) : null, cache, languageLevel);
+				processParsedJavaFileContent(filePath, compilationUnit, javaFileContent, astDiff);
+			}
+		}
+		else {
+			//the compilation units of a batch are parsed in parallel and then processed in the order of the files,
+			//so that the classes are added to the model in the same order as with sequential parsing
+			for(int from = 0; from < filePaths.size(); from += PARALLEL_PARSING_BATCH_SIZE) {
+				checkInterrupted();
+				List<String> batch = filePaths.subList(from, Math.min(from + PARALLEL_PARSING_BATCH_SIZE, filePaths.size()));
+				CompilationUnit[] compilationUnits = new CompilationUnit[batch.size()];
+				parserPool.invoke(new ParsingTask(batch, 0, batch.size(), javaFileContents, fileContentKeys, cache, languageLevel, compilationUnits));
+				for(int i = 0; i < batch.size(); i++) {
+					String filePath = batch.get(i);
+					processParsedJavaFileContent(filePath, compilationUnits[i], javaFileContents.get(filePath), astDiff);
+				}
+			}
+		}
+	}
+
+	//an interrupted parsing stops early, instead of returning a model missing the classes of the remaining files
+	private static void checkInterrupted() throws RefactoringMinerTimedOutException {
+		if(Thread.currentThread().isInterrupted()) {
+			throw new RefactoringMinerTimedOutException();
+		}
+	}
+
+	private static boolean isGenerated(String javaFileContent) {
+		return (javaFileContent.contains(FREE_MARKER_GENERATED) || javaFileContent.contains(FREE_MARKER_GENERATED_2) || javaFileContent.contains(ANTLR_GENERATED) ||
+				javaFileContent.contains(XTEXT_GENERATED) || javaFileContent.contains(LWJGL_GENERATED) || javaFileContent.contains(TEST_GENERATOR_GENERATED) ||
+				javaFileContent.contains(THRIFT_GENERATED) || javaFileContent.contains(AUTOREST_GENERATED) || javaFileContent.contains(FHIR_GENERATED) ||
+				javaFileContent.contains(CAMEL_GENERATED)) &&
+				!javaFileContent.contains("\"" + CAMEL_GENERATED + "\"") &&
+				!javaFileContent.contains("private static final String FREE_MARKER_GENERATED = \"generated using freemarker\";");
+	}
+
+	private static CompilationUnit parseJavaFileContent(ASTParser parser, String javaFileContent, String contentKey, CompilationUnitCache cache, JavaLanguageLevel languageLevel) {
+		char[] charArray = javaFileContent.toCharArray();
+		try {
+			CompilationUnit compilationUnit = contentKey != null ? cache.get(contentKey) : null;
+			if (compilationUnit == null) {
+				String detectedVersion = languageLevel != null ? languageLevel.getJavaCoreVersion() : null;
+				CompilationUnit detectedVersionCompilationUnit = null;
+				if (detectedVersion != null) {
+					compilationUnit = getCompilationUnit(detectedVersion, parser, charArray);
+					//a file with problems is parsed again starting from the default version, as if no version was detected
+					if (compilationUnit.getProblems().length > 0) {
+						detectedVersionCompilationUnit = compilationUnit;
+						compilationUnit = null;
+					}
 				}
+				if (compilationUnit == null) {
+					compilationUnit = getCompilationUnit(DEFAULT_JAVA_CORE_VERSION, parser, charArray);
+					String maxRecommendedVersionFromProblems = getMaxRecommendedVersionFromProblems(compilationUnit);
+					if (maxRecommendedVersionFromProblems != null) {
+						//the file is not parsed a third time at the version it was already parsed at
+						compilationUnit = maxRecommendedVersionFromProblems.equals(detectedVersion) ? detectedVersionCompilationUnit :
+							getCompilationUnit(maxRecommendedVersionFromProblems, parser, charArray);
+						if (languageLevel != null && compilationUnit.getProblems().length == 0 &&
+								Double.parseDouble(maxRecommendedVersionFromProblems) > Double.parseDouble(DEFAULT_JAVA_CORE_VERSION))
+							languageLevel.update(maxRecommendedVersionFromProblems);
+					}
+				}
+				if (contentKey != null)
+					cache.put(contentKey, compilationUnit, charArray.length);
+			}
+			return compilationUnit;
+		}
+		catch(Exception e) {
+			//e.printStackTrace();
+			return null;
+		}
+	}
+
+	private void processParsedJavaFileContent(String filePath, CompilationUnit compilationUnit, String javaFileContent, boolean astDiff) {
+		if(compilationUnit == null) {
+			return;
+		}
+		try {
+			processCompilationUnit(filePath, compilationUnit, javaFileContent);
+			if(astDiff) {
+				IScanner scanner = ToolFactory.createScanner(true, false, false, false);
+				scanner.setSource(javaFileContent.toCharArray());
+				JdtVisitor visitor = new JdtVisitor(scanner);
+				compilationUnit.accept(visitor);
+				TreeContext treeContext = visitor.getTreeContext();
+				this.umlModel.getTreeContextMap().put(filePath, treeContext);
 			}
-			catch(Exception e) {
-				//e.printStackTrace();
+		}
+		catch(Exception e) {
+			//e.printStackTrace();
+		}
+	}
+
+	private static class ParsingTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private static final int FILES_PER_PARSER = 4;
+		private final List<String> filePaths;
+		private final int from;
+		private final int to;
+		private final Map<String, String> javaFileContents;
+		private final Map<String, String> fileContentKeys;
+		private final CompilationUnitCache cache;
+		private final JavaLanguageLevel languageLevel;
+		private final CompilationUnit[] compilationUnits;
+
+		private ParsingTask(List<String> filePaths, int from, int to, Map<String, String> javaFileContents,
+				Map<String, String> fileContentKeys, CompilationUnitCache cache, JavaLanguageLevel languageLevel, CompilationUnit[] compilationUnits) {
+			this.filePaths = filePaths;
+			this.from = from;
+			this.to = to;
+			this.javaFileContents = javaFileContents;
+			this.fileContentKeys = fileContentKeys;
+			this.cache = cache;
+			this.languageLevel = languageLevel;
+			this.compilationUnits = compilationUnits;
+		}
+
+		@Override
+		protected void compute() {
+			if(to - from <= FILES_PER_PARSER) {
+				ASTParser parser = ASTParser.newParser(AST.getJLSLatest());
+				for(int i = from; i < to; i++) {
+					String filePath = filePaths.get(i);
+					compilationUnits[i] = parseJavaFileContent(parser, javaFileContents.get(filePath), cache != null ? fileContentKeys.get(filePath) : null, cache, languageLevel);
+				}
+			}
+			else {
+				int middle = (from + to) >>> 1;
+				invokeAll(new ParsingTask(filePaths, from, middle, javaFileContents, fileContentKeys, cache, languageLevel, compilationUnits),
+						new ParsingTask(filePaths, middle, to, javaFileContents, fileContentKeys, cache, languageLevel, compilationUnits));
 			}
 		}
 	}
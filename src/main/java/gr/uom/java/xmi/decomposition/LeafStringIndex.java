@@ -0,0 +1,166 @@
+package gr.uom.java.xmi.decomposition;
+
+import static gr.uom.java.xmi.Constants.JAVA;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Index of a list of leaves by their string and argumentized string, used by the exact string matching passes of
+ * {@link UMLOperationBodyMapper} to find the leaves that may be identical to a given leaf, instead of comparing the
+ * leaf with every leaf of the list.
+ * The leaves are returned in their order in the list. The index follows the removals performed through
+ * {@link #remove(AbstractCodeFragment)}, and is rebuilt when the modification count of the list shows it was modified otherwise.
+ * Removing a leaf still shifts the following leaves of the list, because the callers of processLeaves keep using their
+ * lists afterwards, and expect them to contain the remaining leaves in order.
+ */
+class LeafStringIndex {
+	private final VersionedArrayList<? extends AbstractCodeFragment> leaves;
+	private final Map<String, List<AbstractCodeFragment>> leavesByString = new HashMap<>();
+	private final Map<String, List<AbstractCodeFragment>> leavesByArgumentizedString = new HashMap<>();
+	//statements returning an expression, by the argumentized string of the expression
+	private final Map<String, List<AbstractCodeFragment>> statementsByReturnedExpression = new HashMap<>();
+	private final Map<AbstractCodeFragment, Integer> positions = new IdentityHashMap<>();
+	private final Set<AbstractCodeFragment> removed = Collections.newSetFromMap(new IdentityHashMap<>());
+	private final Comparator<AbstractCodeFragment> listOrder = Comparator.comparingInt(positions::get);
+	private int indexedVersion;
+	//the same leaf is contained more than once in the list, and the list is scanned instead
+	private boolean duplicateLeaves;
+
+	LeafStringIndex(VersionedArrayList<? extends AbstractCodeFragment> leaves) {
+		this.leaves = leaves;
+		build();
+	}
+
+	private void build() {
+		leavesByString.clear();
+		leavesByArgumentizedString.clear();
+		statementsByReturnedExpression.clear();
+		positions.clear();
+		removed.clear();
+		duplicateLeaves = false;
+		indexedVersion = leaves.getVersion();
+		for(int i=0; i<leaves.size(); i++) {
+			AbstractCodeFragment leaf = leaves.get(i);
+			if(positions.put(leaf, i) != null) {
+				duplicateLeaves = true;
+				return;
+			}
+			add(leavesByString, leaf.getString(), leaf);
+			String argumentizedString = leaf.getArgumentizedString();
+			add(leavesByArgumentizedString, argumentizedString, leaf);
+			if(leaf instanceof StatementObject) {
+				String returnedExpression = returnedExpression(argumentizedString);
+				if(returnedExpression != null) {
+					add(statementsByReturnedExpression, returnedExpression, leaf);
+				}
+			}
+		}
+	}
+
+	private static void add(Map<String, List<AbstractCodeFragment>> map, String key, AbstractCodeFragment leaf) {
+		List<AbstractCodeFragment> list = map.get(key);
+		if(list == null) {
+			list = new ArrayList<>(1);
+			map.put(key, list);
+		}
+		list.add(leaf);
+	}
+
+	private static String returnedExpression(String argumentizedString) {
+		if(argumentizedString.startsWith(JAVA.RETURN_SPACE) && argumentizedString.endsWith(JAVA.STATEMENT_TERMINATION)) {
+			return argumentizedString.substring(JAVA.RETURN_SPACE.length(), argumentizedString.lastIndexOf(JAVA.STATEMENT_TERMINATION));
+		}
+		return null;
+	}
+
+	private void synchronize() {
+		if(leaves.getVersion() != indexedVersion) {
+			build();
+		}
+	}
+
+	/**
+	 * Removes the given leaf from the indexed list.
+	 *
+	 * @return True if the list contained the leaf.
+	 */
+	boolean remove(AbstractCodeFragment leaf) {
+		synchronize();
+		if(leaves.remove(leaf)) {
+			if(!duplicateLeaves) {
+				removed.add(leaf);
+			}
+			indexedVersion = leaves.getVersion();
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * @return The leaves having the same string as the given one.
+	 */
+	List<AbstractCodeFragment> leavesWithString(String string) {
+		synchronize();
+		if(duplicateLeaves) {
+			List<AbstractCodeFragment> matchingLeaves = new ArrayList<>();
+			for(AbstractCodeFragment leaf : leaves) {
+				if(leaf.getString().equals(string)) {
+					matchingLeaves.add(leaf);
+				}
+			}
+			return matchingLeaves;
+		}
+		List<AbstractCodeFragment> matchingLeaves = new ArrayList<>();
+		addRemaining(leavesByString.get(string), matchingLeaves, null);
+		return matchingLeaves;
+	}
+
+	/**
+	 * The candidates include the leaves having the same string as the given leaf, or the same argumentized string,
+	 * when the {@code return} keyword is removed from the statements compared with expressions.
+	 * They may include other leaves, and the callers check the candidates with the actual matching condition.
+	 *
+	 * @return The leaves that may be identical to the given leaf.
+	 */
+	List<AbstractCodeFragment> candidates(AbstractCodeFragment leaf) {
+		synchronize();
+		if(duplicateLeaves) {
+			return new ArrayList<>(leaves);
+		}
+		List<AbstractCodeFragment> candidates = new ArrayList<>();
+		Set<AbstractCodeFragment> added = Collections.newSetFromMap(new IdentityHashMap<>());
+		addRemaining(leavesByString.get(leaf.getString()), candidates, added);
+		String argumentizedString = leaf.getArgumentizedString();
+		addRemaining(leavesByArgumentizedString.get(argumentizedString), candidates, added);
+		if(leaf instanceof AbstractExpression) {
+			addRemaining(statementsByReturnedExpression.get(argumentizedString), candidates, added);
+		}
+		else if(leaf instanceof StatementObject) {
+			String returnedExpression = returnedExpression(argumentizedString);
+			if(returnedExpression != null) {
+				addRemaining(leavesByArgumentizedString.get(returnedExpression), candidates, added);
+			}
+		}
+		if(candidates.size() > 1) {
+			candidates.sort(listOrder);
+		}
+		return candidates;
+	}
+
+	private void addRemaining(List<AbstractCodeFragment> indexedLeaves, List<AbstractCodeFragment> result, Set<AbstractCodeFragment> added) {
+		if(indexedLeaves != null) {
+			for(AbstractCodeFragment leaf : indexedLeaves) {
+				if(!removed.contains(leaf) && (added == null || added.add(leaf))) {
+					result.add(leaf);
+				}
+			}
+		}
+	}
+}
@@ -48,7 +48,7 @@ import gr.uom.java.xmi.VariableDeclarationContainer;
 public class OperationBody {
 
 	private CompositeStatementObject compositeStatement;
-	private List<String> stringRepresentation;
+	private volatile List<String> stringRepresentation;
 	private boolean containsAssertion;
 	private Set<VariableDeclaration> activeVariableDeclarations;
 	private VariableDeclarationContainer container;
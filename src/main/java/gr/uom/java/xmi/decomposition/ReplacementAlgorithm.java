@@ -3790,8 +3790,8 @@ public class ReplacementAlgorithm {
 						continue;
 					}
 					String temp = ReplacementUtil.performReplacement(replacementInfo.getArgumentizedString1(), replacementInfo.getArgumentizedString2(), s1, s2);
-					int distanceRaw = StringDistance.editDistance(temp, replacementInfo.getArgumentizedString2());
-					if(distanceRaw >= 0 && distanceRaw < replacementInfo.getRawDistance()) {
+					int distanceRaw = StringDistance.editDistanceBelow(temp, replacementInfo.getArgumentizedString2(), replacementInfo.getRawDistance());
+					if(distanceRaw >= 0) {
 						Replacement replacement = new Replacement(s1, s2, type);
 						double distancenormalized = (double)distanceRaw/(double)Math.max(temp.length(), replacementInfo.getArgumentizedString2().length());
 						replacementMap.put(distancenormalized, replacement);
@@ -3841,8 +3841,8 @@ public class ReplacementAlgorithm {
 						continue;
 					}
 					String temp = ReplacementUtil.performReplacement(replacementInfo.getArgumentizedString1(), replacementInfo.getArgumentizedString2(), s1, s2);
-					int distanceRaw = StringDistance.editDistance(temp, replacementInfo.getArgumentizedString2());
-					if(distanceRaw >= 0 && distanceRaw < replacementInfo.getRawDistance()) {
+					int distanceRaw = StringDistance.editDistanceBelow(temp, replacementInfo.getArgumentizedString2(), replacementInfo.getRawDistance());
+					if(distanceRaw >= 0) {
 						Replacement replacement = new Replacement(s1, s2, type);
 						double distancenormalized = (double)distanceRaw/(double)Math.max(temp.length(), replacementInfo.getArgumentizedString2().length());
 						replacementMap.put(distancenormalized, replacement);
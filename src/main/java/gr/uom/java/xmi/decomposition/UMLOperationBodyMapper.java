@@ -62,6 +62,7 @@ import gr.uom.java.xmi.diff.UMLParameterDiff;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
@@ -83,6 +84,8 @@ import org.refactoringminer.api.Refactoring;
 import org.refactoringminer.api.RefactoringMinerTimedOutException;
 import org.refactoringminer.api.RefactoringType;
 import org.refactoringminer.util.PrefixSuffixUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class UMLOperationBodyMapper implements Comparable<UMLOperationBodyMapper>, UMLDocumentationDiffProvider {
 	private VariableDeclarationContainer container1;
@@ -103,6 +106,7 @@ public class UMLOperationBodyMapper implements Comparable<UMLOperationBodyMapper
 	private Set<UMLOperationBodyMapper> childMappers = new LinkedHashSet<UMLOperationBodyMapper>();
 	private UMLOperationBodyMapper parentMapper;
 	private static final int MAXIMUM_NUMBER_OF_COMPARED_STATEMENTS = 1500;
+	private static final Logger logger = LoggerFactory.getLogger(UMLOperationBodyMapper.class);
 	private UMLOperationDiff operationSignatureDiff;
 	private UMLAbstractClassDiff classDiff;
 	private UMLModelDiff modelDiff;
@@ -4000,6 +4004,7 @@ public class UMLOperationBodyMapper implements Comparable<UMLOperationBodyMapper
 			Set<CompositeStatementObject> innerNodes1ToBeRemoved = new LinkedHashSet<>();
 			for(ListIterator<CompositeStatementObject> innerNodeIterator1 = innerNodes1.listIterator(); innerNodeIterator1.hasNext();) {
 				CompositeStatementObject statement1 = innerNodeIterator1.next();
+				checkTimeBudget();
 				if(!alreadyMatched1(statement1)) {
 					List<CompositeStatementObject> matchingInnerNodes1 = map1.get(statement1.getString());
 					if(matchingInnerNodes1 == null) {
@@ -4098,6 +4103,7 @@ public class UMLOperationBodyMapper implements Comparable<UMLOperationBodyMapper
 			// exact matching - inner nodes - with variable renames
 			for(ListIterator<CompositeStatementObject> innerNodeIterator1 = innerNodes1.listIterator(); innerNodeIterator1.hasNext();) {
 				CompositeStatementObject statement1 = innerNodeIterator1.next();
+				checkTimeBudget();
 				if(!alreadyMatched1(statement1)) {
 					if(isInMergeConditionalRefactoring(statement1)) {
 						continue;
@@ -4336,6 +4342,7 @@ public class UMLOperationBodyMapper implements Comparable<UMLOperationBodyMapper
 			Set<CompositeStatementObject> innerNodes2ToBeRemoved = new LinkedHashSet<>();
 			for(ListIterator<CompositeStatementObject> innerNodeIterator2 = innerNodes2.listIterator(); innerNodeIterator2.hasNext();) {
 				CompositeStatementObject statement2 = innerNodeIterator2.next();
+				checkTimeBudget();
 				if(!alreadyMatched2(statement2)) {
 					List<CompositeStatementObject> matchingInnerNodes1 = map1.get(statement2.getString());
 					if(matchingInnerNodes1 == null) {
@@ -4451,6 +4458,7 @@ public class UMLOperationBodyMapper implements Comparable<UMLOperationBodyMapper
 			// exact matching - inner nodes - with variable renames
 			for(ListIterator<CompositeStatementObject> innerNodeIterator2 = innerNodes2.listIterator(); innerNodeIterator2.hasNext();) {
 				CompositeStatementObject statement2 = innerNodeIterator2.next();
+				checkTimeBudget();
 				if(!alreadyMatched2(statement2)) {
 					List<CompositeStatementObject> matchingInnerNodes2 = map2.get(statement2.getString());
 					if(matchingInnerNodes2 == null) {
@@ -5246,12 +5254,136 @@ public class UMLOperationBodyMapper implements Comparable<UMLOperationBodyMapper
 		}
 	}
 
-	protected void processLeaves(List<? extends AbstractCodeFragment> leaves1, List<? extends AbstractCodeFragment> leaves2,
+	private void checkTimeBudget() throws RefactoringMinerTimedOutException {
+		if(modelDiff != null) {
+			modelDiff.checkTimeBudget();
+		}
+	}
+
+	//maps the leaves that are identical and unique in both lists as anchors, and processes the leaves between consecutive anchors separately
+	private void processLeavesBetweenAnchors(List<? extends AbstractCodeFragment> leaves1, List<? extends AbstractCodeFragment> leaves2,
+			Map<String, String> parameterToArgumentMap, boolean isomorphic) throws RefactoringMinerTimedOutException {
+		List<Pair<Integer, Integer>> anchors = uniqueIdenticalLeavesInSameOrder(leaves1, leaves2);
+		if(anchors.isEmpty()) {
+			//without anchors the leaves are too many to be compared with replacements, so only the identical leaves are mapped
+			logger.warn("No unique identical statements among {} and {} statements of {} and {}, only the identical statements are mapped",
+					leaves1.size(), leaves2.size(), container1, container2);
+			processLeaves(leaves1, leaves2, parameterToArgumentMap, isomorphic, true);
+			return;
+		}
+		Set<AbstractCodeFragment> remainingLeaves1 = new HashSet<AbstractCodeFragment>();
+		Set<AbstractCodeFragment> remainingLeaves2 = new HashSet<AbstractCodeFragment>();
+		int start1 = 0, start2 = 0;
+		for(int i=0; i<=anchors.size(); i++) {
+			checkTimeBudget();
+			int end1 = i < anchors.size() ? anchors.get(i).getLeft() : leaves1.size();
+			int end2 = i < anchors.size() ? anchors.get(i).getRight() : leaves2.size();
+			List<AbstractCodeFragment> windowLeaves1 = new ArrayList<AbstractCodeFragment>(leaves1.subList(start1, end1));
+			List<AbstractCodeFragment> windowLeaves2 = new ArrayList<AbstractCodeFragment>(leaves2.subList(start2, end2));
+			if(!windowLeaves1.isEmpty() && !windowLeaves2.isEmpty()) {
+				processLeaves(windowLeaves1, windowLeaves2, parameterToArgumentMap, isomorphic);
+			}
+			remainingLeaves1.addAll(windowLeaves1);
+			remainingLeaves2.addAll(windowLeaves2);
+			if(i < anchors.size()) {
+				LeafMapping mapping = createLeafMapping(leaves1.get(end1), leaves2.get(end2), parameterToArgumentMap, false);
+				addMapping(mapping);
+				processAnonymousClassDeclarationsInIdenticalStatements(mapping);
+				start1 = end1 + 1;
+				start2 = end2 + 1;
+			}
+		}
+		leaves1.retainAll(remainingLeaves1);
+		leaves2.retainAll(remainingLeaves2);
+	}
+
+	//patience diff: the longest sequence of leaves with a unique string in both lists, appearing in the same order in both lists
+	private List<Pair<Integer, Integer>> uniqueIdenticalLeavesInSameOrder(List<? extends AbstractCodeFragment> leaves1, List<? extends AbstractCodeFragment> leaves2) {
+		Map<String, Integer> uniqueLeaves1 = uniqueUnmatchedLeaves(leaves1, true);
+		Map<String, Integer> uniqueLeaves2 = uniqueUnmatchedLeaves(leaves2, false);
+		List<Pair<Integer, Integer>> pairs = new ArrayList<Pair<Integer, Integer>>();
+		for(int i=0; i<leaves1.size(); i++) {
+			String string = leaves1.get(i).getString();
+			Integer index2 = uniqueLeaves2.get(string);
+			if(index2 != null && uniqueLeaves1.containsKey(string)) {
+				pairs.add(Pair.of(i, index2));
+			}
+		}
+		//longest increasing subsequence of the indices in the second list, with patience sorting
+		List<Integer> pileTops = new ArrayList<Integer>();
+		int[] previous = new int[pairs.size()];
+		for(int i=0; i<pairs.size(); i++) {
+			int index2 = pairs.get(i).getRight();
+			int low = 0, high = pileTops.size();
+			while(low < high) {
+				int middle = (low + high) >>> 1;
+				if(pairs.get(pileTops.get(middle)).getRight() < index2) {
+					low = middle + 1;
+				}
+				else {
+					high = middle;
+				}
+			}
+			previous[i] = low > 0 ? pileTops.get(low - 1) : -1;
+			if(low == pileTops.size()) {
+				pileTops.add(i);
+			}
+			else {
+				pileTops.set(low, i);
+			}
+		}
+		List<Pair<Integer, Integer>> anchors = new ArrayList<Pair<Integer, Integer>>();
+		for(int i = pileTops.isEmpty() ? -1 : pileTops.get(pileTops.size() - 1); i >= 0; i = previous[i]) {
+			anchors.add(pairs.get(i));
+		}
+		Collections.reverse(anchors);
+		return anchors;
+	}
+
+	private Map<String, Integer> uniqueUnmatchedLeaves(List<? extends AbstractCodeFragment> leaves, boolean first) {
+		Map<String, Integer> indexMap = new HashMap<String, Integer>();
+		Set<String> duplicates = new HashSet<String>();
+		for(int i=0; i<leaves.size(); i++) {
+			AbstractCodeFragment leaf = leaves.get(i);
+			String string = leaf.getString();
+			if(indexMap.put(string, i) != null || (first ? alreadyMatched1(leaf) : alreadyMatched2(leaf))) {
+				duplicates.add(string);
+			}
+		}
+		indexMap.keySet().removeAll(duplicates);
+		return indexMap;
+	}
+
+	protected <T1 extends AbstractCodeFragment, T2 extends AbstractCodeFragment> void processLeaves(List<T1> leaves1, List<T2> leaves2,
 			Map<String, String> parameterToArgumentMap, boolean isomorphic) throws RefactoringMinerTimedOutException {
 		if(leaves1.size() > MAXIMUM_NUMBER_OF_COMPARED_STATEMENTS && leaves2.size() > MAXIMUM_NUMBER_OF_COMPARED_STATEMENTS &&
 				container1.getBodyHashCode() != container2.getBodyHashCode()) {
+			processLeavesBetweenAnchors(leaves1, leaves2, parameterToArgumentMap, isomorphic);
 			return;
 		}
+		processLeaves(leaves1, leaves2, parameterToArgumentMap, isomorphic, false);
+	}
+
+	/**
+	 * @param exactMatchesOnly Whether only the leaves with identical strings or argumentized strings are mapped,
+	 * skipping the matching with replacements.
+	 */
+	private <T1 extends AbstractCodeFragment, T2 extends AbstractCodeFragment> void processLeaves(List<T1> leaves1, List<T2> leaves2,
+			Map<String, String> parameterToArgumentMap, boolean isomorphic, boolean exactMatchesOnly) throws RefactoringMinerTimedOutException {
+		//the leaves are processed in copies counting their modifications, so that the string indexes detect the leaves removed or added by other means
+		VersionedArrayList<T1> versionedLeaves1 = new VersionedArrayList<T1>(leaves1);
+		VersionedArrayList<T2> versionedLeaves2 = new VersionedArrayList<T2>(leaves2);
+		try {
+			processVersionedLeaves(versionedLeaves1, versionedLeaves2, parameterToArgumentMap, isomorphic, exactMatchesOnly);
+		}
+		finally {
+			versionedLeaves1.copyTo(leaves1);
+			versionedLeaves2.copyTo(leaves2);
+		}
+	}
+
+	private void processVersionedLeaves(VersionedArrayList<? extends AbstractCodeFragment> leaves1, VersionedArrayList<? extends AbstractCodeFragment> leaves2,
+			Map<String, String> parameterToArgumentMap, boolean isomorphic, boolean exactMatchesOnly) throws RefactoringMinerTimedOutException {
 		List<TreeSet<LeafMapping>> postponedMappingSets = new ArrayList<TreeSet<LeafMapping>>();
 		boolean leaves1LessThanLeaves2UnderComposites = true;
 		int assertions1 = 0;
@@ -5288,15 +5420,16 @@ public class UMLOperationBodyMapper implements Comparable<UMLOperationBodyMapper
 		boolean leaves1LessThanLeaves2 = leaves1.size() <= leaves2.size() && leaves1LessThanLeaves2UnderComposites;
 		boolean equalNumberOfAssertions = assertions1 == assertions2 && assertions1 > 0;
 		if(leaves1LessThanLeaves2) {
+			LeafStringIndex leafIndex2 = new LeafStringIndex(leaves2);
 			//exact string+depth matching - leaf nodes
 			if(isomorphic) {
 				for(ListIterator<? extends AbstractCodeFragment> leafIterator1 = leaves1.listIterator(); leafIterator1.hasNext();) {
 					AbstractCodeFragment leaf1 = leafIterator1.next();
+					checkTimeBudget();
 					if(!alreadyMatched1(leaf1)) {
 						TreeSet<LeafMapping> mappingSet = new TreeSet<LeafMapping>();
 						int matchCount = 0;
-						for(ListIterator<? extends AbstractCodeFragment> leafIterator2 = leaves2.listIterator(); leafIterator2.hasNext();) {
-							AbstractCodeFragment leaf2 = leafIterator2.next();
+						for(AbstractCodeFragment leaf2 : leafIndex2.candidates(leaf1)) {
 							if(!alreadyMatched2(leaf2)) {
 								String argumentizedString1 = preprocessInput1(leaf1, leaf2);
 								String argumentizedString2 = preprocessInput2(leaf1, leaf2);
@@ -5332,14 +5465,14 @@ public class UMLOperationBodyMapper implements Comparable<UMLOperationBodyMapper
 							if((switchParentEntry = multipleMappingsUnderTheSameSwitch(mappingSet)) != null) {
 								LeafMapping bestMapping = findBestMappingBasedOnMappedSwitchCases(switchParentEntry, mappingSet);
 								addToMappings(bestMapping, mappingSet);
-								leaves2.remove(bestMapping.getFragment2());
+								leafIndex2.remove(bestMapping.getFragment2());
 								leafIterator1.remove();
 							}
 							else {
 								LeafMapping minStatementMapping = mappingSet.first();
 								addMapping(minStatementMapping);
 								processAnonymousClassDeclarationsInIdenticalStatements(minStatementMapping);
-								leaves2.remove(minStatementMapping.getFragment2());
+								leafIndex2.remove(minStatementMapping.getFragment2());
 								leafIterator1.remove();
 							}
 						}
@@ -5353,6 +5486,7 @@ public class UMLOperationBodyMapper implements Comparable<UMLOperationBodyMapper
 			//exact string matching - leaf nodes - finds moves to another level
 			for(ListIterator<? extends AbstractCodeFragment> leafIterator1 = leaves1.listIterator(); leafIterator1.hasNext();) {
 				AbstractCodeFragment leaf1 = leafIterator1.next();
+				checkTimeBudget();
 				if(!alreadyMatched1(leaf1)) {
 					List<AbstractCodeFragment> matchingLeaves1 = new ArrayList<>();
 					Set<AbstractCodeFragment> parents1 = new HashSet<>();
@@ -5364,11 +5498,9 @@ public class UMLOperationBodyMapper implements Comparable<UMLOperationBodyMapper
 					}
 					List<AbstractCodeFragment> matchingLeaves2 = new ArrayList<>();
 					Set<AbstractCodeFragment> parents2 = new HashSet<>();
-					for(AbstractCodeFragment l2 : leaves2) {
-						if(l2.getString().equals(leaf1.getString())) {
-							matchingLeaves2.add(l2);
-							parents2.add(l2.getParent());
-						}
+					for(AbstractCodeFragment l2 : leafIndex2.leavesWithString(leaf1.getString())) {
+						matchingLeaves2.add(l2);
+						parents2.add(l2.getParent());
 					}
 					boolean foundInExtractedStatements = false;
 					for(Set<AbstractCodeFragment> set : extractedStatements.values()) {
@@ -5386,7 +5518,7 @@ public class UMLOperationBodyMapper implements Comparable<UMLOperationBodyMapper
 						processLeaves(matchingLeaves1, matchingLeaves2, parameterToArgumentMap, isomorphic);
 						boolean alreadyRemoved = false;
 						for(AbstractCodeMapping mapping : this.mappings) {
-							leaves2.remove(mapping.getFragment2());
+							leafIndex2.remove(mapping.getFragment2());
 							if(mapping.getFragment1().equals(leaf1) && !alreadyRemoved) {
 								leafIterator1.remove();
 								alreadyRemoved = true;
@@ -5395,8 +5527,7 @@ public class UMLOperationBodyMapper implements Comparable<UMLOperationBodyMapper
 						continue;
 					}
 					TreeSet<LeafMapping> mappingSet = parentMapping != null ? new TreeSet<LeafMapping>(new ScopedLeafMappingComparatorForInline(parentMapping)) : new TreeSet<LeafMapping>();
-					for(ListIterator<? extends AbstractCodeFragment> leafIterator2 = leaves2.listIterator(); leafIterator2.hasNext();) {
-						AbstractCodeFragment leaf2 = leafIterator2.next();
+					for(AbstractCodeFragment leaf2 : leafIndex2.candidates(leaf1)) {
 						if((mappingSet.size() == 1 || mappings.size() == 1) && parentMapper != null && operationInvocation != null && this.callsToExtractedMethod > matchingLeaves1.size() && matchingLeaves1.size() > 0) {
 							//find previous and next mapping in parentMapper
 							AbstractCodeMapping mappingBefore = null;
@@ -5485,7 +5616,7 @@ public class UMLOperationBodyMapper implements Comparable<UMLOperationBodyMapper
 							}
 							addMapping(minLineDistanceStatementMapping);
 							processAnonymousClassDeclarationsInIdenticalStatements(minLineDistanceStatementMapping);
-							leaves2.remove(minLineDistanceStatementMapping.getFragment2());
+							leafIndex2.remove(minLineDistanceStatementMapping.getFragment2());
 							leafIterator1.remove();
 						}
 						else {
@@ -5493,7 +5624,7 @@ public class UMLOperationBodyMapper implements Comparable<UMLOperationBodyMapper
 							if(movedInIfElseBranch.size() > 1 && multiMappingCondition(matchingLeaves1, matchingLeaves2)) {
 								for(AbstractCodeMapping mapping : movedInIfElseBranch) {
 									addToMappings((LeafMapping) mapping, mappingSet);
-									leaves2.remove(mapping.getFragment2());
+									leafIndex2.remove(mapping.getFragment2());
 								}
 								leafIterator1.remove();
 								checkForMatchingSplitVariableDeclaration(leaf1, leaves2, parameterToArgumentMap, equalNumberOfAssertions);
@@ -5503,14 +5634,14 @@ public class UMLOperationBodyMapper implements Comparable<UMLOperationBodyMapper
 								if((switchParentEntry = multipleMappingsUnderTheSameSwitch(mappingSet)) != null) {
 									LeafMapping bestMapping = findBestMappingBasedOnMappedSwitchCases(switchParentEntry, mappingSet);
 									addToMappings(bestMapping, mappingSet);
-									leaves2.remove(bestMapping.getFragment2());
+									leafIndex2.remove(bestMapping.getFragment2());
 									leafIterator1.remove();
 								}
 								else {
 									LeafMapping minStatementMapping = mappingSet.first();
 									addMapping(minStatementMapping);
 									processAnonymousClassDeclarationsInIdenticalStatements(minStatementMapping);
-									leaves2.remove(minStatementMapping.getFragment2());
+									leafIndex2.remove(minStatementMapping.getFragment2());
 									leafIterator1.remove();
 								}
 							}
@@ -5518,7 +5649,9 @@ public class UMLOperationBodyMapper implements Comparable<UMLOperationBodyMapper
 					}
 				}
 			}
-			
+			if(exactMatchesOnly) {
+				return;
+			}
 			boolean allIdenticalStatementsHaveSameIndex = false;
 			if(leaves1.size() == leaves2.size() && isomorphic) {
 				int nonComposite = 0;
@@ -5546,6 +5679,7 @@ public class UMLOperationBodyMapper implements Comparable<UMLOperationBodyMapper
 			Set<AbstractCodeFragment> leaves2ToBeRemoved = new LinkedHashSet<>();
 			for(ListIterator<? extends AbstractCodeFragment> leafIterator1 = leaves1.listIterator(); leafIterator1.hasNext();) {
 				AbstractCodeFragment leaf1 = leafIterator1.next();
+				checkTimeBudget();
 				if(!alreadyMatched1(leaf1)) {
 					List<AbstractCodeFragment> matchingLeaves1 = new ArrayList<>();
 					if(mappings.size() == 1) {
@@ -5667,15 +5801,16 @@ public class UMLOperationBodyMapper implements Comparable<UMLOperationBodyMapper
 			leaves2.removeAll(leaves2ToBeRemoved);
 		}
 		else {
+			LeafStringIndex leafIndex1 = new LeafStringIndex(leaves1);
 			//exact string+depth matching - leaf nodes
 			if(isomorphic) {
 				for(ListIterator<? extends AbstractCodeFragment> leafIterator2 = leaves2.listIterator(); leafIterator2.hasNext();) {
 					AbstractCodeFragment leaf2 = leafIterator2.next();
+					checkTimeBudget();
 					if(!alreadyMatched2(leaf2)) {
 						TreeSet<LeafMapping> mappingSet = new TreeSet<LeafMapping>();
 						int matchCount = 0;
-						for(ListIterator<? extends AbstractCodeFragment> leafIterator1 = leaves1.listIterator(); leafIterator1.hasNext();) {
-							AbstractCodeFragment leaf1 = leafIterator1.next();
+						for(AbstractCodeFragment leaf1 : leafIndex1.candidates(leaf2)) {
 							if(!alreadyMatched1(leaf1)) {
 								String argumentizedString1 = preprocessInput1(leaf1, leaf2);
 								String argumentizedString2 = preprocessInput2(leaf1, leaf2);
@@ -5703,14 +5838,14 @@ public class UMLOperationBodyMapper implements Comparable<UMLOperationBodyMapper
 							if((switchParentEntry = multipleMappingsUnderTheSameSwitch(mappingSet)) != null) {
 								LeafMapping bestMapping = findBestMappingBasedOnMappedSwitchCases(switchParentEntry, mappingSet);
 								addToMappings(bestMapping, mappingSet);
-								leaves1.remove(bestMapping.getFragment1());
+								leafIndex1.remove(bestMapping.getFragment1());
 								leafIterator2.remove();
 							}
 							else {
 								LeafMapping minStatementMapping = mappingSet.first();
 								addMapping(minStatementMapping);
 								processAnonymousClassDeclarationsInIdenticalStatements(minStatementMapping);
-								leaves1.remove(minStatementMapping.getFragment1());
+								leafIndex1.remove(minStatementMapping.getFragment1());
 								leafIterator2.remove();
 							}
 						}
@@ -5724,14 +5859,13 @@ public class UMLOperationBodyMapper implements Comparable<UMLOperationBodyMapper
 			//exact string matching - leaf nodes - finds moves to another level
 			for(ListIterator<? extends AbstractCodeFragment> leafIterator2 = leaves2.listIterator(); leafIterator2.hasNext();) {
 				AbstractCodeFragment leaf2 = leafIterator2.next();
+				checkTimeBudget();
 				if(!alreadyMatched2(leaf2)) {
 					List<AbstractCodeFragment> matchingLeaves1 = new ArrayList<>();
 					Set<AbstractCodeFragment> parents1 = new HashSet<>();
-					for(AbstractCodeFragment l1 : leaves1) {
-						if(l1.getString().equals(leaf2.getString())) {
-							matchingLeaves1.add(l1);
-							parents1.add(l1.getParent());
-						}
+					for(AbstractCodeFragment l1 : leafIndex1.leavesWithString(leaf2.getString())) {
+						matchingLeaves1.add(l1);
+						parents1.add(l1.getParent());
 					}
 					List<AbstractCodeFragment> matchingLeaves2 = new ArrayList<>();
 					Set<AbstractCodeFragment> parents2 = new HashSet<>();
@@ -5747,7 +5881,7 @@ public class UMLOperationBodyMapper implements Comparable<UMLOperationBodyMapper
 						processLeaves(matchingLeaves1, matchingLeaves2, parameterToArgumentMap, isomorphic);
 						boolean alreadyRemoved = false;
 						for(AbstractCodeMapping mapping : this.mappings) {
-							leaves1.remove(mapping.getFragment1());
+							leafIndex1.remove(mapping.getFragment1());
 							if(mapping.getFragment2().equals(leaf2) && !alreadyRemoved) {
 								leafIterator2.remove();
 								alreadyRemoved = true;
@@ -5759,8 +5893,7 @@ public class UMLOperationBodyMapper implements Comparable<UMLOperationBodyMapper
 						continue;
 					}
 					TreeSet<LeafMapping> mappingSet = parentMapping != null ? new TreeSet<LeafMapping>(new ScopedLeafMappingComparatorForExtract(parentMapping)) : new TreeSet<LeafMapping>();
-					for(ListIterator<? extends AbstractCodeFragment> leafIterator1 = leaves1.listIterator(); leafIterator1.hasNext();) {
-						AbstractCodeFragment leaf1 = leafIterator1.next();
+					for(AbstractCodeFragment leaf1 : leafIndex1.candidates(leaf2)) {
 						boolean foundInExtractedStatements = false;
 						for(Set<AbstractCodeFragment> set : extractedStatements.values()) {
 							if(set.contains(leaf1)) {
@@ -5859,7 +5992,7 @@ public class UMLOperationBodyMapper implements Comparable<UMLOperationBodyMapper
 								for(AbstractCodeMapping mapping : movedOutOfIfElseBranch) {
 									addMapping(mapping);
 									processAnonymousClassDeclarationsInIdenticalStatements((LeafMapping) mapping);
-									leaves1.remove(mapping.getFragment1());
+									leafIndex1.remove(mapping.getFragment1());
 								}
 								leafIterator2.remove();
 							}
@@ -5867,7 +6000,7 @@ public class UMLOperationBodyMapper implements Comparable<UMLOperationBodyMapper
 								if(!duplicateMappingInParentMapper(mappingSet)) {
 									addMapping(minLineDistanceStatementMapping);
 									processAnonymousClassDeclarationsInIdenticalStatements(minLineDistanceStatementMapping);
-									leaves1.remove(minLineDistanceStatementMapping.getFragment1());
+									leafIndex1.remove(minLineDistanceStatementMapping.getFragment1());
 									leafIterator2.remove();
 								}
 							}
@@ -5877,7 +6010,7 @@ public class UMLOperationBodyMapper implements Comparable<UMLOperationBodyMapper
 							if((switchParentEntry = multipleMappingsUnderTheSameSwitch(mappingSet)) != null) {
 								LeafMapping bestMapping = findBestMappingBasedOnMappedSwitchCases(switchParentEntry, mappingSet);
 								addToMappings(bestMapping, mappingSet);
-								leaves1.remove(bestMapping.getFragment1());
+								leafIndex1.remove(bestMapping.getFragment1());
 								leafIterator2.remove();
 							}
 							else {
@@ -5894,7 +6027,7 @@ public class UMLOperationBodyMapper implements Comparable<UMLOperationBodyMapper
 											LeafMapping minStatementMapping = scopedMappingSet.first();
 											if(canBeAdded(minStatementMapping, parameterToArgumentMap)) {
 												addToMappings(minStatementMapping, scopedMappingSet);
-												leaves1.remove(minStatementMapping.getFragment1());
+												leafIndex1.remove(minStatementMapping.getFragment1());
 												leafIterator2.remove();
 											}
 										}
@@ -5906,7 +6039,7 @@ public class UMLOperationBodyMapper implements Comparable<UMLOperationBodyMapper
 										for(AbstractCodeMapping mapping : movedOutOfIfElseBranch) {
 											addMapping(mapping);
 											processAnonymousClassDeclarationsInIdenticalStatements((LeafMapping) mapping);
-											leaves1.remove(mapping.getFragment1());
+											leafIndex1.remove(mapping.getFragment1());
 										}
 										leafIterator2.remove();
 									}
@@ -5915,7 +6048,7 @@ public class UMLOperationBodyMapper implements Comparable<UMLOperationBodyMapper
 											LeafMapping minStatementMapping = mappingSet.first();
 											addMapping(minStatementMapping);
 											processAnonymousClassDeclarationsInIdenticalStatements(minStatementMapping);
-											leaves1.remove(minStatementMapping.getFragment1());
+											leafIndex1.remove(minStatementMapping.getFragment1());
 											leafIterator2.remove();
 										}
 									}
@@ -5925,6 +6058,9 @@ public class UMLOperationBodyMapper implements Comparable<UMLOperationBodyMapper
 					}
 				}
 			}
+			if(exactMatchesOnly) {
+				return;
+			}
 			AbstractCodeMapping startMapping = null;
 			AbstractCodeMapping endMapping = null;
 			Set<VariableDeclaration> referencedVariableDeclarations1 = new LinkedHashSet<>();
@@ -5985,6 +6121,7 @@ public class UMLOperationBodyMapper implements Comparable<UMLOperationBodyMapper
 			Set<AbstractCodeFragment> leaves2ToBeRemoved = new LinkedHashSet<>();
 			for(ListIterator<? extends AbstractCodeFragment> leafIterator2 = leaves2.listIterator(); leafIterator2.hasNext();) {
 				AbstractCodeFragment leaf2 = leafIterator2.next();
+				checkTimeBudget();
 				if(!alreadyMatched2(leaf2)) {
 					List<AbstractCodeFragment> matchingLeaves1 = new ArrayList<>();
 					if(mappings.size() == 1) {
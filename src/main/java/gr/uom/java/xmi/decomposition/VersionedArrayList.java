@@ -0,0 +1,37 @@
+package gr.uom.java.xmi.decomposition;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Array list counting its modifications, including the replaced elements, so that the modification of the list can be detected in constant time.
+ */
+class VersionedArrayList<E> extends ArrayList<E> {
+	private static final long serialVersionUID = 1L;
+
+	VersionedArrayList(Collection<? extends E> c) {
+		super(c);
+	}
+
+	int getVersion() {
+		return modCount;
+	}
+
+	@Override
+	public E set(int index, E element) {
+		E previous = super.set(index, element);
+		modCount++;
+		return previous;
+	}
+
+	/**
+	 * Replaces the elements of the given list with the elements of this list, if this list has been modified since it was created.
+	 */
+	void copyTo(List<E> list) {
+		if(list != this && modCount != 0) {
+			list.clear();
+			list.addAll(this);
+		}
+	}
+}
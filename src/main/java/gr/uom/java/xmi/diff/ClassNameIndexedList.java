@@ -0,0 +1,126 @@
+package gr.uom.java.xmi.diff;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import gr.uom.java.xmi.UMLClass;
+import gr.uom.java.xmi.UMLType;
+
+/**
+ * List of elements indexed by class names, so that the first element with a given class name, or with a class name
+ * ending with a given type, can be found without scanning the list.
+ * Appended elements are indexed as they are added; any other modification of the list, including the replacement of
+ * an element, causes the index to be rebuilt on the next lookup. Elements replaced through a sub list are not detected.
+ */
+class ClassNameIndexedList<T> extends ArrayList<T> {
+	private static final long serialVersionUID = 1L;
+	private final Function<? super T, List<String>> classNames;
+	private Map<String, T> nameMap = new HashMap<String, T>();
+	private Map<String, T> nameSuffixMap = new HashMap<String, T>();
+	//ArrayList does not count the replacement of an element as a modification
+	private int replacements = 0;
+	private int indexedModCount = getModificationCount();
+
+	/**
+	 * @param classNames The class names an element is indexed by.
+	 */
+	private ClassNameIndexedList(Function<? super T, List<String>> classNames) {
+		this.classNames = classNames;
+	}
+
+	/**
+	 * @return An empty list of classes indexed by their names.
+	 */
+	static ClassNameIndexedList<UMLClass> ofClasses() {
+		return new ClassNameIndexedList<UMLClass>(umlClass -> List.of(umlClass.getName()));
+	}
+
+	/**
+	 * @return An empty list of class diffs indexed by the names {@link UMLClassBaseDiff#matches(String)} compares.
+	 */
+	static <T extends UMLClassBaseDiff> ClassNameIndexedList<T> ofClassDiffs() {
+		return new ClassNameIndexedList<T>(UMLClassBaseDiff::getMatchedClassNames);
+	}
+
+	@Override
+	public boolean add(T element) {
+		boolean indexed = indexedModCount == getModificationCount();
+		super.add(element);
+		if(indexed) {
+			index(element);
+			indexedModCount = getModificationCount();
+		}
+		return true;
+	}
+
+	@Override
+	public boolean addAll(Collection<? extends T> elements) {
+		boolean indexed = indexedModCount == getModificationCount();
+		boolean modified = super.addAll(elements);
+		if(indexed) {
+			for(T element : elements) {
+				index(element);
+			}
+			indexedModCount = getModificationCount();
+		}
+		return modified;
+	}
+
+	/**
+	 * @return The first element in the list with the given class name, or null.
+	 */
+	T get(String className) {
+		updateIndex();
+		return nameMap.get(className);
+	}
+
+	/**
+	 * @return The first element in the list with a class name ending with a dot followed by the given type, or null.
+	 */
+	T get(UMLType type) {
+		updateIndex();
+		return nameSuffixMap.get(String.valueOf(type.getClassType()));
+	}
+
+	@Override
+	public T set(int index, T element) {
+		T previous = super.set(index, element);
+		replacements++;
+		return previous;
+	}
+
+	/**
+	 * @return The number of times the list has been modified, for detecting changes since a previous call.
+	 */
+	int getModificationCount() {
+		return modCount + replacements;
+	}
+
+	/**
+	 * Rebuilds the index, if the list has been modified since it was last indexed.
+	 * Lookups performed concurrently by several threads require the index to be updated beforehand.
+	 */
+	void updateIndex() {
+		if(indexedModCount != getModificationCount()) {
+			nameMap.clear();
+			nameSuffixMap.clear();
+			for(T element : this) {
+				index(element);
+			}
+			indexedModCount = getModificationCount();
+		}
+	}
+
+	private void index(T element) {
+		for(String className : classNames.apply(element)) {
+			nameMap.putIfAbsent(className, element);
+			for(int index = className.indexOf('.'); index != -1; index = className.indexOf('.', index + 1)) {
+				nameSuffixMap.putIfAbsent(className.substring(index + 1), element);
+			}
+		}
+	}
+}
@@ -0,0 +1,39 @@
+package gr.uom.java.xmi.diff;
+
+import java.util.concurrent.TimeUnit;
+
+import org.refactoringminer.api.RefactoringMinerTimedOutException;
+
+/**
+ * Time budget for the detection of the refactorings of a commit.
+ * The expensive detection phases check the budget at the head of their loops, and stop by throwing a
+ * {@link RefactoringMinerTimedOutException} once it is exhausted.
+ */
+public class DetectionTimeBudget {
+	private final long deadline;
+	private final boolean partialResults;
+
+	/**
+	 * @param timeout The time available for the detection, starting now, in milliseconds.
+	 * @param partialResults Whether the refactorings detected by the phases completed before the budget is exhausted are returned,
+	 * instead of reporting a timeout.
+	 */
+	public DetectionTimeBudget(long timeout, boolean partialResults) {
+		this.deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+		this.partialResults = partialResults;
+	}
+
+	public boolean isExhausted() {
+		return System.nanoTime() - deadline >= 0;
+	}
+
+	public boolean allowsPartialResults() {
+		return partialResults;
+	}
+
+	public void check() throws RefactoringMinerTimedOutException {
+		if(isExhausted()) {
+			throw new RefactoringMinerTimedOutException();
+		}
+	}
+}
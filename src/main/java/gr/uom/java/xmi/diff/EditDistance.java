@@ -0,0 +1,317 @@
+package gr.uom.java.xmi.diff;
+
+import java.util.Arrays;
+
+/**
+ * Levenshtein distance between strings, computed with buffers reused by each thread, so that the distances
+ * computed in the innermost loops of the statement matching do not allocate.
+ * The common prefix and suffix of the strings are skipped. The distance is computed with the bit-parallel algorithm
+ * of Myers, as formulated by Hyyr&ouml; for the edit distance, using one word per 64 characters of the shorter remaining
+ * string, or with dynamic programming restricted to the diagonal band allowed by the threshold, when the band is
+ * narrow compared to the length of the string.
+ * The distances are the same as those of commons-text {@code LevenshteinDistance}.
+ */
+class EditDistance {
+	private static final ThreadLocal<EditDistance> ENGINE = ThreadLocal.withInitial(EditDistance::new);
+	private static final int WORD_SIZE = 64;
+	private static final int ASCII = 128;
+	//cells of the band computed in the time of one block of the bit vectors
+	private static final int BLOCK_COST = 8;
+	//larger than any distance, and small enough to be incremented without overflow
+	private static final int INFINITY = Integer.MAX_VALUE / 2;
+
+	//match masks of the characters of the pattern, for the bit-parallel algorithm
+	private final long[] asciiMasks = new long[ASCII];
+	private final char[] otherCharacters = new char[WORD_SIZE];
+	private final long[] otherMasks = new long[WORD_SIZE];
+	private int otherCount;
+	//match masks and vertical deltas of the patterns longer than a word, one word per block of the pattern
+	private long[] blockAsciiMasks = new long[0];
+	private char[] blockOtherCharacters = new char[0];
+	private long[] blockOtherMasks = new long[0];
+	private long[] positiveVerticals = new long[0];
+	private long[] negativeVerticals = new long[0];
+	//rows of the dynamic programming matrix
+	private int[] previousRow = new int[WORD_SIZE + 1];
+	private int[] currentRow = new int[WORD_SIZE + 1];
+
+	/**
+	 * @return The edit distance between the given strings.
+	 */
+	static int distance(CharSequence a, CharSequence b) {
+		return ENGINE.get().compute(a, b, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * @return The edit distance between the given strings if it does not exceed the given threshold, otherwise -1.
+	 */
+	static int distance(CharSequence a, CharSequence b, int threshold) {
+		if(threshold < 0) {
+			throw new IllegalArgumentException("Threshold must not be negative");
+		}
+		return ENGINE.get().compute(a, b, threshold);
+	}
+
+	private int compute(CharSequence a, CharSequence b, int threshold) {
+		int start = 0;
+		int end1 = a.length();
+		int end2 = b.length();
+		while(start < end1 && start < end2 && a.charAt(start) == b.charAt(start)) {
+			start++;
+		}
+		while(end1 > start && end2 > start && a.charAt(end1 - 1) == b.charAt(end2 - 1)) {
+			end1--;
+			end2--;
+		}
+		int length1 = end1 - start;
+		int length2 = end2 - start;
+		//the pattern is the shorter string
+		CharSequence pattern = a, text = b;
+		int patternLength = length1, textLength = length2;
+		if(length1 > length2) {
+			pattern = b;
+			text = a;
+			patternLength = length2;
+			textLength = length1;
+		}
+		if(textLength - patternLength > threshold) {
+			return -1;
+		}
+		if(patternLength == 0) {
+			return textLength;
+		}
+		if(patternLength <= WORD_SIZE) {
+			return bitParallel(pattern, text, start, patternLength, textLength, threshold);
+		}
+		int blocks = (patternLength + WORD_SIZE - 1) / WORD_SIZE;
+		//a narrow band is cheaper than the bit vectors of a long pattern
+		if(2L * threshold + 1 < BLOCK_COST * blocks) {
+			return banded(pattern, text, start, patternLength, textLength, threshold);
+		}
+		return blockBitParallel(pattern, text, start, patternLength, textLength, threshold, blocks);
+	}
+
+	private int bitParallel(CharSequence pattern, CharSequence text, int start, int patternLength, int textLength, int threshold) {
+		for(int i = 0; i < patternLength; i++) {
+			char c = pattern.charAt(start + i);
+			long bit = 1L << i;
+			if(c < ASCII) {
+				asciiMasks[c] |= bit;
+			}
+			else {
+				int index = otherIndex(c);
+				if(index < 0) {
+					index = otherCount++;
+					otherCharacters[index] = c;
+					otherMasks[index] = 0;
+				}
+				otherMasks[index] |= bit;
+			}
+		}
+		long positiveVertical = patternLength == WORD_SIZE ? -1L : (1L << patternLength) - 1;
+		long negativeVertical = 0;
+		long lastBit = 1L << (patternLength - 1);
+		int score = patternLength;
+		int result = -1;
+		for(int j = 0; j < textLength; j++) {
+			char c = text.charAt(start + j);
+			long match;
+			if(c < ASCII) {
+				match = asciiMasks[c];
+			}
+			else {
+				int index = otherIndex(c);
+				match = index < 0 ? 0 : otherMasks[index];
+			}
+			long xVertical = match | negativeVertical;
+			long xHorizontal = (((match & positiveVertical) + positiveVertical) ^ positiveVertical) | match;
+			long positiveHorizontal = negativeVertical | ~(xHorizontal | positiveVertical);
+			long negativeHorizontal = positiveVertical & xHorizontal;
+			if((positiveHorizontal & lastBit) != 0) {
+				score++;
+			}
+			else if((negativeHorizontal & lastBit) != 0) {
+				score--;
+			}
+			//the first row of the matrix increases by one in each column
+			positiveHorizontal = (positiveHorizontal << 1) | 1L;
+			negativeHorizontal = negativeHorizontal << 1;
+			positiveVertical = negativeHorizontal | ~(xVertical | positiveHorizontal);
+			negativeVertical = positiveHorizontal & xVertical;
+			//the score decreases by at most one per remaining character of the text
+			if(score - (textLength - j - 1) > threshold) {
+				break;
+			}
+			if(j == textLength - 1) {
+				result = score <= threshold ? score : -1;
+			}
+		}
+		for(int i = 0; i < patternLength; i++) {
+			char c = pattern.charAt(start + i);
+			if(c < ASCII) {
+				asciiMasks[c] = 0;
+			}
+		}
+		otherCount = 0;
+		return result;
+	}
+
+	private int blockBitParallel(CharSequence pattern, CharSequence text, int start, int patternLength, int textLength, int threshold, int blocks) {
+		if(blockAsciiMasks.length < ASCII * blocks) {
+			blockAsciiMasks = new long[ASCII * blocks];
+			blockOtherMasks = new long[patternLength * blocks];
+			positiveVerticals = new long[blocks];
+			negativeVerticals = new long[blocks];
+			blockOtherCharacters = new char[patternLength];
+		}
+		else if(blockOtherCharacters.length < patternLength) {
+			blockOtherMasks = new long[patternLength * blocks];
+			blockOtherCharacters = new char[patternLength];
+		}
+		//the match masks of a character are stored contiguously, one word per block
+		for(int i = 0; i < patternLength; i++) {
+			char c = pattern.charAt(start + i);
+			long[] masks;
+			int offset;
+			if(c < ASCII) {
+				masks = blockAsciiMasks;
+				offset = c * blocks;
+			}
+			else {
+				int index = blockOtherIndex(c);
+				if(index < 0) {
+					index = otherCount++;
+					blockOtherCharacters[index] = c;
+					Arrays.fill(blockOtherMasks, index * blocks, (index + 1) * blocks, 0);
+				}
+				masks = blockOtherMasks;
+				offset = index * blocks;
+			}
+			masks[offset + i / WORD_SIZE] |= 1L << (i % WORD_SIZE);
+		}
+		Arrays.fill(positiveVerticals, 0, blocks, -1L);
+		Arrays.fill(negativeVerticals, 0, blocks, 0);
+		int lastBlock = blocks - 1;
+		long lastBit = 1L << ((patternLength - 1) % WORD_SIZE);
+		int score = patternLength;
+		int result = -1;
+		for(int j = 0; j < textLength; j++) {
+			char c = text.charAt(start + j);
+			long[] masks;
+			int offset;
+			if(c < ASCII) {
+				masks = blockAsciiMasks;
+				offset = c * blocks;
+			}
+			else {
+				int index = blockOtherIndex(c);
+				masks = index < 0 ? null : blockOtherMasks;
+				offset = index * blocks;
+			}
+			//the first row of the matrix increases by one in each column
+			int horizontalIn = 1;
+			for(int b = 0; b < blocks; b++) {
+				long match = masks == null ? 0 : masks[offset + b];
+				long positiveVertical = positiveVerticals[b];
+				long negativeVertical = negativeVerticals[b];
+				long xVertical = match | negativeVertical;
+				if(horizontalIn < 0) {
+					match |= 1L;
+				}
+				long xHorizontal = (((match & positiveVertical) + positiveVertical) ^ positiveVertical) | match;
+				long positiveHorizontal = negativeVertical | ~(xHorizontal | positiveVertical);
+				long negativeHorizontal = positiveVertical & xHorizontal;
+				long outBit = b == lastBlock ? lastBit : Long.MIN_VALUE;
+				int horizontalOut = (positiveHorizontal & outBit) != 0 ? 1 : (negativeHorizontal & outBit) != 0 ? -1 : 0;
+				positiveHorizontal <<= 1;
+				negativeHorizontal <<= 1;
+				if(horizontalIn < 0) {
+					negativeHorizontal |= 1L;
+				}
+				else if(horizontalIn > 0) {
+					positiveHorizontal |= 1L;
+				}
+				positiveVerticals[b] = negativeHorizontal | ~(xVertical | positiveHorizontal);
+				negativeVerticals[b] = positiveHorizontal & xVertical;
+				horizontalIn = horizontalOut;
+			}
+			score += horizontalIn;
+			if(score - (textLength - j - 1) > threshold) {
+				break;
+			}
+			if(j == textLength - 1) {
+				result = score <= threshold ? score : -1;
+			}
+		}
+		for(int i = 0; i < patternLength; i++) {
+			char c = pattern.charAt(start + i);
+			if(c < ASCII) {
+				blockAsciiMasks[c * blocks + i / WORD_SIZE] = 0;
+			}
+		}
+		otherCount = 0;
+		return result;
+	}
+
+	private int blockOtherIndex(char c) {
+		for(int i = 0; i < otherCount; i++) {
+			if(blockOtherCharacters[i] == c) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private int otherIndex(char c) {
+		for(int i = 0; i < otherCount; i++) {
+			if(otherCharacters[i] == c) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private int banded(CharSequence pattern, CharSequence text, int start, int patternLength, int textLength, int threshold) {
+		if(previousRow.length <= patternLength) {
+			int size = Math.max(patternLength + 1, previousRow.length * 2);
+			previousRow = new int[size];
+			currentRow = new int[size];
+		}
+		int[] previous = previousRow;
+		int[] current = currentRow;
+		int band = Math.min(patternLength, threshold);
+		for(int i = 0; i <= band; i++) {
+			previous[i] = i;
+		}
+		Arrays.fill(previous, band + 1, patternLength + 1, INFINITY);
+		Arrays.fill(current, 0, patternLength + 1, INFINITY);
+		for(int j = 1; j <= textLength; j++) {
+			char c = text.charAt(start + j - 1);
+			int min = threshold >= j ? 1 : j - threshold;
+			int max = j > patternLength - threshold ? patternLength : j + threshold;
+			current[min - 1] = min == 1 ? j : INFINITY;
+			int lowest = current[min - 1];
+			for(int i = min; i <= max; i++) {
+				int cost;
+				if(pattern.charAt(start + i - 1) == c) {
+					cost = previous[i - 1];
+				}
+				else {
+					cost = 1 + Math.min(Math.min(current[i - 1], previous[i]), previous[i - 1]);
+				}
+				current[i] = cost;
+				if(cost < lowest) {
+					lowest = cost;
+				}
+			}
+			if(lowest > threshold) {
+				return -1;
+			}
+			int[] swap = previous;
+			previous = current;
+			current = swap;
+		}
+		int distance = previous[patternLength];
+		return distance <= threshold ? distance : -1;
+	}
+}
@@ -6,7 +6,6 @@ import java.util.List;
 import java.util.regex.Pattern;
 
 import org.apache.commons.io.IOUtils;
-import org.apache.commons.text.similarity.LevenshteinDistance;
 
 import com.github.difflib.DiffUtils;
 import com.github.difflib.patch.AbstractDelta;
@@ -23,7 +22,7 @@ public class StringDistance {
 		if(length1 > MAX_STRING_LENGTH || length2 > MAX_STRING_LENGTH) {
 			return threshold;
 		}
-		return new LevenshteinDistance(threshold).apply(a, b);
+		return EditDistance.distance(a, b, threshold);
 	}
 
 	public static int editDistance(String a, String b) {
@@ -32,14 +31,35 @@ public class StringDistance {
 		if(length1 > MAX_STRING_LENGTH || length2 > MAX_STRING_LENGTH) {
 			return Math.max(length1, length2);
 		}
-		return new LevenshteinDistance().apply(a, b);
+		return EditDistance.distance(a, b);
+	}
+
+	//same as editDistance(a, b) when the distance is smaller than the limit, otherwise -1, without computing the larger distances
+	public static int editDistanceBelow(String a, String b, int limit) {
+		int length1 = a.length();
+		int length2 = b.length();
+		if(length1 > MAX_STRING_LENGTH || length2 > MAX_STRING_LENGTH) {
+			int distance = Math.max(length1, length2);
+			return distance < limit ? distance : -1;
+		}
+		if(limit <= 0) {
+			return -1;
+		}
+		return EditDistance.distance(a, b, limit - 1);
 	}
 
 	public static boolean trivialCommentChange(String fileBefore, String fileAfter) throws IOException {
-		if(fileBefore.length() == fileAfter.length()) {
-			List<String> original = IOUtils.readLines(new StringReader(fileBefore));
-			List<String> revised = IOUtils.readLines(new StringReader(fileAfter));
+		List<String> original = IOUtils.readLines(new StringReader(fileBefore));
+		List<String> revised = IOUtils.readLines(new StringReader(fileAfter));
+		return trivialCommentChange(fileBefore.length() == fileAfter.length(), original, revised);
+	}
 
+	/**
+	 * Same as {@link #trivialCommentChange(String, String)} for files whose lines have already been read,
+	 * so that the lines of a file compared with many other files are read only once.
+	 */
+	public static boolean trivialCommentChange(boolean sameLength, List<String> original, List<String> revised) {
+		if(sameLength || original.size() == revised.size()) {
 			Patch<String> patch = DiffUtils.diff(original, revised);
 			List<AbstractDelta<String>> deltas = patch.getDeltas();
 			for(AbstractDelta<String> delta : deltas) {
@@ -54,26 +74,6 @@ public class StringDistance {
 			}
 			return true;
 		}
-		else {
-			List<String> original = IOUtils.readLines(new StringReader(fileBefore));
-			List<String> revised = IOUtils.readLines(new StringReader(fileAfter));
-
-			if(original.size() == revised.size()) {
-				Patch<String> patch = DiffUtils.diff(original, revised);
-				List<AbstractDelta<String>> deltas = patch.getDeltas();
-				for(AbstractDelta<String> delta : deltas) {
-					Chunk<String> source = delta.getSource();
-					if(source.getLines().size() > 0 && !source.getLines().get(0).isBlank() && !COMMENT_LINE.matcher(source.getLines().get(0)).matches()) {
-						return false;
-					}
-					Chunk<String> target = delta.getTarget();
-					if(target.getLines().size() > 0 && !target.getLines().get(0).isBlank() && !COMMENT_LINE.matcher(target.getLines().get(0)).matches()) {
-						return false;
-					}
-				}
-				return true;
-			}
-		}
 		return false;
 	}
 
@@ -94,7 +94,6 @@ public abstract class UMLClassBaseDiff extends UMLAbstractClassDiff implements C
 		this.superclassChanged = false;
 		this.addedImplementedInterfaces = new ArrayList<UMLType>();
 		this.removedImplementedInterfaces = new ArrayList<UMLType>();
-		this.consistentMethodInvocationRenamesInModel = findConsistentMethodInvocationRenamesInModelDiff();
 		this.implementedInterfaceBecomesSuperclass = Optional.empty();
 		this.superclassBecomesImplementedInterface = Optional.empty();
 		if(originalClass.getJavadoc() != null && nextClass.getJavadoc() != null) {
@@ -799,6 +798,11 @@ public abstract class UMLClassBaseDiff extends UMLAbstractClassDiff implements C
 				this.nextClass.getName().endsWith("." + type.getClassType());
 	}
 
+	//the class names compared by matches(String) and matches(UMLType)
+	protected List<String> getMatchedClassNames() {
+		return List.of(this.originalClass.getName(), this.nextClass.getName());
+	}
+
 	//return true if "classMoveDiff" represents the move of a class that is inner to this.originalClass
 	public boolean isInnerClassMove(UMLClassBaseDiff classDiff) {
 		if(this.originalClass.isInnerClass(classDiff.originalClass) && this.nextClass.isInnerClass(classDiff.nextClass))
@@ -1051,6 +1055,12 @@ public abstract class UMLClassBaseDiff extends UMLAbstractClassDiff implements C
 		return Math.abs(index1-index2);
 	}
 
+	private void checkTimeBudget() throws RefactoringMinerTimedOutException {
+		if(modelDiff != null) {
+			modelDiff.checkTimeBudget();
+		}
+	}
+
 	private void checkForOperationSignatureChanges() throws RefactoringMinerTimedOutException {
 		consistentMethodInvocationRenames = findConsistentMethodInvocationRenames();
 		int initialNumberOfRemovedOperations = removedOperations.size();
@@ -1059,6 +1069,7 @@ public abstract class UMLClassBaseDiff extends UMLAbstractClassDiff implements C
 			Set<VariableDeclarationContainer> removedOperationsToBeRemoved = new LinkedHashSet<>();
 			for(Iterator<UMLOperation> removedOperationIterator = removedOperations.iterator(); removedOperationIterator.hasNext();) {
 				UMLOperation removedOperation = removedOperationIterator.next();
+				checkTimeBudget();
 				if(isCommentedOut(removedOperation)) {
 					continue;
 				}
@@ -1201,6 +1212,7 @@ public abstract class UMLClassBaseDiff extends UMLAbstractClassDiff implements C
 			Set<VariableDeclarationContainer> addedOperationsToBeRemoved = new LinkedHashSet<>();
 			for(Iterator<UMLOperation> addedOperationIterator = addedOperations.iterator(); addedOperationIterator.hasNext();) {
 				UMLOperation addedOperation = addedOperationIterator.next();
+				checkTimeBudget();
 				double addedOperationBuilderStatementRatio = addedOperation.builderStatementRatio();
 				TreeSet<UMLOperationBodyMapper> mapperSet = new TreeSet<UMLOperationBodyMapper>();
 				for(Iterator<UMLOperation> removedOperationIterator = removedOperations.iterator(); removedOperationIterator.hasNext();) {
@@ -1343,6 +1355,7 @@ public abstract class UMLClassBaseDiff extends UMLAbstractClassDiff implements C
 							int mapperSetSize = mapperSet.size();
 							if(bestMapper != null) {
 								//check for consistent method renames in modelDiff
+								Map<MethodInvocationReplacement, UMLOperationBodyMapper> consistentMethodInvocationRenamesInModel = getConsistentMethodInvocationRenamesInModel();
 								for(MethodInvocationReplacement replacement : consistentMethodInvocationRenamesInModel.keySet()) {
 									UMLOperationBodyMapper mapper = consistentMethodInvocationRenamesInModel.get(replacement);
 									if(replacement.getInvokedOperationBefore().matchesOperation(bestMapper.getContainer1(), mapper.getContainer1(), mapper.getClassDiff(), modelDiff)) {
@@ -1692,6 +1705,14 @@ public abstract class UMLClassBaseDiff extends UMLAbstractClassDiff implements C
 		return callReferences;
 	}
 
+	//computed on first use, because when the common classes are diffed in parallel all class diffs are created before any of them is processed
+	private Map<MethodInvocationReplacement, UMLOperationBodyMapper> getConsistentMethodInvocationRenamesInModel() {
+		if(consistentMethodInvocationRenamesInModel == null) {
+			consistentMethodInvocationRenamesInModel = findConsistentMethodInvocationRenamesInModelDiff();
+		}
+		return consistentMethodInvocationRenamesInModel;
+	}
+
 	private Map<MethodInvocationReplacement, UMLOperationBodyMapper> findConsistentMethodInvocationRenamesInModelDiff() {
 		Map<MethodInvocationReplacement, UMLOperationBodyMapper> map = new HashMap<MethodInvocationReplacement, UMLOperationBodyMapper>();
 		if(modelDiff != null) {
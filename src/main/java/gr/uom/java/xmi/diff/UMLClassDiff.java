@@ -1,5 +1,7 @@
 package gr.uom.java.xmi.diff;
 
+import java.util.List;
+
 import org.apache.commons.lang3.tuple.Pair;
 import org.refactoringminer.api.RefactoringMinerTimedOutException;
 
@@ -95,4 +97,9 @@ public class UMLClassDiff extends UMLClassBaseDiff {
 	public boolean matches(UMLType type) {
 		return this.className.endsWith("." + type.getClassType());
 	}
+
+	@Override
+	protected List<String> getMatchedClassNames() {
+		return List.of(this.className);
+	}
 }
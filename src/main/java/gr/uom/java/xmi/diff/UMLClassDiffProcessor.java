@@ -0,0 +1,237 @@
+package gr.uom.java.xmi.diff;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.refactoringminer.api.RefactoringMinerTimedOutException;
+
+import gr.uom.java.xmi.UMLOperation;
+import gr.uom.java.xmi.UMLType;
+import gr.uom.java.xmi.decomposition.UMLOperationBodyMapper;
+
+/**
+ * Parallel processing of the diffs of the classes common to both models.
+ * When processed sequentially, a class diff can look up the diffs of the preceding common classes, which are already
+ * processed and registered in the model diff. When processed in parallel, such lookups wait until the looked up diffs
+ * are processed, so that every class diff observes the same state as with sequential processing.
+ * The class diffs are started in order, and wait only for preceding class diffs, so the first class diff not processed
+ * yet is always running. The pool may activate a spare worker thread while a class diff waits, up to one per thread
+ * of the pool, and the other waits block their worker thread.
+ */
+class UMLClassDiffProcessor {
+	private final ClassNameIndexedList<UMLClassDiff> classDiffs = ClassNameIndexedList.ofClassDiffs();
+	private final Map<UMLClassDiff, Integer> positions = new IdentityHashMap<UMLClassDiff, Integer>();
+	private final CountDownLatch[] processed;
+	private final Throwable[] failures;
+	private final Thread[] runners;
+	private final ThreadLocal<Integer> currentPosition = new ThreadLocal<Integer>();
+	private final AtomicInteger managedBlocks = new AtomicInteger();
+	private int maxManagedBlocks;
+	private volatile boolean cancelled;
+
+	UMLClassDiffProcessor(List<UMLClassDiff> classDiffs) {
+		for(UMLClassDiff classDiff : classDiffs) {
+			this.positions.put(classDiff, this.classDiffs.size());
+			this.classDiffs.add(classDiff);
+		}
+		this.processed = new CountDownLatch[classDiffs.size()];
+		for(int i=0; i<processed.length; i++) {
+			processed[i] = new CountDownLatch(1);
+		}
+		this.failures = new Throwable[classDiffs.size()];
+		this.runners = new Thread[classDiffs.size()];
+	}
+
+	void process(ForkJoinPool pool) throws RefactoringMinerTimedOutException {
+		maxManagedBlocks = pool.getParallelism();
+		for(int i=0; i<classDiffs.size(); i++) {
+			int position = i;
+			pool.execute(() -> process(position));
+		}
+		try {
+			for(int i=0; i<classDiffs.size(); i++) {
+				await(processed[i]);
+				Throwable failure = failures[i];
+				if(failure != null) {
+					cancel();
+					if(failure instanceof RefactoringMinerTimedOutException)
+						throw (RefactoringMinerTimedOutException)failure;
+					if(failure instanceof Error)
+						throw (Error)failure;
+					throw (RuntimeException)failure;
+				}
+			}
+		}
+		catch(InterruptedException e) {
+			cancel();
+			throw new RefactoringMinerTimedOutException();
+		}
+	}
+
+	private void process(int position) {
+		synchronized(runners) {
+			if(cancelled) {
+				failures[position] = new CancellationException();
+				processed[position].countDown();
+				return;
+			}
+			runners[position] = Thread.currentThread();
+		}
+		currentPosition.set(position);
+		try {
+			classDiffs.get(position).process();
+		}
+		catch(Throwable e) {
+			failures[position] = e;
+		}
+		finally {
+			currentPosition.remove();
+			synchronized(runners) {
+				runners[position] = null;
+				//clear an interruption meant for this class diff, before the worker thread runs another task
+				if(cancelled) {
+					Thread.interrupted();
+				}
+			}
+			processed[position].countDown();
+		}
+	}
+
+	private void cancel() {
+		synchronized(runners) {
+			cancelled = true;
+			for(Thread runner : runners) {
+				if(runner != null) {
+					runner.interrupt();
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return true if the calling thread is processing one of the class diffs.
+	 */
+	boolean isProcessing() {
+		return currentPosition.get() != null;
+	}
+
+	/**
+	 * @return The diffs of the common classes preceding the class diff processed by the calling thread, after they are processed.
+	 */
+	List<UMLClassDiff> getPrecedingClassDiffs() {
+		int position = currentPosition.get();
+		for(int i=0; i<position; i++) {
+			awaitProcessed(i);
+		}
+		return Collections.unmodifiableList(classDiffs.subList(0, position));
+	}
+
+	/**
+	 * @return The first diff that {@link UMLClassBaseDiff#matches(String)} the given class name, if it precedes the class diff
+	 * processed by the calling thread, after it is processed, or null.
+	 */
+	UMLClassDiff getPrecedingClassDiff(String className) {
+		return getPrecedingClassDiff(classDiffs.get(className));
+	}
+
+	/**
+	 * @return The first diff that {@link UMLClassBaseDiff#matches(UMLType)} the given type, if it precedes the class diff
+	 * processed by the calling thread, after it is processed, or null.
+	 */
+	UMLClassDiff getPrecedingClassDiff(UMLType type) {
+		return getPrecedingClassDiff(classDiffs.get(type));
+	}
+
+	private UMLClassDiff getPrecedingClassDiff(UMLClassDiff classDiff) {
+		if(classDiff != null) {
+			int position = positions.get(classDiff);
+			if(position < currentPosition.get()) {
+				awaitProcessed(position);
+				return classDiff;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @return The mappers of the preceding class diffs with an operation matching the signature of the given operation.
+	 * Only the class diffs whose next class has an operation with the same signature are waited for.
+	 */
+	List<UMLOperationBodyMapper> findPrecedingMappersWithMatchingSignature2(UMLOperation operation2) {
+		List<UMLOperationBodyMapper> mappers = new ArrayList<UMLOperationBodyMapper>();
+		int position = currentPosition.get();
+		for(int i=0; i<position; i++) {
+			UMLClassDiff classDiff = classDiffs.get(i);
+			if(hasOperationWithTheSameSignature(classDiff, operation2)) {
+				awaitProcessed(i);
+				UMLOperationBodyMapper mapper = classDiff.findMapperWithMatchingSignature2(operation2);
+				if(mapper != null) {
+					mappers.add(mapper);
+				}
+			}
+		}
+		return mappers;
+	}
+
+	//the mappers of a class diff are created for the operations of its next class
+	private static boolean hasOperationWithTheSameSignature(UMLClassDiff classDiff, UMLOperation operation) {
+		for(UMLOperation nextOperation : classDiff.getNextClass().getOperations()) {
+			if(nextOperation.equalSignature(operation)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void awaitProcessed(int position) {
+		try {
+			await(processed[position]);
+		}
+		catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new CancellationException();
+		}
+		if(failures[position] != null) {
+			throw new CancellationException();
+		}
+	}
+
+	private void await(CountDownLatch latch) throws InterruptedException {
+		if(latch.getCount() == 0) {
+			return;
+		}
+		if(!(Thread.currentThread() instanceof ForkJoinWorkerThread)) {
+			latch.await();
+			return;
+		}
+		//a managed block lets the pool activate another worker thread, so that the preceding class diffs are processed
+		if(managedBlocks.incrementAndGet() > maxManagedBlocks) {
+			managedBlocks.decrementAndGet();
+			latch.await();
+			return;
+		}
+		try {
+			ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+				public boolean block() throws InterruptedException {
+					latch.await();
+					return true;
+				}
+
+				public boolean isReleasable() {
+					return latch.getCount() == 0;
+				}
+			});
+		}
+		finally {
+			managedBlocks.decrementAndGet();
+		}
+	}
+}
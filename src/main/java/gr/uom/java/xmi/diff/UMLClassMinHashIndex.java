@@ -0,0 +1,190 @@
+package gr.uom.java.xmi.diff;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import gr.uom.java.xmi.UMLAttribute;
+import gr.uom.java.xmi.UMLClass;
+import gr.uom.java.xmi.UMLEnumConstant;
+import gr.uom.java.xmi.UMLOperation;
+
+/**
+ * Blocking of the removed and added classes compared for class renames.
+ * Unless blocking is enabled and the number of removed and added class pairs exceeds {@code MAXIMUM_NUMBER_OF_EXHAUSTIVELY_COMPARED_PAIRS},
+ * every removed class is compared with every added class.
+ * Otherwise, each class is summarized by a MinHash sketch of the names of its operations, attributes and enum constants,
+ * the classes are bucketed by each locality-sensitive hashing band of their sketch, and only the classes sharing a bucket
+ * are compared. With {@code BANDS} bands of {@code ROWS} rows, pairs with a Jaccard similarity of 0.2 are compared with
+ * a probability above 0.9, and pairs with a similarity of 0.3 or more almost certainly. Weak matches between classes with
+ * almost no common member names can be missed, so blocking is lossy.
+ * Classes with fewer than {@code MINIMUM_NUMBER_OF_MEMBER_NAMES} member names cannot be sketched reliably,
+ * and are compared with all classes.
+ * The compared classes are looked up while the lists of removed and added classes only shrink.
+ */
+class UMLClassMinHashIndex {
+	static final int MAXIMUM_NUMBER_OF_EXHAUSTIVELY_COMPARED_PAIRS = 250000;
+	private static final int MINIMUM_NUMBER_OF_MEMBER_NAMES = 4;
+	private static final int BANDS = 64;
+	private static final int ROWS = 2;
+	private static final long[] SEEDS = new long[BANDS * ROWS];
+	static {
+		for(int i=0; i<SEEDS.length; i++) {
+			SEEDS[i] = mix(i + 1);
+		}
+	}
+	private final ClassNameIndexedList<UMLClass> removedClasses;
+	private final ClassNameIndexedList<UMLClass> addedClasses;
+	private final boolean exhaustive;
+	private final Map<UMLClass, long[]> bandKeys = new IdentityHashMap<UMLClass, long[]>();
+	private final Map<UMLClass, Integer> positions = new IdentityHashMap<UMLClass, Integer>();
+	private final Comparator<UMLClass> listOrder = Comparator.comparingInt(positions::get);
+	private final Bucketing removedClassBuckets = new Bucketing();
+	private final Bucketing addedClassBuckets = new Bucketing();
+
+	/**
+	 * @param blocking Whether the compared pairs are blocked when they are too many to be compared exhaustively.
+	 */
+	UMLClassMinHashIndex(ClassNameIndexedList<UMLClass> removedClasses, ClassNameIndexedList<UMLClass> addedClasses, boolean blocking) {
+		this.removedClasses = removedClasses;
+		this.addedClasses = addedClasses;
+		this.exhaustive = !blocking || (long)removedClasses.size() * addedClasses.size() <= MAXIMUM_NUMBER_OF_EXHAUSTIVELY_COMPARED_PAIRS;
+		if(!exhaustive) {
+			removedClassBuckets.addAll(removedClasses);
+			addedClassBuckets.addAll(addedClasses);
+		}
+	}
+
+	boolean isExhaustive() {
+		return exhaustive;
+	}
+
+	/**
+	 * @return The added classes to be compared with the given removed class, in list order.
+	 */
+	List<UMLClass> getAddedClassCandidates(UMLClass removedClass) {
+		return getCandidates(removedClass, addedClassBuckets, addedClasses);
+	}
+
+	/**
+	 * @return The removed classes to be compared with the given added class, in list order.
+	 */
+	List<UMLClass> getRemovedClassCandidates(UMLClass addedClass) {
+		return getCandidates(addedClass, removedClassBuckets, removedClasses);
+	}
+
+	private List<UMLClass> getCandidates(UMLClass umlClass, Bucketing buckets, ClassNameIndexedList<UMLClass> classes) {
+		if(exhaustive || !bandKeys.containsKey(umlClass)) {
+			return classes;
+		}
+		long[] keys = bandKeys.get(umlClass);
+		if(keys == null) {
+			return classes;
+		}
+		Set<UMLClass> candidates = Collections.newSetFromMap(new IdentityHashMap<UMLClass, Boolean>());
+		candidates.addAll(buckets.unsketchedClasses);
+		for(int i=0; i<BANDS; i++) {
+			List<UMLClass> bucket = buckets.bands.get(i).get(keys[i]);
+			if(bucket != null) {
+				candidates.addAll(bucket);
+			}
+		}
+		List<UMLClass> remainingCandidates = new ArrayList<UMLClass>(candidates.size());
+		for(UMLClass candidate : candidates) {
+			if(contains(classes, candidate)) {
+				remainingCandidates.add(candidate);
+			}
+		}
+		remainingCandidates.sort(listOrder);
+		return remainingCandidates;
+	}
+
+	private static boolean contains(ClassNameIndexedList<UMLClass> classes, UMLClass umlClass) {
+		UMLClass first = classes.get(umlClass.getName());
+		if(first == null) {
+			return false;
+		}
+		//classes with the same name in different source folders
+		return first == umlClass || classes.contains(umlClass);
+	}
+
+	private class Bucketing {
+		private final List<Map<Long, List<UMLClass>>> bands = new ArrayList<Map<Long, List<UMLClass>>>(BANDS);
+		private final List<UMLClass> unsketchedClasses = new ArrayList<UMLClass>();
+
+		private Bucketing() {
+			for(int i=0; i<BANDS; i++) {
+				bands.add(new HashMap<Long, List<UMLClass>>());
+			}
+		}
+
+		private void addAll(List<UMLClass> classes) {
+			for(int position=0; position<classes.size(); position++) {
+				UMLClass umlClass = classes.get(position);
+				positions.put(umlClass, position);
+				long[] keys = computeBandKeys(umlClass);
+				bandKeys.put(umlClass, keys);
+				if(keys == null) {
+					unsketchedClasses.add(umlClass);
+				}
+				else {
+					for(int i=0; i<BANDS; i++) {
+						bands.get(i).computeIfAbsent(keys[i], key -> new ArrayList<UMLClass>(1)).add(umlClass);
+					}
+				}
+			}
+		}
+	}
+
+	private static long[] computeBandKeys(UMLClass umlClass) {
+		Set<String> memberNames = new LinkedHashSet<String>();
+		for(UMLOperation operation : umlClass.getOperations()) {
+			//constructors are named after the class, and the methods of Object are common to all classes
+			if(!operation.isConstructor() && !operation.overridesObject()) {
+				memberNames.add(operation.getName() + "()");
+			}
+		}
+		for(UMLAttribute attribute : umlClass.getAttributes()) {
+			memberNames.add(attribute.getName());
+		}
+		for(UMLEnumConstant enumConstant : umlClass.getEnumConstants()) {
+			memberNames.add(enumConstant.getName());
+		}
+		if(memberNames.size() < MINIMUM_NUMBER_OF_MEMBER_NAMES) {
+			return null;
+		}
+		long[] minHashes = new long[SEEDS.length];
+		for(int i=0; i<minHashes.length; i++) {
+			minHashes[i] = Long.MAX_VALUE;
+		}
+		for(String memberName : memberNames) {
+			long hash = mix(memberName.hashCode());
+			for(int i=0; i<SEEDS.length; i++) {
+				minHashes[i] = Math.min(minHashes[i], mix(hash ^ SEEDS[i]));
+			}
+		}
+		long[] keys = new long[BANDS];
+		for(int i=0; i<BANDS; i++) {
+			long key = i;
+			for(int j=0; j<ROWS; j++) {
+				key = mix(key ^ minHashes[i * ROWS + j]);
+			}
+			keys[i] = key;
+		}
+		return keys;
+	}
+
+	//finalizer of the SplitMix64 generator
+	private static long mix(long value) {
+		long z = value + 0x9E3779B97F4A7C15L;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+}
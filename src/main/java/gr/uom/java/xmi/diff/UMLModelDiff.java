@@ -26,6 +26,7 @@ import gr.uom.java.xmi.decomposition.CompositeStatementObject;
 import gr.uom.java.xmi.decomposition.CompositeStatementObjectMapping;
 import gr.uom.java.xmi.decomposition.LeafExpression;
 import gr.uom.java.xmi.decomposition.LeafMapping;
+import gr.uom.java.xmi.decomposition.OperationBody;
 import gr.uom.java.xmi.decomposition.StatementObject;
 import gr.uom.java.xmi.decomposition.UMLOperationBodyMapper;
 import gr.uom.java.xmi.decomposition.UMLOperationBodyMapperComparator;
@@ -43,8 +44,12 @@ import gr.uom.java.xmi.decomposition.replacement.VariableReplacementWithMethodIn
 import static gr.uom.java.xmi.Constants.JAVA;
 import static gr.uom.java.xmi.diff.UMLClassBaseDiff.BUILDER_STATEMENT_RATIO_THRESHOLD;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
@@ -56,6 +61,7 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
 import java.util.regex.Pattern;
 
 import org.apache.commons.lang3.tuple.Pair;
@@ -69,8 +75,8 @@ public class UMLModelDiff {
 	private final int MAXIMUM_NUMBER_OF_COMPARED_METHODS;
 	private UMLModel parentModel;
 	private UMLModel childModel;
-	private List<UMLClass> addedClasses;
-	private List<UMLClass> removedClasses;
+	private ClassNameIndexedList<UMLClass> addedClasses;
+	private ClassNameIndexedList<UMLClass> removedClasses;
 
 	private List<UMLGeneralization> addedGeneralizations;
 	private List<UMLGeneralization> removedGeneralizations;
@@ -79,10 +85,11 @@ public class UMLModelDiff {
 	private List<UMLRealization> removedRealizations;
 	private List<UMLRealizationDiff> realizationDiffList;
 
-	private List<UMLClassDiff> commonClassDiffList;
-	private List<UMLClassMoveDiff> classMoveDiffList;
-	private List<UMLClassMoveDiff> innerClassMoveDiffList;
-	private List<UMLClassRenameDiff> classRenameDiffList;
+	private ClassNameIndexedList<UMLClassDiff> commonClassDiffList;
+	private ClassNameIndexedList<UMLClassMoveDiff> classMoveDiffList;
+	private ClassNameIndexedList<UMLClassMoveDiff> innerClassMoveDiffList;
+	private ClassNameIndexedList<UMLClassRenameDiff> classRenameDiffList;
+	private volatile UMLClassDiffProcessor commonClassDiffProcessor;
 	private List<UMLClassMergeDiff> classMergeDiffList;
 	private List<UMLClassSplitDiff> classSplitDiffList;
 	private List<UMLAttributeDiff> movedAttributeDiffList;
@@ -93,6 +100,12 @@ public class UMLModelDiff {
 	private Set<Pair<UMLClass, UMLClass>> processedClassPairs = new HashSet<Pair<UMLClass, UMLClass>>();
 	private Map<Replacement, Set<CandidateAttributeRefactoring>> renameMap = new LinkedHashMap<Replacement, Set<CandidateAttributeRefactoring>>();
 	private Map<MergeVariableReplacement, Set<CandidateMergeVariableRefactoring>> mergeMap = new LinkedHashMap<MergeVariableReplacement, Set<CandidateMergeVariableRefactoring>>();
+	private Map<String, Set<String>> supertypeMap = new HashMap<String, Set<String>>();
+	private int[] supertypeMapModificationCounts;
+	private DetectionTimeBudget timeBudget;
+	private boolean incomplete;
+	private boolean classRenameBlocking;
+	private Set<Refactoring> refactoringsOfCompletedPhases = Collections.emptySet();
 
 	public UMLModelDiff(UMLModel parentModel, UMLModel childModel) {
 		this.parentModel = parentModel;
@@ -103,18 +116,18 @@ public class UMLModelDiff {
 		else {
 			MAXIMUM_NUMBER_OF_COMPARED_METHODS = 200;
 		}
-		this.addedClasses = new ArrayList<UMLClass>();
-		this.removedClasses = new ArrayList<UMLClass>();
+		this.addedClasses = ClassNameIndexedList.ofClasses();
+		this.removedClasses = ClassNameIndexedList.ofClasses();
 		this.addedGeneralizations = new ArrayList<UMLGeneralization>();
 		this.removedGeneralizations = new ArrayList<UMLGeneralization>();
 		this.generalizationDiffList = new ArrayList<UMLGeneralizationDiff>();
 		this.realizationDiffList = new ArrayList<UMLRealizationDiff>();
 		this.addedRealizations = new ArrayList<UMLRealization>();
 		this.removedRealizations = new ArrayList<UMLRealization>();
-		this.commonClassDiffList = new ArrayList<UMLClassDiff>();
-		this.classMoveDiffList = new ArrayList<UMLClassMoveDiff>();
-		this.innerClassMoveDiffList = new ArrayList<UMLClassMoveDiff>();
-		this.classRenameDiffList = new ArrayList<UMLClassRenameDiff>();
+		this.commonClassDiffList = ClassNameIndexedList.ofClassDiffs();
+		this.classMoveDiffList = ClassNameIndexedList.ofClassDiffs();
+		this.innerClassMoveDiffList = ClassNameIndexedList.ofClassDiffs();
+		this.classRenameDiffList = ClassNameIndexedList.ofClassDiffs();
 		this.classMergeDiffList = new ArrayList<UMLClassMergeDiff>();
 		this.classSplitDiffList = new ArrayList<UMLClassSplitDiff>();
 		this.movedAttributeDiffList = new ArrayList<UMLAttributeDiff>();
@@ -131,31 +144,11 @@ public class UMLModelDiff {
 	}
 
 	public UMLAbstractClass findClassInParentModel(String className) {
-		for(UMLClass umlClass : parentModel.getClassList()) {
-			if(umlClass.getName().equals(className)) {
-				return umlClass;
-			}
-		}
-		for(UMLClass umlClass : parentModel.getClassList()) {
-			if(umlClass.getName().endsWith("." + className)) {
-				return umlClass;
-			}
-		}
-		return null;
+		return parentModel.getClassByName(className);
 	}
 
 	public UMLAbstractClass findClassInChildModel(String className) {
-		for(UMLClass umlClass : childModel.getClassList()) {
-			if(umlClass.getName().equals(className)) {
-				return umlClass;
-			}
-		}
-		for(UMLClass umlClass : childModel.getClassList()) {
-			if(umlClass.getName().endsWith("." + className)) {
-				return umlClass;
-			}
-		}
-		return null;
+		return childModel.getClassByName(className);
 	}
 
 	public void reportAddedClass(UMLClass umlClass) {
@@ -196,7 +189,38 @@ public class UMLModelDiff {
 		this.commonClassDiffList.add(classDiff);
 	}
 
+	/**
+	 * Process the given diffs of the classes common to both models in parallel on the given pool, and add them in the given order.
+	 * The model diff observed by each class diff during its processing is the same as when processing and adding the class diffs one by one.
+	 */
+	public void processUMLClassDiffs(List<UMLClassDiff> classDiffs, ForkJoinPool pool) throws RefactoringMinerTimedOutException {
+		UMLClassDiffProcessor processor = new UMLClassDiffProcessor(classDiffs);
+		classMoveDiffList.updateIndex();
+		innerClassMoveDiffList.updateIndex();
+		classRenameDiffList.updateIndex();
+		addedClasses.updateIndex();
+		removedClasses.updateIndex();
+		this.commonClassDiffProcessor = processor;
+		try {
+			processor.process(pool);
+		}
+		finally {
+			this.commonClassDiffProcessor = null;
+		}
+		for(UMLClassDiff classDiff : classDiffs) {
+			addUMLClassDiff(classDiff);
+		}
+	}
+
+	private UMLClassDiffProcessor getCommonClassDiffProcessor() {
+		UMLClassDiffProcessor processor = commonClassDiffProcessor;
+		return processor != null && processor.isProcessing() ? processor : null;
+	}
+
 	public List<UMLClassDiff> getCommonClassDiffList() {
+		UMLClassDiffProcessor processor = getCommonClassDiffProcessor();
+		if(processor != null)
+			return processor.getPrecedingClassDiffs();
 		return commonClassDiffList;
 	}
 
@@ -233,43 +257,27 @@ public class UMLModelDiff {
 	}
 
 	public UMLClassBaseDiff getUMLClassDiff(String className) {
-		for(UMLClassDiff classDiff : commonClassDiffList) {
-			if(classDiff.matches(className))
-				return classDiff;
-		}
-		for(UMLClassMoveDiff classDiff : classMoveDiffList) {
-			if(classDiff.matches(className))
-				return classDiff;
-		}
-		for(UMLClassMoveDiff classDiff : innerClassMoveDiffList) {
-			if(classDiff.matches(className))
-				return classDiff;
-		}
-		for(UMLClassRenameDiff classDiff : classRenameDiffList) {
-			if(classDiff.matches(className))
-				return classDiff;
-		}
-		return null;
+		UMLClassDiffProcessor processor = getCommonClassDiffProcessor();
+		UMLClassBaseDiff classDiff = processor != null ? processor.getPrecedingClassDiff(className) : commonClassDiffList.get(className);
+		if(classDiff == null)
+			classDiff = classMoveDiffList.get(className);
+		if(classDiff == null)
+			classDiff = innerClassMoveDiffList.get(className);
+		if(classDiff == null)
+			classDiff = classRenameDiffList.get(className);
+		return classDiff;
 	}
 
 	public UMLClassBaseDiff getUMLClassDiff(UMLType type) {
-		for(UMLClassDiff classDiff : commonClassDiffList) {
-			if(classDiff.matches(type))
-				return classDiff;
-		}
-		for(UMLClassMoveDiff classDiff : classMoveDiffList) {
-			if(classDiff.matches(type))
-				return classDiff;
-		}
-		for(UMLClassMoveDiff classDiff : innerClassMoveDiffList) {
-			if(classDiff.matches(type))
-				return classDiff;
-		}
-		for(UMLClassRenameDiff classDiff : classRenameDiffList) {
-			if(classDiff.matches(type))
-				return classDiff;
-		}
-		return null;
+		UMLClassDiffProcessor processor = getCommonClassDiffProcessor();
+		UMLClassBaseDiff classDiff = processor != null ? processor.getPrecedingClassDiff(type) : commonClassDiffList.get(type);
+		if(classDiff == null)
+			classDiff = classMoveDiffList.get(type);
+		if(classDiff == null)
+			classDiff = innerClassMoveDiffList.get(type);
+		if(classDiff == null)
+			classDiff = classRenameDiffList.get(type);
+		return classDiff;
 	}
 
 	private UMLClassBaseDiff getUMLClassDiffWithAttribute(Replacement pattern) {
@@ -347,7 +355,16 @@ public class UMLModelDiff {
 	}
 
 	public boolean isSubclassOf(String subclass, String finalSuperclass) {
-		return isSubclassOf(subclass, finalSuperclass, new LinkedHashSet<String>());
+		if(commonClassDiffProcessor != null) {
+			//the inheritance relationships observed by a class diff processed in parallel depend on its preceding class diffs
+			return isSubclassOf(subclass, finalSuperclass, new LinkedHashSet<String>());
+		}
+		for(String supertype : getSupertypes(subclass)) {
+			if(looksLikeSameType(supertype, finalSuperclass)) {
+				return true;
+			}
+		}
+		return false;
 	}
 
 	private boolean isSubclassOf(String subclass, String finalSuperclass, Set<String> visitedClasses) {
@@ -357,6 +374,57 @@ public class UMLModelDiff {
 		else {
 			visitedClasses.add(subclass);
 		}
+		for(UMLType supertype : getDirectSupertypes(subclass)) {
+			if(checkInheritanceRelationship(supertype, finalSuperclass, visitedClasses)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private boolean checkInheritanceRelationship(UMLType superclass, String finalSuperclass, Set<String> visitedClasses) {
+		if(looksLikeSameType(superclass.getClassType(), finalSuperclass))
+			return true;
+		else
+			return isSubclassOf(superclass.getClassType(), finalSuperclass, visitedClasses);
+	}
+
+	/**
+	 * @return The types reachable from the given class through the inheritance relationships returned by {@link #getDirectSupertypes(String)}.
+	 * The result is computed once and reused, as long as the class diffs and the added and removed classes remain the same.
+	 */
+	private Set<String> getSupertypes(String subclass) {
+		int[] modificationCounts = new int[] {
+				commonClassDiffList.getModificationCount(), classMoveDiffList.getModificationCount(),
+				innerClassMoveDiffList.getModificationCount(), classRenameDiffList.getModificationCount(),
+				addedClasses.getModificationCount(), removedClasses.getModificationCount()};
+		if(!Arrays.equals(modificationCounts, supertypeMapModificationCounts)) {
+			supertypeMap.clear();
+			supertypeMapModificationCounts = modificationCounts;
+		}
+		Set<String> supertypes = supertypeMap.get(subclass);
+		if(supertypes == null) {
+			supertypes = new LinkedHashSet<String>();
+			Set<String> visitedClasses = new HashSet<String>();
+			visitedClasses.add(subclass);
+			Deque<String> queue = new ArrayDeque<String>();
+			queue.add(subclass);
+			while(!queue.isEmpty()) {
+				for(UMLType supertype : getDirectSupertypes(queue.poll())) {
+					String classType = supertype.getClassType();
+					supertypes.add(classType);
+					if(visitedClasses.add(classType)) {
+						queue.add(classType);
+					}
+				}
+			}
+			supertypeMap.put(subclass, supertypes);
+		}
+		return supertypes;
+	}
+
+	private List<UMLType> getDirectSupertypes(String subclass) {
+		List<UMLType> supertypes = new ArrayList<UMLType>();
 		UMLClassBaseDiff subclassDiff = getUMLClassDiff(subclass);
 		if(subclassDiff == null) {
 			subclassDiff = getUMLClassDiff(UMLType.extractTypeObject(subclass));
@@ -364,31 +432,23 @@ public class UMLModelDiff {
 		if(subclassDiff != null) {
 			UMLType superclass = subclassDiff.getSuperclass();
 			if(superclass != null) {
-				if(checkInheritanceRelationship(superclass, finalSuperclass, visitedClasses)) {
-					return true;
-				}
+				supertypes.add(superclass);
 			}
 			else if(subclassDiff.getOldSuperclass() != null && subclassDiff.getNewSuperclass() != null &&
 					!subclassDiff.getOldSuperclass().equals(subclassDiff.getNewSuperclass()) && looksLikeAddedClass(subclassDiff.getNewSuperclass()) != null) {
 				UMLClass addedClass = looksLikeAddedClass(subclassDiff.getNewSuperclass());
 				if(addedClass.getSuperclass() != null) {
-					return checkInheritanceRelationship(addedClass.getSuperclass(), finalSuperclass, visitedClasses);
+					supertypes.add(addedClass.getSuperclass());
+					return supertypes;
 				}
 			}
 			else if(subclassDiff.getOldSuperclass() == null && subclassDiff.getNewSuperclass() != null && looksLikeAddedClass(subclassDiff.getNewSuperclass()) != null) {
 				UMLClass addedClass = looksLikeAddedClass(subclassDiff.getNewSuperclass());
-				return checkInheritanceRelationship(UMLType.extractTypeObject(addedClass.getName()), finalSuperclass, visitedClasses);
-			}
-			for(UMLType implementedInterface : subclassDiff.getAddedImplementedInterfaces()) {
-				if(checkInheritanceRelationship(implementedInterface, finalSuperclass, visitedClasses)) {
-					return true;
-				}
-			}
-			for(UMLType implementedInterface : subclassDiff.getNextClass().getImplementedInterfaces()) {
-				if(checkInheritanceRelationship(implementedInterface, finalSuperclass, visitedClasses)) {
-					return true;
-				}
+				supertypes.add(UMLType.extractTypeObject(addedClass.getName()));
+				return supertypes;
 			}
+			supertypes.addAll(subclassDiff.getAddedImplementedInterfaces());
+			supertypes.addAll(subclassDiff.getNextClass().getImplementedInterfaces());
 		}
 		UMLClass addedClass = getAddedClass(subclass);
 		if(addedClass == null) {
@@ -397,13 +457,10 @@ public class UMLModelDiff {
 		if(addedClass != null) {
 			UMLType superclass = addedClass.getSuperclass();
 			if(superclass != null) {
-				return checkInheritanceRelationship(superclass, finalSuperclass, visitedClasses);
-			}
-			for(UMLType implementedInterface : addedClass.getImplementedInterfaces()) {
-				if(checkInheritanceRelationship(implementedInterface, finalSuperclass, visitedClasses)) {
-					return true;
-				}
+				supertypes.add(superclass);
+				return supertypes;
 			}
+			supertypes.addAll(addedClass.getImplementedInterfaces());
 		}
 		UMLClass removedClass = getRemovedClass(subclass);
 		if(removedClass == null) {
@@ -412,40 +469,20 @@ public class UMLModelDiff {
 		if(removedClass != null) {
 			UMLType superclass = removedClass.getSuperclass();
 			if(superclass != null) {
-				return checkInheritanceRelationship(superclass, finalSuperclass, visitedClasses);
-			}
-			for(UMLType implementedInterface : removedClass.getImplementedInterfaces()) {
-				if(checkInheritanceRelationship(implementedInterface, finalSuperclass, visitedClasses)) {
-					return true;
-				}
+				supertypes.add(superclass);
+				return supertypes;
 			}
+			supertypes.addAll(removedClass.getImplementedInterfaces());
 		}
-		return false;
-	}
-
-	private boolean checkInheritanceRelationship(UMLType superclass, String finalSuperclass, Set<String> visitedClasses) {
-		if(looksLikeSameType(superclass.getClassType(), finalSuperclass))
-			return true;
-		else
-			return isSubclassOf(superclass.getClassType(), finalSuperclass, visitedClasses);
+		return supertypes;
 	}
 
 	private UMLClass looksLikeAddedClass(UMLType type) {
-		for(UMLClass umlClass : addedClasses) {
-			if(umlClass.getName().endsWith("." + type.getClassType())) {
-				return umlClass;
-			}
-		}
-		return null;
+		return addedClasses.get(type);
 	}
 
 	private UMLClass looksLikeRemovedClass(UMLType type) {
-		for(UMLClass umlClass : removedClasses) {
-			if(umlClass.getName().endsWith("." + type.getClassType())) {
-				return umlClass;
-			}
-		}
-		return null;
+		return removedClasses.get(type);
 	}
 
 	public UMLOperation findOperationInAddedClasses(AbstractCall operationInvocation, VariableDeclarationContainer callerOperation, UMLAbstractClassDiff classDiff) {
@@ -463,19 +500,11 @@ public class UMLModelDiff {
 	}
 
 	public UMLClass getAddedClass(String className) {
-		for(UMLClass umlClass : addedClasses) {
-			if(umlClass.getName().equals(className))
-				return umlClass;
-		}
-		return null;
+		return addedClasses.get(className);
 	}
 
 	public UMLClass getRemovedClass(String className) {
-		for(UMLClass umlClass : removedClasses) {
-			if(umlClass.getName().equals(className))
-				return umlClass;
-		}
-		return null;
+		return removedClasses.get(className);
 	}
 
 	private String isRenamedClass(UMLClass umlClass) {
@@ -542,27 +571,21 @@ public class UMLModelDiff {
 	}
 
 	public void checkForMovedClasses(Set<String> repositoryDirectories, UMLClassMatcher matcher) throws RefactoringMinerTimedOutException {
+		//the source folders of the removed classes that no longer exist in the repository
+		if(!addedClasses.isEmpty()) {
+			for(UMLClass removedClass : removedClasses) {
+				addDeletedFolderPaths(removedClass, repositoryDirectories);
+			}
+		}
+		UMLClassMinHashIndex classIndex = new UMLClassMinHashIndex(removedClasses, addedClasses, classRenameBlocking);
 		if(removedClasses.size() <= addedClasses.size()) {
 			for(Iterator<UMLClass> removedClassIterator = removedClasses.iterator(); removedClassIterator.hasNext();) {
 				UMLClass removedClass = removedClassIterator.next();
 				TreeSet<UMLClassMoveDiff> diffSet = new TreeSet<UMLClassMoveDiff>(new ClassMoveComparator());
 				for(Iterator<UMLClass> addedClassIterator = addedClasses.iterator(); addedClassIterator.hasNext();) {
 					UMLClass addedClass = addedClassIterator.next();
-					String removedClassSourceFile = removedClass.getSourceFile();
-					String removedClassSourceFolder = "";
-					if(removedClassSourceFile.contains("/")) {
-						removedClassSourceFolder = removedClassSourceFile.substring(0, removedClassSourceFile.lastIndexOf("/"));
-					}
-					if(!repositoryDirectories.contains(removedClassSourceFolder)) {
-						deletedFolderPaths.add(removedClassSourceFolder);
-						//add deleted sub-directories
-						String subDirectory = new String(removedClassSourceFolder);
-						while(subDirectory.contains("/")) {
-							subDirectory = subDirectory.substring(0, subDirectory.lastIndexOf("/"));
-							if(!repositoryDirectories.contains(subDirectory)) {
-								deletedFolderPaths.add(subDirectory);
-							}
-						}
+					if(!matcher.isCandidate(removedClass, addedClass)) {
+						continue;
 					}
 					MatchResult matchResult = matcher.match(removedClass, addedClass);
 					if(matchResult.isMatch()) {
@@ -576,7 +599,7 @@ public class UMLModelDiff {
 					UMLClassMoveDiff minClassMoveDiff = diffSet.first();
 					TreeSet<UMLClassRenameDiff> renameDiffSet = new TreeSet<>();
 					if(matcher instanceof UMLClassMatcher.RelaxedMove) {
-						renameDiffSet = findRenameMatchesForRemovedClass(removedClass, new UMLClassMatcher.RelaxedRename());
+						renameDiffSet = findRenameMatchesForRemovedClass(removedClass, new UMLClassMatcher.RelaxedRename(), classIndex);
 					}
 					if(!renameDiffSet.isEmpty() && !(renameDiffSet.first().getOriginalClass().equals(minClassMoveDiff.getOriginalClass()) &&
 							renameDiffSet.first().getRenamedClass().equals(minClassMoveDiff.getMovedClass()))) {
@@ -611,21 +634,8 @@ public class UMLModelDiff {
 				TreeSet<UMLClassMoveDiff> diffSet = new TreeSet<UMLClassMoveDiff>(new ClassMoveComparator());
 				for(Iterator<UMLClass> removedClassIterator = removedClasses.iterator(); removedClassIterator.hasNext();) {
 					UMLClass removedClass = removedClassIterator.next();
-					String removedClassSourceFile = removedClass.getSourceFile();
-					String removedClassSourceFolder = "";
-					if(removedClassSourceFile.contains("/")) {
-						removedClassSourceFolder = removedClassSourceFile.substring(0, removedClassSourceFile.lastIndexOf("/"));
-					}
-					if(!repositoryDirectories.contains(removedClassSourceFolder)) {
-						deletedFolderPaths.add(removedClassSourceFolder);
-						//add deleted sub-directories
-						String subDirectory = new String(removedClassSourceFolder);
-						while(subDirectory.contains("/")) {
-							subDirectory = subDirectory.substring(0, subDirectory.lastIndexOf("/"));
-							if(!repositoryDirectories.contains(subDirectory)) {
-								deletedFolderPaths.add(subDirectory);
-							}
-						}
+					if(!matcher.isCandidate(removedClass, addedClass)) {
+						continue;
 					}
 					MatchResult matchResult = matcher.match(removedClass, addedClass);
 					if(matchResult.isMatch()) {
@@ -639,7 +649,7 @@ public class UMLModelDiff {
 					UMLClassMoveDiff minClassMoveDiff = diffSet.first();
 					TreeSet<UMLClassRenameDiff> renameDiffSet = new TreeSet<>();
 					if(matcher instanceof UMLClassMatcher.RelaxedMove) {
-						renameDiffSet = findRenameMatchesForAddedClass(addedClass, new UMLClassMatcher.RelaxedRename());
+						renameDiffSet = findRenameMatchesForAddedClass(addedClass, new UMLClassMatcher.RelaxedRename(), classIndex);
 					}
 					if(!renameDiffSet.isEmpty() && !(renameDiffSet.first().getOriginalClass().equals(minClassMoveDiff.getOriginalClass()) &&
 							renameDiffSet.first().getRenamedClass().equals(minClassMoveDiff.getMovedClass()))) {
@@ -684,6 +694,25 @@ public class UMLModelDiff {
 		this.classMoveDiffList.removeAll(innerClassMoveDiffList);
 	}
 
+	private void addDeletedFolderPaths(UMLClass removedClass, Set<String> repositoryDirectories) {
+		String removedClassSourceFile = removedClass.getSourceFile();
+		String removedClassSourceFolder = "";
+		if(removedClassSourceFile.contains("/")) {
+			removedClassSourceFolder = removedClassSourceFile.substring(0, removedClassSourceFile.lastIndexOf("/"));
+		}
+		if(!repositoryDirectories.contains(removedClassSourceFolder)) {
+			deletedFolderPaths.add(removedClassSourceFolder);
+			//add deleted sub-directories
+			String subDirectory = new String(removedClassSourceFolder);
+			while(subDirectory.contains("/")) {
+				subDirectory = subDirectory.substring(0, subDirectory.lastIndexOf("/"));
+				if(!repositoryDirectories.contains(subDirectory)) {
+					deletedFolderPaths.add(subDirectory);
+				}
+			}
+		}
+	}
+
 	private boolean conflictingMoveOfTopLevelClass(UMLClass removedClass, UMLClass addedClass) {
 		if(!removedClass.isTopLevel() && !addedClass.isTopLevel()) {
 			//check if classMoveDiffList contains already a move for the outer class to a different target
@@ -780,17 +809,18 @@ public class UMLModelDiff {
 	}
 
 	public void checkForRenamedClasses(UMLClassMatcher matcher) throws RefactoringMinerTimedOutException {
+		UMLClassMinHashIndex classIndex = new UMLClassMinHashIndex(removedClasses, addedClasses, classRenameBlocking);
 		if(removedClasses.size() <= addedClasses.size()) {
 			Set<UMLClass> mergedClassesToBeRemoved = new HashSet<UMLClass>();
 			for(Iterator<UMLClass> removedClassIterator = removedClasses.iterator(); removedClassIterator.hasNext();) {
 				UMLClass removedClass = removedClassIterator.next();
-				TreeSet<UMLClassRenameDiff> diffSet = findRenameMatchesForRemovedClass(removedClass, matcher);
+				TreeSet<UMLClassRenameDiff> diffSet = findRenameMatchesForRemovedClass(removedClass, matcher, classIndex);
 				if(!diffSet.isEmpty()) {
 					UMLClassRenameDiff minClassRenameDiff = diffSet.first();
 					boolean mergeFound = false;
 					boolean splitFound = false;
 					boolean conflictFound = false;
-					TreeSet<UMLClassRenameDiff> renameDiffSet = findRenameMatchesForAddedClass(minClassRenameDiff.getRenamedClass(), matcher);
+					TreeSet<UMLClassRenameDiff> renameDiffSet = findRenameMatchesForAddedClass(minClassRenameDiff.getRenamedClass(), matcher, classIndex);
 					TreeSet<UMLClassRenameDiff> union = new TreeSet<>();
 					union.addAll(diffSet);
 					union.addAll(renameDiffSet);
@@ -859,13 +889,13 @@ public class UMLModelDiff {
 		else {
 			for(Iterator<UMLClass> addedClassIterator = addedClasses.iterator(); addedClassIterator.hasNext();) {
 				UMLClass addedClass = addedClassIterator.next();
-				TreeSet<UMLClassRenameDiff> diffSet = findRenameMatchesForAddedClass(addedClass, matcher);
+				TreeSet<UMLClassRenameDiff> diffSet = findRenameMatchesForAddedClass(addedClass, matcher, classIndex);
 				if(!diffSet.isEmpty()) {
 					UMLClassRenameDiff minClassRenameDiff = diffSet.first();
 					boolean mergeFound = false;
 					boolean splitFound = false;
 					boolean conflictFound = false;
-					TreeSet<UMLClassRenameDiff> renameDiffSet = findRenameMatchesForRemovedClass(minClassRenameDiff.getOriginalClass(), matcher);
+					TreeSet<UMLClassRenameDiff> renameDiffSet = findRenameMatchesForRemovedClass(minClassRenameDiff.getOriginalClass(), matcher, classIndex);
 					TreeSet<UMLClassRenameDiff> union = new TreeSet<>();
 					union.addAll(diffSet);
 					union.addAll(renameDiffSet);
@@ -941,9 +971,9 @@ public class UMLModelDiff {
 		this.classMoveDiffList.removeAll(innerClassMoveDiffList);
 	}
 
-	private TreeSet<UMLClassRenameDiff> findRenameMatchesForRemovedClass(UMLClass removedClass, UMLClassMatcher matcher) {
+	private TreeSet<UMLClassRenameDiff> findRenameMatchesForRemovedClass(UMLClass removedClass, UMLClassMatcher matcher, UMLClassMinHashIndex classIndex) {
 		TreeSet<UMLClassRenameDiff> diffSet = new TreeSet<UMLClassRenameDiff>(new ClassRenameComparator());
-		for(Iterator<UMLClass> addedClassIterator = addedClasses.iterator(); addedClassIterator.hasNext();) {
+		for(Iterator<UMLClass> addedClassIterator = classIndex.getAddedClassCandidates(removedClass).iterator(); addedClassIterator.hasNext();) {
 			UMLClass addedClass = addedClassIterator.next();
 			if(matcher instanceof UMLClassMatcher.RelaxedRename) {
 				Pair<UMLClass, UMLClass> pair = Pair.of(removedClass, addedClass);
@@ -979,9 +1009,9 @@ public class UMLModelDiff {
 		return diffSet;
 	}
 
-	private TreeSet<UMLClassRenameDiff> findRenameMatchesForAddedClass(UMLClass addedClass, UMLClassMatcher matcher) {
+	private TreeSet<UMLClassRenameDiff> findRenameMatchesForAddedClass(UMLClass addedClass, UMLClassMatcher matcher, UMLClassMinHashIndex classIndex) {
 		TreeSet<UMLClassRenameDiff> diffSet = new TreeSet<UMLClassRenameDiff>(new ClassRenameComparator());
-		for(Iterator<UMLClass> removedClassIterator = removedClasses.iterator(); removedClassIterator.hasNext();) {
+		for(Iterator<UMLClass> removedClassIterator = classIndex.getRemovedClassCandidates(addedClass).iterator(); removedClassIterator.hasNext();) {
 			UMLClass removedClass = removedClassIterator.next();
 			if(matcher instanceof UMLClassMatcher.RelaxedRename) {
 				Pair<UMLClass, UMLClass> pair = Pair.of(removedClass, addedClass);
@@ -1116,6 +1146,7 @@ public class UMLModelDiff {
 		List<MoveAttributeRefactoring> refactorings = new ArrayList<MoveAttributeRefactoring>();
 		if(addedAttributes.size() <= removedAttributes.size()) {
 			for(UMLAttribute addedAttribute : addedAttributes) {
+				checkTimeBudget();
 				List<MoveAttributeRefactoring> candidates = new ArrayList<MoveAttributeRefactoring>();
 				for(UMLAttribute removedAttribute : removedAttributes) {
 					MoveAttributeRefactoring candidate = processPairOfAttributes(addedAttribute, removedAttribute, renameMap, pastRefactorings);
@@ -1128,6 +1159,7 @@ public class UMLModelDiff {
 		}
 		else {
 			for(UMLAttribute removedAttribute : removedAttributes) {
+				checkTimeBudget();
 				List<MoveAttributeRefactoring> candidates = new ArrayList<MoveAttributeRefactoring>();
 				for(UMLAttribute addedAttribute : addedAttributes) {
 					MoveAttributeRefactoring candidate = processPairOfAttributes(addedAttribute, removedAttribute, renameMap, pastRefactorings);
@@ -2412,7 +2444,38 @@ public class UMLModelDiff {
 		}
 	}
 
+	/**
+	 * @return The detected refactorings.
+	 * If the time budget is exhausted and allows partial results, the refactorings detected by the phases completed before
+	 * are returned, and the model diff is marked as {@link #isIncomplete() incomplete}. No refactorings are returned,
+	 * if the budget was exhausted while diffing the models.
+	 */
 	public List<Refactoring> getRefactorings() throws RefactoringMinerTimedOutException {
+		if(incomplete) {
+			//the budget was exhausted while diffing the models, or while detecting the refactorings
+			return filterOutDuplicateRefactorings(refactoringsOfCompletedPhases);
+		}
+		try {
+			return detectRefactorings();
+		}
+		catch(RefactoringMinerTimedOutException e) {
+			reportTimeout(e);
+			return filterOutDuplicateRefactorings(refactoringsOfCompletedPhases);
+		}
+	}
+
+	/**
+	 * Keeps a copy of the refactorings detected so far, if the time budget allows partial results,
+	 * so that the refactorings of a phase interrupted by the budget are not returned.
+	 */
+	private void completePhase() {
+		if(timeBudget != null && timeBudget.allowsPartialResults()) {
+			refactoringsOfCompletedPhases = new LinkedHashSet<Refactoring>(refactorings);
+		}
+	}
+
+	private List<Refactoring> detectRefactorings() throws RefactoringMinerTimedOutException {
+		completePhase();
 		refactorings.addAll(getMoveRenameClassRefactorings());
 		refactorings.addAll(identifyConvertAnonymousClassToTypeRefactorings());
 		for(UMLClassDiff classDiff : commonClassDiffList) {
@@ -2637,12 +2700,16 @@ public class UMLModelDiff {
 				}
 			}
 		}
+		completePhase();
 		refactorings.addAll(identifyExtractSuperclassRefactorings());
+		completePhase();
 		refactorings.addAll(identifyCollapseHierarchyRefactorings());
+		completePhase();
 		refactorings.addAll(identifyExtractClassRefactorings(commonClassDiffList));
 		refactorings.addAll(identifyExtractClassRefactorings(classMoveDiffList));
 		refactorings.addAll(identifyExtractClassRefactorings(innerClassMoveDiffList));
 		refactorings.addAll(identifyExtractClassRefactorings(classRenameDiffList));
+		completePhase();
 		checkForOperationMovesBetweenCommonClasses();
 		checkForOperationMovesIncludingRemovedAndAddedClasses();
 		List<UMLOperation> addedAndExtractedOperationsInCommonClasses = getAddedAndExtractedOperationsInCommonClasses();
@@ -2661,6 +2728,7 @@ public class UMLModelDiff {
 		}
 		List<UMLOperation> allOperationsInAddedClasses = getOperationsInAddedClasses();
 		checkForExtractedAndMovedLambdas(getOperationBodyMappersInMovedAndRenamedClasses(), allOperationsInAddedClasses);
+		completePhase();
 		List<MoveAttributeRefactoring> moveAttributeRefactorings = new ArrayList<MoveAttributeRefactoring>();
 		moveAttributeRefactorings.addAll(checkForAttributeMovesBetweenCommonClasses(renameMap, refactorings));
 		moveAttributeRefactorings.addAll(checkForAttributeMovesIncludingAddedClasses(renameMap, refactorings));
@@ -2676,6 +2744,7 @@ public class UMLModelDiff {
 			UMLAttributeDiff attributeDiff = new UMLAttributeDiff(originalAttribute, movedAttribute, Collections.emptyList());
 			refactorings.addAll(attributeDiff.getRefactorings());
 		}
+		completePhase();
 		refactorings.addAll(this.refactorings);
 		Set<Refactoring> packageRefactorings = filterPackageRefactorings(refactorings);
 		Map<Pair<UMLOperation, UMLOperation>, Set<MethodInvocationReplacement>> map = new LinkedHashMap<Pair<UMLOperation, UMLOperation>, Set<MethodInvocationReplacement>>();
@@ -2999,8 +3068,9 @@ public class UMLModelDiff {
 				if(allowInference(classDiff, removedOperation, addedOperation)) {
 					List<UMLOperationBodyMapper> mappers = findMappersWithMatchingSignatures(removedOperation, addedOperation);
 					if(!mappers.isEmpty()) {
-						UMLOperationBodyMapper bodyMapper = new UMLOperationBodyMapper(removedOperation, addedOperation, classDiff);
-						if(!classDiff.getOperationBodyMapperList().contains(bodyMapper)) {
+						//the body of operations already mapped by an earlier inference is not mapped again
+						if(!classDiff.containsMapper(removedOperation, addedOperation)) {
+							UMLOperationBodyMapper bodyMapper = new UMLOperationBodyMapper(removedOperation, addedOperation, classDiff);
 							classDiff.addOperationBodyMapper(bodyMapper);
 							removedOperationsToBeRemoved.add(removedOperation);
 							addedOperationsToBeRemoved.add(addedOperation);
@@ -3054,8 +3124,8 @@ public class UMLModelDiff {
 		for(Pair<UMLOperation, UMLOperation> pair : map.keySet()) {
 			UMLOperation removedOperation = pair.getLeft();
 			UMLOperation addedOperation = pair.getRight();
-			UMLOperationBodyMapper bodyMapper = new UMLOperationBodyMapper(removedOperation, addedOperation, classDiff);
-			if(!classDiff.getOperationBodyMapperList().contains(bodyMapper)) {
+			if(!classDiff.containsMapper(removedOperation, addedOperation)) {
+				UMLOperationBodyMapper bodyMapper = new UMLOperationBodyMapper(removedOperation, addedOperation, classDiff);
 				classDiff.addOperationBodyMapper(bodyMapper);
 				bodyMapper.computeRefactoringsWithinBody();
 				refactorings.addAll(bodyMapper.getRefactoringsAfterPostProcessing());
@@ -3235,10 +3305,16 @@ public class UMLModelDiff {
 
 	public List<UMLOperationBodyMapper> findMappersWithMatchingSignature2(UMLOperation operation2) {
 		List<UMLOperationBodyMapper> mappers = new ArrayList<UMLOperationBodyMapper>();
-		for(UMLClassDiff classDiff : commonClassDiffList) {
-			UMLOperationBodyMapper mapper = classDiff.findMapperWithMatchingSignature2(operation2);
-			if(mapper != null) {
-				mappers.add(mapper);
+		UMLClassDiffProcessor processor = getCommonClassDiffProcessor();
+		if(processor != null) {
+			mappers.addAll(processor.findPrecedingMappersWithMatchingSignature2(operation2));
+		}
+		else {
+			for(UMLClassDiff classDiff : commonClassDiffList) {
+				UMLOperationBodyMapper mapper = classDiff.findMapperWithMatchingSignature2(operation2);
+				if(mapper != null) {
+					mappers.add(mapper);
+				}
 			}
 		}
 		for(UMLClassMoveDiff classDiff : classMoveDiffList) {
@@ -3308,6 +3384,7 @@ public class UMLModelDiff {
 	private void checkForMovedAndInlinedOperations(List<UMLOperationBodyMapper> mappers, List<UMLOperation> removedOperations) throws RefactoringMinerTimedOutException {
 		for(Iterator<UMLOperation> removedOperationIterator = removedOperations.iterator(); removedOperationIterator.hasNext();) {
 			UMLOperation removedOperation = removedOperationIterator.next();
+			checkTimeBudget();
 			UMLClassBaseDiff removedOperationClassDiff = getUMLClassDiff(removedOperation.getClassName());
 			if(removedOperationClassDiff != null) {
 				if(alreadyMatchedRemovedOperation(removedOperation, removedOperationClassDiff)) {
@@ -3570,6 +3647,7 @@ public class UMLModelDiff {
 	private void checkForExtractedAndMovedLambdas(List<UMLOperationBodyMapper> mappers, List<UMLOperation> addedOperations) throws RefactoringMinerTimedOutException {
 		for(Iterator<UMLOperation> addedOperationIterator = addedOperations.iterator(); addedOperationIterator.hasNext();) {
 			UMLOperation addedOperation = addedOperationIterator.next();
+			checkTimeBudget();
 			List<AbstractCall> addedOperationInvocations = new ArrayList<AbstractCall>();
 			for(UMLOperationBodyMapper mapper : mappers) {
 				for(AbstractCall invocation : mapper.getInvocationsInSourceOperationAfterExtraction()) {
@@ -3777,6 +3855,7 @@ public class UMLModelDiff {
 	private void checkForExtractedAndMovedOperations(List<UMLOperationBodyMapper> mappers, List<UMLOperation> addedOperations) throws RefactoringMinerTimedOutException {
 		for(Iterator<UMLOperation> addedOperationIterator = addedOperations.iterator(); addedOperationIterator.hasNext();) {
 			UMLOperation addedOperation = addedOperationIterator.next();
+			checkTimeBudget();
 			if(!getterOrSetterCorrespondingToRenamedAttribute(addedOperation)) {
 				for(UMLOperationBodyMapper mapper : mappers) {
 					Pair<VariableDeclarationContainer, VariableDeclarationContainer> pair = Pair.of(mapper.getContainer1(), addedOperation);
@@ -4073,6 +4152,28 @@ public class UMLModelDiff {
 				(mappings == 1 && mappings > operationBodyMapper.nonMappedLeafElementsT2()));
 	}
 
+	/**
+	 * Cheap check performed before mapping the bodies of a removed and an added operation in checkForOperationMoves.
+	 * The body mapper maps only the statements of the operations (and their default values, in annotation types),
+	 * so when one of the operations has no statements the mapper cannot find any mappings, and the pair can be accepted
+	 * only as abstract methods with an equal signature.
+	 * @return false if the operation pair is certainly rejected by checkForOperationMoves.
+	 */
+	static boolean operationBodiesMayMatch(UMLOperation removedOperation, UMLOperation addedOperation) {
+		if(removedOperation.equalSignatureForAbstractMethods(addedOperation) || addedOperation.equalSignatureForAbstractMethods(removedOperation)) {
+			return true;
+		}
+		if(removedOperation.getDefaultExpression() != null && addedOperation.getDefaultExpression() != null) {
+			return true;
+		}
+		return hasStatements(removedOperation) && hasStatements(addedOperation);
+	}
+
+	private static boolean hasStatements(UMLOperation operation) {
+		OperationBody body = operation.getBody();
+		return body != null && body.getCompositeStatement().getStatements().size() > 0;
+	}
+
 	private void checkForOperationMovesIncludingRemovedAndAddedClasses() throws RefactoringMinerTimedOutException {
 		Set<UMLType> interfacesImplementedByAddedClasses = new LinkedHashSet<UMLType>();
 		for(UMLClass addedClass : addedClasses) {
@@ -4152,6 +4253,53 @@ public class UMLModelDiff {
 		}
 	}
 
+	public void setTimeBudget(DetectionTimeBudget timeBudget) {
+		this.timeBudget = timeBudget;
+	}
+
+	/**
+	 * @param classRenameBlocking Whether the removed and added classes compared for class renames are blocked by the
+	 * similarity of their member names, when they form too many pairs to be compared exhaustively.
+	 * Disabled by default, since weak class renames can be missed.
+	 * @see UMLClassMinHashIndex
+	 */
+	public void setClassRenameBlocking(boolean classRenameBlocking) {
+		this.classRenameBlocking = classRenameBlocking;
+	}
+
+	/**
+	 * @throws RefactoringMinerTimedOutException If the time budget of this model diff is exhausted,
+	 * or the current thread is interrupted, e.g., because the call running the detection timed out.
+	 */
+	public void checkTimeBudget() throws RefactoringMinerTimedOutException {
+		if(Thread.currentThread().isInterrupted()) {
+			throw new RefactoringMinerTimedOutException();
+		}
+		if(timeBudget != null) {
+			timeBudget.check();
+		}
+	}
+
+	/**
+	 * Marks this model diff as incomplete, if the time budget allows partial results.
+	 * @throws RefactoringMinerTimedOutException The given timeout, if the time budget does not allow partial results, or the current thread is interrupted.
+	 */
+	public void reportTimeout(RefactoringMinerTimedOutException e) throws RefactoringMinerTimedOutException {
+		//an interrupted detection reports no partial results, since its caller no longer waits for them
+		if(timeBudget == null || !timeBudget.allowsPartialResults() || Thread.currentThread().isInterrupted()) {
+			throw e;
+		}
+		incomplete = true;
+	}
+
+	/**
+	 * @return true if the diff of the models or the detection of refactorings stopped early because the time budget was exhausted,
+	 * in which case some refactorings may not have been reported.
+	 */
+	public boolean isIncomplete() {
+		return incomplete;
+	}
+
 	public boolean partialModel() {
 		return childModel.isPartial() || parentModel.isPartial();
 	}
@@ -4239,13 +4387,16 @@ public class UMLModelDiff {
 		if(addedOperations.size() <= removedOperations.size()) {
 			for(Iterator<UMLOperation> addedOperationIterator = addedOperations.iterator(); addedOperationIterator.hasNext();) {
 				UMLOperation addedOperation = addedOperationIterator.next();
+				checkTimeBudget();
 				double addedOperationBuilderStatementRatio = addedOperation.builderStatementRatio();
 				TreeMap<Integer, List<UMLOperationBodyMapper>> operationBodyMapperMap = new TreeMap<Integer, List<UMLOperationBodyMapper>>();
 				UMLOperation removedOperation2 = findOperationWithIdenticalSignature(addedOperation, removedOperations);
 				if(removedOperation2 != null) {
 					Pair<VariableDeclarationContainer, VariableDeclarationContainer> pair = Pair.of(removedOperation2, addedOperation);
+					//pairs that cannot be mapped are marked as processed in the loop below
 					if(!processedOperationPairs.contains(pair) && removedOperation2.testMethodCheck(addedOperation) && !removedOperation2.getClassName().equals(addedOperation.getClassName()) &&
-							removedOperation2.builderStatementRatio() < BUILDER_STATEMENT_RATIO_THRESHOLD && addedOperationBuilderStatementRatio < BUILDER_STATEMENT_RATIO_THRESHOLD) {
+							removedOperation2.builderStatementRatio() < BUILDER_STATEMENT_RATIO_THRESHOLD && addedOperationBuilderStatementRatio < BUILDER_STATEMENT_RATIO_THRESHOLD &&
+							operationBodiesMayMatch(removedOperation2, addedOperation)) {
 						UMLClassBaseDiff umlClassDiff = getUMLClassDiff(removedOperation2.getClassName());
 						if(umlClassDiff == null) {
 							umlClassDiff = getUMLClassDiff(addedOperation.getClassName());
@@ -4285,6 +4436,10 @@ public class UMLModelDiff {
 					Pair<VariableDeclarationContainer, VariableDeclarationContainer> pair = Pair.of(removedOperation, addedOperation);
 					if(!processedOperationPairs.contains(pair) && removedOperation.testMethodCheck(addedOperation) && !removedOperation.getClassName().equals(addedOperation.getClassName()) &&
 							removedOperation.builderStatementRatio() < BUILDER_STATEMENT_RATIO_THRESHOLD && addedOperationBuilderStatementRatio < BUILDER_STATEMENT_RATIO_THRESHOLD) {
+						if(!operationBodiesMayMatch(removedOperation, addedOperation)) {
+							processedOperationPairs.add(pair);
+							continue;
+						}
 						UMLClassBaseDiff umlClassDiff = getUMLClassDiff(removedOperation.getClassName());
 						if(umlClassDiff == null) {
 							umlClassDiff = getUMLClassDiff(addedOperation.getClassName());
@@ -4346,13 +4501,16 @@ public class UMLModelDiff {
 		else {
 			for(Iterator<UMLOperation> removedOperationIterator = removedOperations.iterator(); removedOperationIterator.hasNext();) {
 				UMLOperation removedOperation = removedOperationIterator.next();
+				checkTimeBudget();
 				double removedOperationBuilderStatementRatio = removedOperation.builderStatementRatio();
 				TreeMap<Integer, List<UMLOperationBodyMapper>> operationBodyMapperMap = new TreeMap<Integer, List<UMLOperationBodyMapper>>();
 				UMLOperation addedOperation2 = findOperationWithIdenticalSignature(removedOperation, addedOperations);
 				if(addedOperation2 != null) {
 					Pair<VariableDeclarationContainer, VariableDeclarationContainer> pair = Pair.of(removedOperation, addedOperation2);
+					//pairs that cannot be mapped are marked as processed in the loop below
 					if(!processedOperationPairs.contains(pair) && removedOperation.testMethodCheck(addedOperation2) && !removedOperation.getClassName().equals(addedOperation2.getClassName()) &&
-							removedOperationBuilderStatementRatio < BUILDER_STATEMENT_RATIO_THRESHOLD && addedOperation2.builderStatementRatio() < BUILDER_STATEMENT_RATIO_THRESHOLD) {
+							removedOperationBuilderStatementRatio < BUILDER_STATEMENT_RATIO_THRESHOLD && addedOperation2.builderStatementRatio() < BUILDER_STATEMENT_RATIO_THRESHOLD &&
+							operationBodiesMayMatch(removedOperation, addedOperation2)) {
 						UMLClassBaseDiff umlClassDiff = getUMLClassDiff(removedOperation.getClassName());
 						if(umlClassDiff == null) {
 							umlClassDiff = getUMLClassDiff(addedOperation2.getClassName());
@@ -4392,6 +4550,10 @@ public class UMLModelDiff {
 					Pair<VariableDeclarationContainer, VariableDeclarationContainer> pair = Pair.of(removedOperation, addedOperation);
 					if(!processedOperationPairs.contains(pair) && removedOperation.testMethodCheck(addedOperation) && !removedOperation.getClassName().equals(addedOperation.getClassName()) &&
 							removedOperationBuilderStatementRatio < BUILDER_STATEMENT_RATIO_THRESHOLD && addedOperation.builderStatementRatio() < BUILDER_STATEMENT_RATIO_THRESHOLD) {
+						if(!operationBodiesMayMatch(removedOperation, addedOperation)) {
+							processedOperationPairs.add(pair);
+							continue;
+						}
 						UMLClassBaseDiff umlClassDiff = getUMLClassDiff(removedOperation.getClassName());
 						if(umlClassDiff == null) {
 							umlClassDiff = getUMLClassDiff(addedOperation.getClassName());
@@ -18,9 +18,11 @@ import org.refactoringminer.api.Refactoring;
 import org.refactoringminer.api.RefactoringHandler;
 import org.refactoringminer.rm1.GitHistoryRefactoringMinerImpl;
 import org.refactoringminer.util.GitServiceImpl;
+import org.refactoringminer.util.NDJSONRefactoringWriter;
 
 public class RefactoringMiner {
 	private static Path path = null;
+	private static NDJSONRefactoringWriter ndjsonWriter = null;
 	public static void main(String[] args) throws Exception {
 		if (args.length < 1) {
 			throw argumentException();
@@ -33,6 +35,15 @@ public class RefactoringMiner {
 			return;
 		}
 
+		try {
+			detect(option, args);
+		}
+		finally {
+			closeNDJSON();
+		}
+	}
+
+	private static void detect(String option, String[] args) throws Exception {
 		if (option.equalsIgnoreCase("-a")) {
 			detectAll(args);
 		} else if (option.equalsIgnoreCase("-bc")) {
@@ -96,7 +107,7 @@ public class RefactoringMiner {
 	}
 
 	private static boolean containsBranchArgument(String[] args) {
-		return args.length == 3 || (args.length > 3 && args[3].equalsIgnoreCase("-json"));
+		return args.length == 3 || (args.length > 3 && isOutputOption(args[3]));
 	}
 
 	public static void detectBetweenCommits(String[] args) throws Exception {
@@ -180,7 +191,7 @@ public class RefactoringMiner {
 	}
 
 	private static boolean containsEndArgument(String[] args) {
-		return args.length == 4 || (args.length > 4 && args[4].equalsIgnoreCase("-json"));
+		return args.length == 4 || (args.length > 4 && isOutputOption(args[4]));
 	}
 
 	public static void detectAtCommit(String[] args) throws Exception {
@@ -270,6 +281,10 @@ public class RefactoringMiner {
 		endJSON();
 	}
 
+	private static boolean isOutputOption(String arg) {
+		return arg.equalsIgnoreCase("-json") || arg.equalsIgnoreCase("-ndjson");
+	}
+
 	private static int processJSONoption(String[] args, int maxArgLength) {
 		if (args[args.length-2].equalsIgnoreCase("-json")) {
 			path = Paths.get(args[args.length-1]);
@@ -285,10 +300,25 @@ public class RefactoringMiner {
 			}
 			maxArgLength = maxArgLength + 2;
 		}
+		else if (args[args.length-2].equalsIgnoreCase("-ndjson")) {
+			try {
+				ndjsonWriter = new NDJSONRefactoringWriter(Paths.get(args[args.length-1]));
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+			maxArgLength = maxArgLength + 2;
+		}
 		return maxArgLength;
 	}
 
 	private static void commitJSON(String cloneURL, String currentCommitId, List<Refactoring> refactoringsAtRevision) {
+		if(ndjsonWriter != null) {
+			try {
+				ndjsonWriter.writeCommit(cloneURL, currentCommitId, refactoringsAtRevision);
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
 		if(path != null) {
 			StringBuilder sb = new StringBuilder();
 			sb.append("{").append("\n");
@@ -344,6 +374,7 @@ public class RefactoringMiner {
 	}
 
 	private static void endJSON() {
+		closeNDJSON();
 		if(path != null) {
 			StringBuilder sb = new StringBuilder();
 			sb.append("]").append("\n");
@@ -356,6 +387,18 @@ public class RefactoringMiner {
 		}
 	}
 
+	//the output is completed even if the detection fails, so that the commits already written can be read
+	private static void closeNDJSON() {
+		if(ndjsonWriter != null) {
+			try {
+				ndjsonWriter.close();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+			ndjsonWriter = null;
+		}
+	}
+
 	private static void printTips() {
 		System.out.println("-h\t\t\t\t\t\t\t\t\t\t\tShow options");
 		System.out.println(
@@ -370,6 +413,8 @@ public class RefactoringMiner {
 				"-gc <git-URL> <commit-sha1> <timeout> -json <path-to-json-file>\t\t\t\tDetect refactorings at specified commit <commit-sha1> for project <git-URL> within the given <timeout> in seconds. All required information is obtained directly from GitHub using the OAuth token in github-oauth.properties");
 		System.out.println(
 				"-gp <git-URL> <pull-request> <timeout> -json <path-to-json-file>\t\t\tDetect refactorings at specified pull request <pull-request> for project <git-URL> within the given <timeout> in seconds for each commit in the pull request. All required information is obtained directly from GitHub using the OAuth token in github-oauth.properties");
+		System.out.println(
+				"-ndjson <path-to-ndjson-file>\t\t\t\t\t\t\t\tMay replace -json in all the options above to write one line of JSON per commit while the commits are analyzed. A file ending with .gz is compressed with gzip");
 	}
 
 	private static IllegalArgumentException argumentException() {
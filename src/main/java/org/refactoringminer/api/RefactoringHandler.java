@@ -30,6 +30,29 @@ public abstract class RefactoringHandler {
 	 */
 	public void handle(String commitId, List<Refactoring> refactorings) {}
 
+	/**
+	 * This method is called instead of {@link #handle(String, List)} when the time budget of the commit is exhausted
+	 * during the detection of refactorings, and partial results are enabled.
+	 * By default the partial results are handled as the results of a completed commit.
+	 *
+	 * @param commitId The sha of the analyzed commit.
+	 * @param refactorings List of refactorings detected before the time budget was exhausted.
+	 */
+	public void handlePartial(String commitId, List<Refactoring> refactorings) {
+		handle(commitId, refactorings);
+	}
+
+	/**
+	 * Indicate whether the callbacks of this handler should be invoked in commit order when
+	 * several commits are analyzed in parallel.
+	 * You may override this method to receive each commit as soon as its analysis is completed.
+	 *
+	 * @return True to handle the commits in the order they are visited, false otherwise.
+	 */
+	public boolean handleInCommitOrder() {
+		return true;
+	}
+
 	/**
      * This method is called whenever an exception is thrown during the analysis of the given commit.
      * You should override this method to do your custom logic in the case of exceptions (e.g. skip or rethrow).
@@ -0,0 +1,162 @@
+package org.refactoringminer.rm1;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bounded executors shared by all instances of {@link GitHistoryRefactoringMinerImpl}, so that concurrent requests
+ * reuse a fixed number of threads, instead of creating threads per request.
+ * The platform threads are daemon threads, created on demand and discarded after being idle for a minute.
+ */
+final class DetectionExecutors {
+	private final static Logger logger = LoggerFactory.getLogger(DetectionExecutors.class);
+	private static final long KEEP_ALIVE_SECONDS = 60;
+	private static final int DOWNLOAD_THREADS = 32;
+
+	/**
+	 * Runs the detections bounded by a timeout, one per available processor.
+	 * Only tasks that stop when their thread is interrupted are submitted, so that a timed out task frees its thread.
+	 */
+	static final ExecutorService TIMEOUT = newBoundedExecutor(Runtime.getRuntime().availableProcessors(), "RefactoringMiner-timeout-");
+
+	/**
+	 * Downloads the files of the commits and pull requests analyzed with the GitHub API, up to {@code DOWNLOAD_THREADS}
+	 * at a time, on a virtual thread per download when the runtime supports them.
+	 */
+	static final ExecutorService DOWNLOAD = newDownloadExecutor();
+
+	private DetectionExecutors() {}
+
+	/**
+	 * @param threads The maximum number of tasks executed concurrently; the other tasks wait in the queue of the executor.
+	 */
+	static ExecutorService newBoundedExecutor(int threads, String threadNamePrefix) {
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), platformThreadFactory(threadNamePrefix));
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
+	}
+
+	/**
+	 * @return An executor running its tasks on a daemon thread of its own, to be shut down by the caller.
+	 * Used for the tasks that do not stop when their thread is interrupted, so that a timed out task cannot hold a shared thread.
+	 */
+	static ExecutorService newSingleCallExecutor(String threadName) {
+		return Executors.newSingleThreadExecutor(platformThreadFactory(threadName + "-"));
+	}
+
+	private static ExecutorService newDownloadExecutor() {
+		ExecutorService virtualThreadPerTaskExecutor = newVirtualThreadPerTaskExecutor();
+		if (virtualThreadPerTaskExecutor == null) {
+			return newBoundedExecutor(DOWNLOAD_THREADS, "RefactoringMiner-download-");
+		}
+		return new SemaphoreBoundedExecutor(virtualThreadPerTaskExecutor, DOWNLOAD_THREADS);
+	}
+
+	private static ThreadFactory platformThreadFactory(String threadNamePrefix) {
+		AtomicInteger threadNumber = new AtomicInteger();
+		return r -> {
+			Thread thread = new Thread(r, threadNamePrefix + threadNumber.getAndIncrement());
+			thread.setDaemon(true);
+			return thread;
+		};
+	}
+
+	//virtual threads are available from Java 21, while the project is compiled for Java 17
+	private static ExecutorService newVirtualThreadPerTaskExecutor() {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (ReflectiveOperationException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Runs each task on a new thread of the given executor, once one of the permits of the executor is available.
+	 * Virtual threads are cheap to create but must not be pooled, so the number of concurrent tasks is bounded by the permits instead.
+	 */
+	static class SemaphoreBoundedExecutor extends AbstractExecutorService {
+		private final ExecutorService executor;
+		private final Semaphore permits;
+
+		SemaphoreBoundedExecutor(ExecutorService executor, int permits) {
+			this.executor = executor;
+			this.permits = new Semaphore(permits);
+		}
+
+		@Override
+		public void execute(Runnable command) {
+			executor.execute(() -> {
+				try {
+					permits.acquire();
+				} catch (InterruptedException e) {
+					//the task was cancelled while waiting for a permit
+					Thread.currentThread().interrupt();
+					return;
+				}
+				try {
+					command.run();
+				} finally {
+					permits.release();
+				}
+			});
+		}
+
+		@Override
+		public void shutdown() {
+			executor.shutdown();
+		}
+
+		@Override
+		public List<Runnable> shutdownNow() {
+			return executor.shutdownNow();
+		}
+
+		@Override
+		public boolean isShutdown() {
+			return executor.isShutdown();
+		}
+
+		@Override
+		public boolean isTerminated() {
+			return executor.isTerminated();
+		}
+
+		@Override
+		public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+			return executor.awaitTermination(timeout, unit);
+		}
+	}
+
+	/**
+	 * Waits for the completion of the given tasks. If the waiting thread is interrupted, the tasks not completed yet are cancelled.
+	 */
+	static void awaitAll(List<Future<?>> futures) throws InterruptedException {
+		try {
+			for (Future<?> future : futures) {
+				try {
+					future.get();
+				} catch (ExecutionException e) {
+					logger.warn("Task failed", e.getCause());
+				}
+			}
+		} catch (InterruptedException e) {
+			for (Future<?> future : futures) {
+				future.cancel(true);
+			}
+			throw e;
+		}
+	}
+}
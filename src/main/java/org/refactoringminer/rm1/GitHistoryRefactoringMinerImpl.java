@@ -1,7 +1,10 @@
 package org.refactoringminer.rm1;
 
+import gr.uom.java.xmi.CompilationUnitCache;
+import gr.uom.java.xmi.JavaLanguageLevel;
 import gr.uom.java.xmi.UMLModel;
 import gr.uom.java.xmi.UMLModelASTReader;
+import gr.uom.java.xmi.diff.DetectionTimeBudget;
 import gr.uom.java.xmi.diff.MoveSourceFolderRefactoring;
 import gr.uom.java.xmi.diff.MovedClassToAnotherSourceFolder;
 import gr.uom.java.xmi.diff.RenamePattern;
@@ -15,17 +18,21 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.StringReader;
 import java.io.StringWriter;
 import java.net.URL;
 import java.net.URLEncoder;
+import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Deque;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -36,13 +43,17 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -53,13 +64,16 @@ import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.tuple.Pair;
 import org.eclipse.jgit.errors.MissingObjectException;
+import org.eclipse.jgit.lib.Constants;
 import org.eclipse.jgit.lib.ObjectId;
 import org.eclipse.jgit.lib.ObjectLoader;
+import org.eclipse.jgit.lib.ObjectReader;
 import org.eclipse.jgit.lib.Repository;
 import org.eclipse.jgit.revwalk.RevCommit;
 import org.eclipse.jgit.revwalk.RevTree;
 import org.eclipse.jgit.revwalk.RevWalk;
 import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.filter.PathFilterGroup;
 import org.kohsuke.github.GHCommit;
 import org.kohsuke.github.GHPullRequest;
 import org.kohsuke.github.GHPullRequestCommitDetail;
@@ -89,8 +103,21 @@ import com.github.difflib.UnifiedDiffUtils;
 public class GitHistoryRefactoringMinerImpl implements GitHistoryRefactoringMiner {
 
 	private final static Logger logger = LoggerFactory.getLogger(GitHistoryRefactoringMinerImpl.class);
+	private final static RepositoryDirectoriesCache repositoryDirectoriesCache = new RepositoryDirectoriesCache(64);
 	private Set<RefactoringType> refactoringTypesToConsider = null;
+	private boolean classRenameBlocking = false;
+	private boolean rememberJavaLanguageLevel = false;
+	private long commitTimeBudget = 0;
+	private boolean commitTimeBudgetPartialResults = false;
 	private GitHub gitHub;
+	private int numberOfThreads = 1;
+	private CompilationUnitCache compilationUnitCache = null;
+	private ForkJoinPool parserPool = null;
+	private ForkJoinPool classDiffPool = null;
+	private ExecutorService timeoutExecutor = DetectionExecutors.TIMEOUT;
+	private ExecutorService downloadExecutor = DetectionExecutors.DOWNLOAD;
+	private Path journal = null;
+	private final Map<String, JavaLanguageLevel> javaLanguageLevels = new ConcurrentHashMap<String, JavaLanguageLevel>();
 	
 	public GitHistoryRefactoringMinerImpl() {
 		this.setRefactoringTypesToConsider(RefactoringType.ALL);
@@ -102,8 +129,168 @@ public class GitHistoryRefactoringMinerImpl implements GitHistoryRefactoringMine
 			this.refactoringTypesToConsider.add(type);
 		}
 	}
+
+	/**
+	 * Remember the highest Java language level required by the files parsed from each repository, so that the files of the
+	 * later commits are parsed directly at that level, instead of being parsed at the default level and parsed again at the level
+	 * recommended by the compiler problems. A file with problems at the remembered level is parsed as if no level was remembered.
+	 * Disabled by default.
+	 * 
+	 * @param rememberJavaLanguageLevel Whether the Java language level of each repository is remembered.
+	 * @see JavaLanguageLevel
+	 */
+	public void setRememberJavaLanguageLevel(boolean rememberJavaLanguageLevel) {
+		this.rememberJavaLanguageLevel = rememberJavaLanguageLevel;
+	}
+
+	/**
+	 * Compare only the removed and added classes with similar member names for class renames, when they form too many
+	 * pairs to be compared exhaustively, as in large package reorganizations. Disabled by default, since the weak
+	 * class renames between classes with almost no common member names can be missed.
+	 * 
+	 * @param classRenameBlocking Whether the classes compared for class renames are blocked.
+	 * @see UMLModelDiff#setClassRenameBlocking(boolean)
+	 */
+	public void setClassRenameBlocking(boolean classRenameBlocking) {
+		this.classRenameBlocking = classRenameBlocking;
+	}
+
+	/**
+	 * Set the time available for the analysis of each commit, starting when the analysis of the commit starts.
+	 * The diff of the models and the detection of refactorings stop once the budget is exhausted, and the commit
+	 * is reported as timed out, or with the refactorings detected so far if partial results are enabled.
+	 * Disabled by default.
+	 * 
+	 * @param milliseconds The time budget of each commit, or 0 for no limit.
+	 * @param partialResults Whether the refactorings detected before the budget is exhausted are reported
+	 * with {@link RefactoringHandler#handlePartial(String, List)}, instead of handling the commit as timed out.
+	 */
+	public void setCommitTimeBudget(long milliseconds, boolean partialResults) {
+		if (milliseconds < 0) {
+			throw new IllegalArgumentException("The time budget must not be negative");
+		}
+		this.commitTimeBudget = milliseconds;
+		this.commitTimeBudgetPartialResults = partialResults;
+	}
+
+	/**
+	 * Set the number of worker threads used to analyze commits in detectAll, detectBetweenCommits,
+	 * detectBetweenTags and fetchAndDetectNew. With a single thread (the default) commits are analyzed
+	 * one at a time on the calling thread.
+	 * 
+	 * @param numberOfThreads The number of commits analyzed concurrently.
+	 */
+	public void setNumberOfThreads(int numberOfThreads) {
+		if (numberOfThreads < 1) {
+			throw new IllegalArgumentException("The number of threads must be positive");
+		}
+		this.numberOfThreads = numberOfThreads;
+	}
+
+	public int getNumberOfThreads() {
+		return numberOfThreads;
+	}
+
+	/**
+	 * Keep the parsed compilation units of the analyzed git blobs, so that a file revision shared by
+	 * consecutive commits is parsed only once. The cache is disabled by default.
+	 * 
+	 * @param maxCachedCharacters The maximum total length of the source files whose compilation units are cached,
+	 *                            or zero to disable the cache.
+	 */
+	public void setCompilationUnitCacheSize(long maxCachedCharacters) {
+		this.compilationUnitCache = maxCachedCharacters > 0 ? new CompilationUnitCache(maxCachedCharacters) : null;
+	}
+
+	/**
+	 * Set the number of worker threads used to parse the java files of each analyzed commit.
+	 * Parsing in parallel speeds up commits changing many files and produces the same models as
+	 * sequential parsing. With a single thread (the default) the files are parsed on the thread analyzing the commit.
+	 * 
+	 * @param numberOfParserThreads The number of files parsed concurrently.
+	 */
+	public void setNumberOfParserThreads(int numberOfParserThreads) {
+		if (numberOfParserThreads < 1) {
+			throw new IllegalArgumentException("The number of parser threads must be positive");
+		}
+		if (parserPool != null) {
+			parserPool.shutdown();
+		}
+		this.parserPool = numberOfParserThreads > 1 ? new ForkJoinPool(numberOfParserThreads) : null;
+	}
+
+	/**
+	 * Set the number of worker threads used to diff the classes present in both models of each analyzed commit.
+	 * Diffing in parallel speeds up commits changing many classes and detects the same refactorings as
+	 * sequential diffing. With a single thread (the default) the classes are diffed on the thread analyzing the commit.
+	 * 
+	 * @param numberOfClassDiffThreads The number of classes diffed concurrently.
+	 */
+	public void setNumberOfClassDiffThreads(int numberOfClassDiffThreads) {
+		if (numberOfClassDiffThreads < 1) {
+			throw new IllegalArgumentException("The number of class diff threads must be positive");
+		}
+		if (classDiffPool != null) {
+			classDiffPool.shutdown();
+		}
+		this.classDiffPool = numberOfClassDiffThreads > 1 ? newClassDiffPool(numberOfClassDiffThreads) : null;
+	}
+
+	//a class diff waiting for the diffs of preceding classes may activate a spare thread, up to one spare thread per thread
+	private static ForkJoinPool newClassDiffPool(int numberOfClassDiffThreads) {
+		return new ForkJoinPool(numberOfClassDiffThreads, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, false,
+				0, 2 * numberOfClassDiffThreads, 1, pool -> true, 60, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * Set the executor running the detections of the detectAtCommit methods with a timeout parameter. The timeout includes
+	 * the time a call waits for a thread of the executor, and the thread running a timed out call is interrupted.
+	 * The diffs with a timeout parameter run on a thread of their own, since the AST diff does not stop when interrupted.
+	 * By default, an executor shared by all instances, with one thread per available processor.
+	 * 
+	 * @param timeoutExecutor The executor, or null to use the default executor.
+	 */
+	public void setTimeoutExecutor(ExecutorService timeoutExecutor) {
+		this.timeoutExecutor = timeoutExecutor != null ? timeoutExecutor : DetectionExecutors.TIMEOUT;
+	}
+
+	/**
+	 * Set the executor downloading the files of the commits and pull requests analyzed with the GitHub API.
+	 * By default, an executor shared by all instances, with up to 32 concurrent downloads, running on virtual
+	 * threads when the Java runtime supports them.
+	 * 
+	 * @param downloadExecutor The executor, or null to use the default executor.
+	 */
+	public void setDownloadExecutor(ExecutorService downloadExecutor) {
+		this.downloadExecutor = downloadExecutor != null ? downloadExecutor : DetectionExecutors.DOWNLOAD;
+	}
 	
+	/**
+	 * Record the commits analyzed by detectAll, detectBetweenCommits, detectBetweenTags and fetchAndDetectNew
+	 * in the given journal file, and skip the commits already analyzed successfully according to it. This allows resuming
+	 * an analysis that was interrupted, e.g., by a crash. The commits that failed are analyzed again. The journal is disabled by default.
+	 * 
+	 * @param journal The journal file, or null to disable the journal.
+	 */
+	public void setJournal(Path journal) {
+		this.journal = journal;
+	}
+
+	private RefactoringHandler journaled(RefactoringHandler handler) throws IOException {
+		return journal != null ? new JournalingRefactoringHandler(journal, handler) : handler;
+	}
+
+	private static void closeJournal(RefactoringHandler handler) throws IOException {
+		if (handler instanceof JournalingRefactoringHandler) {
+			((JournalingRefactoringHandler) handler).close();
+		}
+	}
+
 	private void detect(GitService gitService, Repository repository, final RefactoringHandler handler, Iterator<RevCommit> i) {
+		if (numberOfThreads > 1) {
+			detectInParallel(gitService, repository, handler, i);
+			return;
+		}
 		int commitsCount = 0;
 		int errorCommitsCount = 0;
 		int refactoringsCount = 0;
@@ -137,9 +324,192 @@ public class GitHistoryRefactoringMinerImpl implements GitHistoryRefactoringMine
 		logger.info(String.format("Analyzed %s [Commits: %d, Errors: %d, Refactorings: %d]", projectName, commitsCount, errorCommitsCount, refactoringsCount));
 	}
 
+	private void detectInParallel(GitService gitService, Repository repository, final RefactoringHandler handler, Iterator<RevCommit> i) {
+		int commitsCount = 0;
+		int errorCommitsCount = 0;
+		int refactoringsCount = 0;
+
+		File metadataFolder = repository.getDirectory();
+		File projectFolder = metadataFolder.getParentFile();
+		String projectName = projectFolder.getName();
+		
+		//at most maxPendingCommits analyzed commits are kept in memory waiting to be handled
+		int maxPendingCommits = 2 * numberOfThreads;
+		boolean inCommitOrder = handler.handleInCommitOrder();
+		ExecutorService pool = Executors.newFixedThreadPool(numberOfThreads);
+		ExecutorCompletionService<RecordingRefactoringHandler> completionService = new ExecutorCompletionService<RecordingRefactoringHandler>(pool);
+		Deque<Future<RecordingRefactoringHandler>> pending = new ArrayDeque<Future<RecordingRefactoringHandler>>();
+		long time = System.currentTimeMillis();
+		try {
+			while (i.hasNext() || !pending.isEmpty()) {
+				if (i.hasNext() && pending.size() < maxPendingCommits) {
+					RevCommit currentCommit = i.next();
+					//the callbacks of the worker are recorded, and replayed to the handler on the calling thread
+					Callable<RecordingRefactoringHandler> task = () -> {
+						RecordingRefactoringHandler recorder = new RecordingRefactoringHandler(currentCommit.getId().getName(), handler);
+						try {
+							recorder.setRefactorings(detectRefactorings(gitService, repository, recorder, currentCommit));
+						} catch (Exception e) {
+							recorder.setException(e);
+						}
+						return recorder;
+					};
+					pending.add(completionService.submit(task));
+					continue;
+				}
+				Future<RecordingRefactoringHandler> next = inCommitOrder ? pending.poll() : completionService.take();
+				if (!inCommitOrder) {
+					pending.remove(next);
+				}
+				RecordingRefactoringHandler result = next.get();
+				try {
+					result.replay();
+					if (result.getException() != null) {
+						throw result.getException();
+					}
+					refactoringsCount += result.getRefactorings().size();
+				} catch (Exception e) {
+					logger.warn(String.format("Ignored revision %s due to error", result.getCommitId()), e);
+					handler.handleException(result.getCommitId(), e);
+					errorCommitsCount++;
+				}
+
+				commitsCount++;
+				long time2 = System.currentTimeMillis();
+				if ((time2 - time) > 20000) {
+					time = time2;
+					logger.info(String.format("Processing %s [Commits: %d, Errors: %d, Refactorings: %d]", projectName, commitsCount, errorCommitsCount, refactoringsCount));
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		} catch (ExecutionException e) {
+			throw new RuntimeException(e.getCause());
+		} finally {
+			pool.shutdownNow();
+		}
+
+		handler.onFinish(refactoringsCount, commitsCount, errorCommitsCount);
+		logger.info(String.format("Analyzed %s [Commits: %d, Errors: %d, Refactorings: %d]", projectName, commitsCount, errorCommitsCount, refactoringsCount));
+	}
+
+	private static class CommitRefactorings {
+		private final String commitId;
+		private final List<Refactoring> refactorings;
+		private final UMLModelDiff modelDiff;
+
+		public CommitRefactorings(String commitId, List<Refactoring> refactorings, UMLModelDiff modelDiff) {
+			this.commitId = commitId;
+			this.refactorings = refactorings;
+			this.modelDiff = modelDiff;
+		}
+
+		public String getCommitId() {
+			return commitId;
+		}
+
+		public List<Refactoring> getRefactorings() {
+			return refactorings;
+		}
+
+		public UMLModelDiff getModelDiff() {
+			return modelDiff;
+		}
+	}
+
+	/**
+	 * Records the callbacks of the handler invoked during the analysis of a commit on a worker thread.
+	 * The queries of the handler are answered by the handler itself, since their result is needed immediately.
+	 * The replay stops at the first callback that throws, as the analysis of the commit would on the calling thread.
+	 */
+	private static class RecordingRefactoringHandler extends RefactoringHandler {
+		private final String commitId;
+		private final RefactoringHandler handler;
+		private final List<Consumer<RefactoringHandler>> callbacks = new ArrayList<Consumer<RefactoringHandler>>();
+		private List<Refactoring> refactorings = Collections.emptyList();
+		private Exception exception;
+
+		public RecordingRefactoringHandler(String commitId, RefactoringHandler handler) {
+			this.commitId = commitId;
+			this.handler = handler;
+		}
+
+		@Override
+		public boolean skipCommit(String commitId) {
+			synchronized (handler) {
+				return handler.skipCommit(commitId);
+			}
+		}
+
+		@Override
+		public boolean handleInCommitOrder() {
+			return handler.handleInCommitOrder();
+		}
+
+		@Override
+		public void handle(String commitId, List<Refactoring> refactorings) {
+			callbacks.add(handler -> handler.handle(commitId, refactorings));
+		}
+
+		@Override
+		public void handlePartial(String commitId, List<Refactoring> refactorings) {
+			callbacks.add(handler -> handler.handlePartial(commitId, refactorings));
+		}
+
+		@Override
+		public void handleException(String commitId, Exception e) {
+			callbacks.add(handler -> handler.handleException(commitId, e));
+		}
+
+		@Override
+		public void handleModelDiff(String commitId, List<Refactoring> refactoringsAtRevision, UMLModelDiff modelDiff) {
+			callbacks.add(handler -> handler.handleModelDiff(commitId, refactoringsAtRevision, modelDiff));
+		}
+
+		public void replay() {
+			for (Consumer<RefactoringHandler> callback : callbacks) {
+				callback.accept(handler);
+			}
+		}
+
+		public String getCommitId() {
+			return commitId;
+		}
+
+		public List<Refactoring> getRefactorings() {
+			return refactorings;
+		}
+
+		public void setRefactorings(List<Refactoring> refactorings) {
+			this.refactorings = refactorings;
+		}
+
+		public Exception getException() {
+			return exception;
+		}
+
+		public void setException(Exception exception) {
+			this.exception = exception;
+		}
+	}
+
+	/**
+	 * Analyzes a commit and reports its refactorings to the handler.
+	 * When several threads are used, this method is invoked on the worker threads, and the callbacks it invokes on the
+	 * handler are replayed on the calling thread once the commit is handled.
+	 */
 	protected List<Refactoring> detectRefactorings(GitService gitService, Repository repository, final RefactoringHandler handler, RevCommit currentCommit) throws Exception {
+		CommitRefactorings result = computeRefactorings(gitService, repository, currentCommit);
+		handle(handler, result.getCommitId(), result.getRefactorings(), result.getModelDiff());
+		handler.handleModelDiff(result.getCommitId(), result.getRefactorings(), result.getModelDiff());
+		return result.getRefactorings();
+	}
+
+	private CommitRefactorings computeRefactorings(GitService gitService, Repository repository, RevCommit currentCommit) throws Exception {
 		List<Refactoring> refactoringsAtRevision;
 		UMLModelDiff modelDiff;
+		DetectionTimeBudget timeBudget = newCommitTimeBudget();
 		String commitId = currentCommit.getId().getName();
 		Set<String> filePathsBefore = new LinkedHashSet<String>();
 		Set<String> filePathsCurrent = new LinkedHashSet<String>();
@@ -150,17 +520,19 @@ public class GitHistoryRefactoringMinerImpl implements GitHistoryRefactoringMine
 		Set<String> repositoryDirectoriesCurrent = new LinkedHashSet<String>();
 		Map<String, String> fileContentsBefore = new LinkedHashMap<String, String>();
 		Map<String, String> fileContentsCurrent = new LinkedHashMap<String, String>();
+		Map<String, String> fileBlobIdsBefore = new HashMap<String, String>();
+		Map<String, String> fileBlobIdsCurrent = new HashMap<String, String>();
 		// If no java files changed, there is no refactoring. Also, if there are
 		// only ADD's or only REMOVE's there is no refactoring
 		if (!filePathsBefore.isEmpty() && !filePathsCurrent.isEmpty() && currentCommit.getParentCount() > 0) {
 			RevCommit parentCommit = currentCommit.getParent(0);
-			populateFileContents(repository, parentCommit, filePathsBefore, fileContentsBefore, repositoryDirectoriesBefore);
-			populateFileContents(repository, currentCommit, filePathsCurrent, fileContentsCurrent, repositoryDirectoriesCurrent);
+			populateFileContents(repository, parentCommit, filePathsBefore, fileContentsBefore, repositoryDirectoriesBefore, fileBlobIdsBefore);
+			populateFileContents(repository, currentCommit, filePathsCurrent, fileContentsCurrent, repositoryDirectoriesCurrent, fileBlobIdsCurrent);
 			List<MoveSourceFolderRefactoring> moveSourceFolderRefactorings = processIdenticalFiles(fileContentsBefore, fileContentsCurrent, renamedFilesHint, false);
-			UMLModel parentUMLModel = createModel(fileContentsBefore, repositoryDirectoriesBefore);
-			UMLModel currentUMLModel = createModel(fileContentsCurrent, repositoryDirectoriesCurrent);
+			UMLModel parentUMLModel = new UMLModelASTReader(fileContentsBefore, repositoryDirectoriesBefore, false, fileBlobIdsBefore, compilationUnitCache, parserPool, getJavaLanguageLevel(repository)).getUmlModel();
+			UMLModel currentUMLModel = new UMLModelASTReader(fileContentsCurrent, repositoryDirectoriesCurrent, false, fileBlobIdsCurrent, compilationUnitCache, parserPool, getJavaLanguageLevel(repository)).getUmlModel();
 			
-			modelDiff = parentUMLModel.diff(currentUMLModel);
+			modelDiff = parentUMLModel.diff(currentUMLModel, classDiffPool, timeBudget, classRenameBlocking);
 			refactoringsAtRevision = modelDiff.getRefactorings();
 			refactoringsAtRevision.addAll(moveSourceFolderRefactorings);
 			refactoringsAtRevision = filter(refactoringsAtRevision);
@@ -169,9 +541,7 @@ public class GitHistoryRefactoringMinerImpl implements GitHistoryRefactoringMine
 			modelDiff = new UMLModelDiff(createModel(Collections.emptyMap(), Collections.emptySet()), createModel(Collections.emptyMap(), Collections.emptySet()));
 			refactoringsAtRevision = Collections.emptyList();
 		}
-		handler.handle(commitId, refactoringsAtRevision);
-		handler.handleModelDiff(commitId, refactoringsAtRevision, modelDiff);
-		return refactoringsAtRevision;
+		return new CommitRefactorings(commitId, refactoringsAtRevision, modelDiff);
 	}
 
 	public static List<MoveSourceFolderRefactoring> processIdenticalFiles(Map<String, String> fileContentsBefore, Map<String, String> fileContentsCurrent,
@@ -217,19 +587,56 @@ public class GitHistoryRefactoringMinerImpl implements GitHistoryRefactoringMine
 		fileContentsBefore.keySet().removeAll(identicalFiles.keySet());
 		fileContentsCurrent.keySet().removeAll(identicalFiles.values());
 		//second iteration to find renamed/moved files with identical contents
+		//files can match only if they have the same length or the same number of lines, so the candidate files are bucketed by both
+		Set<String> matchedFilesCurrent = new HashSet<String>(identicalFiles.values());
+		Set<String> nonIdenticalFilesCurrent = new HashSet<String>(nonIdenticalFiles.values());
+		List<String> candidateFilesCurrent = new ArrayList<String>();
+		Map<Integer, List<Integer>> candidatesByLength = new HashMap<Integer, List<Integer>>();
+		Map<Integer, List<Integer>> candidatesByLineCount = new HashMap<Integer, List<Integer>>();
+		Map<String, List<String>> candidateLinesCurrent = new HashMap<String, List<String>>();
+		for(String key2 : fileContentsCurrent.keySet()) {
+			if(!matchedFilesCurrent.contains(key2) && !nonIdenticalFilesCurrent.contains(key2) && key2.contains("/")) {
+				String fileAfter = fileContentsCurrent.get(key2);
+				int index = candidateFilesCurrent.size();
+				candidateFilesCurrent.add(key2);
+				candidatesByLength.computeIfAbsent(fileAfter.length(), length -> new ArrayList<Integer>()).add(index);
+				if(!astDiff) {
+					List<String> linesAfter = IOUtils.readLines(new StringReader(fileAfter));
+					candidateLinesCurrent.put(key2, linesAfter);
+					candidatesByLineCount.computeIfAbsent(linesAfter.size(), lineCount -> new ArrayList<Integer>()).add(index);
+				}
+			}
+		}
 		for(String key1 : fileContentsBefore.keySet()) {
 			if(!identicalFiles.containsKey(key1) && !nonIdenticalFiles.containsKey(key1) && key1.contains("/")) {
 				String prefix1 = key1.substring(0, key1.indexOf("/"));
 				String fileBefore = fileContentsBefore.get(key1);
 				boolean matchWithConsistentSourceFolderChangeFound = false;
 				List<String> matches = new ArrayList<String>();
-				for(String key2 : fileContentsCurrent.keySet()) {
-					if(!identicalFiles.containsValue(key2) && !nonIdenticalFiles.containsValue(key2) && key2.contains("/")) {
+				List<Integer> sameLength = candidatesByLength.getOrDefault(fileBefore.length(), Collections.emptyList());
+				List<String> linesBefore = astDiff ? null : IOUtils.readLines(new StringReader(fileBefore));
+				List<Integer> sameLineCount = astDiff ? Collections.emptyList() : candidatesByLineCount.getOrDefault(linesBefore.size(), Collections.emptyList());
+				//visit the candidates in the order of the files, merging the two sorted buckets
+				int lengthIndex = 0, lineCountIndex = 0;
+				while(lengthIndex < sameLength.size() || lineCountIndex < sameLineCount.size()) {
+					int index;
+					if(lineCountIndex == sameLineCount.size() || (lengthIndex < sameLength.size() && sameLength.get(lengthIndex) <= sameLineCount.get(lineCountIndex))) {
+						index = sameLength.get(lengthIndex++);
+						if(lineCountIndex < sameLineCount.size() && sameLineCount.get(lineCountIndex) == index) {
+							lineCountIndex++;
+						}
+					}
+					else {
+						index = sameLineCount.get(lineCountIndex++);
+					}
+					String key2 = candidateFilesCurrent.get(index);
+					if(!matchedFilesCurrent.contains(key2)) {
 						String prefix2 = key2.substring(0, key2.indexOf("/"));
 						String fileAfter = fileContentsCurrent.get(key2);
-						if(matchCondition(fileBefore, fileAfter, astDiff)) {
+						if(matchCondition(fileBefore, linesBefore, fileAfter, candidateLinesCurrent.get(key2), astDiff)) {
 							if(consistentSourceFolderChanges.containsKey(Pair.of(prefix1, prefix2))) {
 								identicalFiles.put(key1, key2);
+								matchedFilesCurrent.add(key2);
 								matchWithConsistentSourceFolderChangeFound = true;
 								break;
 							}
@@ -242,6 +649,7 @@ public class GitHistoryRefactoringMinerImpl implements GitHistoryRefactoringMine
 				if(!matchWithConsistentSourceFolderChangeFound) {
 					if(matches.size() == 1) {
 						identicalFiles.put(key1, matches.get(0));
+						matchedFilesCurrent.add(matches.get(0));
 					}
 					else if(matches.size() > 1) {
 						int minEditDistance = key1.length();
@@ -256,6 +664,7 @@ public class GitHistoryRefactoringMinerImpl implements GitHistoryRefactoringMine
 						}
 						if(bestMatch != null) {
 							identicalFiles.put(key1, bestMatch);
+							matchedFilesCurrent.add(bestMatch);
 						}
 					}
 				}
@@ -304,33 +713,45 @@ public class GitHistoryRefactoringMinerImpl implements GitHistoryRefactoringMine
 		return fileBefore.equals(fileAfter) || StringDistance.trivialCommentChange(fileBefore, fileAfter);
 	}
 
+	private static boolean matchCondition(String fileBefore, List<String> linesBefore, String fileAfter, List<String> linesAfter, boolean astDiff) {
+		if(astDiff) {
+			return fileBefore.equals(fileAfter);
+		}
+		return fileBefore.equals(fileAfter) || StringDistance.trivialCommentChange(fileBefore.length() == fileAfter.length(), linesBefore, linesAfter);
+	}
+
 	public static void populateFileContents(Repository repository, RevCommit commit,
 			Set<String> filePaths, Map<String, String> fileContents, Set<String> repositoryDirectories) throws Exception {
+		populateFileContents(repository, commit, filePaths, fileContents, repositoryDirectories, null);
+	}
+
+	public static void populateFileContents(Repository repository, RevCommit commit,
+			Set<String> filePaths, Map<String, String> fileContents, Set<String> repositoryDirectories, Map<String, String> fileBlobIds) throws Exception {
 		logger.info("Processing {} {} ...", repository.getDirectory().getParent().toString(), commit.getName());
 		RevTree parentTree = commit.getTree();
-		try (TreeWalk treeWalk = new TreeWalk(repository)) {
-			treeWalk.addTree(parentTree);
-			treeWalk.setRecursive(true);
-			while (treeWalk.next()) {
-				String pathString = treeWalk.getPathString();
-				if(filePaths.contains(pathString)) {
-					ObjectId objectId = treeWalk.getObjectId(0);
-					ObjectLoader loader = repository.open(objectId);
-					StringWriter writer = new StringWriter();
-					IOUtils.copy(loader.openStream(), writer);
-					fileContents.put(pathString, writer.toString());
-				}
-				if(pathString.endsWith(".java") && pathString.contains("/")) {
-					String directory = pathString.substring(0, pathString.lastIndexOf("/"));
-					repositoryDirectories.add(directory);
-					//include sub-directories
-					String subDirectory = new String(directory);
-					while(subDirectory.contains("/")) {
-						subDirectory = subDirectory.substring(0, subDirectory.lastIndexOf("/"));
-						repositoryDirectories.add(subDirectory);
+		try (ObjectReader reader = repository.newObjectReader()) {
+			if(!filePaths.isEmpty()) {
+				try (TreeWalk treeWalk = new TreeWalk(repository, reader)) {
+					treeWalk.addTree(parentTree);
+					treeWalk.setRecursive(true);
+					treeWalk.setFilter(PathFilterGroup.createFromStrings(filePaths));
+					while (treeWalk.next()) {
+						if(Thread.currentThread().isInterrupted()) {
+							throw new InterruptedException();
+						}
+						String pathString = treeWalk.getPathString();
+						if(filePaths.contains(pathString)) {
+							ObjectId objectId = treeWalk.getObjectId(0);
+							ObjectLoader loader = reader.open(objectId, Constants.OBJ_BLOB);
+							fileContents.put(pathString, new String(loader.getCachedBytes(Integer.MAX_VALUE), Charset.defaultCharset()));
+							if(fileBlobIds != null) {
+								fileBlobIds.put(pathString, objectId.getName());
+							}
+						}
 					}
 				}
 			}
+			repositoryDirectories.addAll(repositoryDirectoriesCache.getRepositoryDirectories(repository, reader, parentTree));
 		}
 	}
 
@@ -372,6 +793,7 @@ public class GitHistoryRefactoringMinerImpl implements GitHistoryRefactoringMine
 	protected List<Refactoring> detectRefactorings(final RefactoringHandler handler, File projectFolder, String cloneURL, String currentCommitId) {
 		List<Refactoring> refactoringsAtRevision = Collections.emptyList();
 		UMLModelDiff modelDiff;
+		DetectionTimeBudget timeBudget = newCommitTimeBudget();
 		try {
 			ChangedFileInfo changedFileInfo = populateWithGitHubAPI(projectFolder, cloneURL, currentCommitId);
 			String parentCommitId = changedFileInfo.getParentCommitId();
@@ -394,9 +816,9 @@ public class GitHistoryRefactoringMinerImpl implements GitHistoryRefactoringMine
 				populateFileContents(currentFolder, filesCurrent, fileContentsCurrent, repositoryDirectoriesCurrent);
 				populateFileContents(parentFolder, filesBefore, fileContentsBefore, repositoryDirectoriesBefore);
 				List<MoveSourceFolderRefactoring> moveSourceFolderRefactorings = processIdenticalFiles(fileContentsBefore, fileContentsCurrent, renamedFilesHint, false); 
-				UMLModel parentUMLModel = createModel(fileContentsBefore, repositoryDirectoriesBefore);
-				UMLModel currentUMLModel = createModel(fileContentsCurrent, repositoryDirectoriesCurrent);
-				modelDiff = parentUMLModel.diff(currentUMLModel);
+				UMLModel parentUMLModel = new UMLModelASTReader(fileContentsBefore, repositoryDirectoriesBefore, false, Collections.emptyMap(), null, parserPool, null).getUmlModel();
+				UMLModel currentUMLModel = new UMLModelASTReader(fileContentsCurrent, repositoryDirectoriesCurrent, false, Collections.emptyMap(), null, parserPool, null).getUmlModel();
+				modelDiff = parentUMLModel.diff(currentUMLModel, classDiffPool, timeBudget, classRenameBlocking);
 				refactoringsAtRevision = modelDiff.getRefactorings();
 				refactoringsAtRevision.addAll(moveSourceFolderRefactorings);
 				refactoringsAtRevision = filter(refactoringsAtRevision);
@@ -405,7 +827,7 @@ public class GitHistoryRefactoringMinerImpl implements GitHistoryRefactoringMine
 				modelDiff = new UMLModelDiff(createModel(Collections.emptyMap(), Collections.emptySet()), createModel(Collections.emptyMap(), Collections.emptySet()));
 				logger.warn(String.format("Folder %s not found", currentFolder.getPath()));
 			}
-			handler.handle(currentCommitId, refactoringsAtRevision);
+			handle(handler, currentCommitId, refactoringsAtRevision, modelDiff);
 			handler.handleModelDiff(currentCommitId, refactoringsAtRevision, modelDiff);
 		} catch (Exception e) {
 			logger.warn(String.format("Ignored revision %s due to error", currentCommitId), e);
@@ -591,6 +1013,23 @@ public class GitHistoryRefactoringMinerImpl implements GitHistoryRefactoringMine
 		return gitHub;
 	}
 
+	private DetectionTimeBudget newCommitTimeBudget() {
+		if (commitTimeBudget > 0) {
+			return new DetectionTimeBudget(commitTimeBudget, commitTimeBudgetPartialResults);
+		}
+		return null;
+	}
+
+	private static void handle(RefactoringHandler handler, String commitId, List<Refactoring> refactorings, UMLModelDiff modelDiff) {
+		if (modelDiff != null && modelDiff.isIncomplete()) {
+			logger.warn(String.format("Partial results for revision %s due to timeout", commitId));
+			handler.handlePartial(commitId, refactorings);
+		}
+		else {
+			handler.handle(commitId, refactorings);
+		}
+	}
+
 	protected List<Refactoring> filter(List<Refactoring> refactoringsAtRevision) {
 		if (this.refactoringTypesToConsider == null) {
 			return refactoringsAtRevision;
@@ -606,33 +1045,37 @@ public class GitHistoryRefactoringMinerImpl implements GitHistoryRefactoringMine
 	
 	@Override
 	public void detectAll(Repository repository, String branch, final RefactoringHandler handler) throws Exception {
+		final RefactoringHandler journaledHandler = journaled(handler);
 		GitService gitService = new GitServiceImpl() {
 			@Override
 			public boolean isCommitAnalyzed(String sha1) {
-				return handler.skipCommit(sha1);
+				return journaledHandler.skipCommit(sha1);
 			}
 		};
 		RevWalk walk = gitService.createAllRevsWalk(repository, branch);
 		try {
-			detect(gitService, repository, handler, walk.iterator());
+			detect(gitService, repository, journaledHandler, walk.iterator());
 		} finally {
 			walk.dispose();
+			closeJournal(journaledHandler);
 		}
 	}
 
 	@Override
 	public void fetchAndDetectNew(Repository repository, final RefactoringHandler handler) throws Exception {
+		final RefactoringHandler journaledHandler = journaled(handler);
 		GitService gitService = new GitServiceImpl() {
 			@Override
 			public boolean isCommitAnalyzed(String sha1) {
-				return handler.skipCommit(sha1);
+				return journaledHandler.skipCommit(sha1);
 			}
 		};
 		RevWalk walk = gitService.fetchAndCreateNewRevsWalk(repository);
 		try {
-			detect(gitService, repository, handler, walk.iterator());
+			detect(gitService, repository, journaledHandler, walk.iterator());
 		} finally {
 			walk.dispose();
+			closeJournal(journaledHandler);
 		}
 	}
 
@@ -644,6 +1087,17 @@ public class GitHistoryRefactoringMinerImpl implements GitHistoryRefactoringMine
 		return new UMLModelASTReader(fileContents, repositoryDirectories, true).getUmlModel();
 	}
 
+	public static UMLModel createModelForASTDiff(Map<String, String> fileContents, Set<String> repositoryDirectories, JavaLanguageLevel languageLevel) throws Exception {
+		return new UMLModelASTReader(fileContents, repositoryDirectories, true, Collections.emptyMap(), null, null, languageLevel).getUmlModel();
+	}
+
+	private JavaLanguageLevel getJavaLanguageLevel(Repository repository) {
+		if(!rememberJavaLanguageLevel) {
+			return null;
+		}
+		return javaLanguageLevels.computeIfAbsent(repository.getDirectory().getAbsolutePath(), directory -> new JavaLanguageLevel());
+	}
+
 	private static final String systemFileSeparator = Matcher.quoteReplacement(File.separator);
 
 	private static List<String> getJavaFilePaths(File folder) throws IOException {
@@ -686,7 +1140,7 @@ public class GitHistoryRefactoringMinerImpl implements GitHistoryRefactoringMine
 			List<MoveSourceFolderRefactoring> moveSourceFolderRefactorings = processIdenticalFiles(fileContentsBefore, fileContentsAfter, Collections.emptyMap(), false); 
 			UMLModel parentUMLModel = createModel(fileContentsBefore, repositoryDirectoriesBefore);
 			UMLModel currentUMLModel = createModel(fileContentsAfter, repositoryDirectoriesCurrent);
-			UMLModelDiff modelDiff = parentUMLModel.diff(currentUMLModel);
+			UMLModelDiff modelDiff = parentUMLModel.diff(currentUMLModel, classDiffPool, null, classRenameBlocking);
 			refactorings = modelDiff.getRefactorings();
 			refactorings.addAll(moveSourceFolderRefactorings);
 			refactorings = filter(refactorings);
@@ -721,7 +1175,7 @@ public class GitHistoryRefactoringMinerImpl implements GitHistoryRefactoringMine
 					List<MoveSourceFolderRefactoring> moveSourceFolderRefactorings = processIdenticalFiles(fileContentsBefore, fileContentsCurrent, Collections.emptyMap(), false); 
 					UMLModel parentUMLModel = createModel(fileContentsBefore, repositoryDirectoriesBefore);
 					UMLModel currentUMLModel = createModel(fileContentsCurrent, repositoryDirectoriesCurrent);
-					UMLModelDiff modelDiff = parentUMLModel.diff(currentUMLModel);
+					UMLModelDiff modelDiff = parentUMLModel.diff(currentUMLModel, classDiffPool, null, classRenameBlocking);
 					refactorings = modelDiff.getRefactorings();
 					refactorings.addAll(moveSourceFolderRefactorings);
 					refactorings = filter(refactorings);
@@ -740,7 +1194,7 @@ public class GitHistoryRefactoringMinerImpl implements GitHistoryRefactoringMine
 						List<MoveSourceFolderRefactoring> moveSourceFolderRefactorings = processIdenticalFiles(fileContentsBefore, fileContentsCurrent, Collections.emptyMap(), false); 
 						UMLModel parentUMLModel = createModelForASTDiff(fileContentsBefore, repositoryDirectoriesBefore);
 						UMLModel currentUMLModel = createModelForASTDiff(fileContentsCurrent, repositoryDirectoriesCurrent);
-						UMLModelDiff modelDiff = parentUMLModel.diff(currentUMLModel);
+						UMLModelDiff modelDiff = parentUMLModel.diff(currentUMLModel, classDiffPool, null, classRenameBlocking);
 						refactorings = modelDiff.getRefactorings();
 						refactorings.addAll(moveSourceFolderRefactorings);
 						refactorings = filter(refactorings);
@@ -776,6 +1230,9 @@ public class GitHistoryRefactoringMinerImpl implements GitHistoryRefactoringMine
 			this.detectRefactorings(handler, projectFolder, cloneURL, commitId);
 		} catch (RefactoringMinerTimedOutException e) {
 			logger.warn(String.format("Ignored revision %s due to timeout", commitId), e);
+		} catch (InterruptedException e) {
+			logger.warn(String.format("Ignored revision %s due to timeout", commitId), e);
+			Thread.currentThread().interrupt();
 		} catch (Exception e) {
 			logger.warn(String.format("Ignored revision %s due to error", commitId), e);
 			handler.handleException(commitId, e);
@@ -786,20 +1243,18 @@ public class GitHistoryRefactoringMinerImpl implements GitHistoryRefactoringMine
 	}
 
 	public void detectAtCommit(Repository repository, String commitId, RefactoringHandler handler, int timeout) {
-		ExecutorService service = Executors.newSingleThreadExecutor();
 		Future<?> f = null;
 		try {
 			Runnable r = () -> detectAtCommit(repository, commitId, handler);
-			f = service.submit(r);
+			f = timeoutExecutor.submit(r);
 			f.get(timeout, TimeUnit.SECONDS);
 		} catch (TimeoutException e) {
 			f.cancel(true);
 		} catch (ExecutionException e) {
 			e.printStackTrace();
 		} catch (InterruptedException e) {
+			f.cancel(true);
 			e.printStackTrace();
-		} finally {
-			service.shutdown();
 		}
 	}
 
@@ -811,52 +1266,61 @@ public class GitHistoryRefactoringMinerImpl implements GitHistoryRefactoringMine
 	@Override
 	public void detectBetweenTags(Repository repository, String startTag, String endTag, RefactoringHandler handler)
 			throws Exception {
+		final RefactoringHandler journaledHandler = journaled(handler);
 		GitService gitService = new GitServiceImpl() {
 			@Override
 			public boolean isCommitAnalyzed(String sha1) {
-				return handler.skipCommit(sha1);
+				return journaledHandler.skipCommit(sha1);
 			}
 		};
 		
 		Iterable<RevCommit> walk = gitService.createRevsWalkBetweenTags(repository, startTag, endTag);
-		detect(gitService, repository, handler, walk.iterator());
+		try {
+			detect(gitService, repository, journaledHandler, walk.iterator());
+		} finally {
+			closeJournal(journaledHandler);
+		}
 	}
 
 	@Override
 	public void detectBetweenCommits(Repository repository, String startCommitId, String endCommitId,
 			RefactoringHandler handler) throws Exception {
+		final RefactoringHandler journaledHandler = journaled(handler);
 		GitService gitService = new GitServiceImpl() {
 			@Override
 			public boolean isCommitAnalyzed(String sha1) {
-				return handler.skipCommit(sha1);
+				return journaledHandler.skipCommit(sha1);
 			}
 		};
 		
 		Iterable<RevCommit> walk = gitService.createRevsWalkBetweenCommits(repository, startCommitId, endCommitId);
-		detect(gitService, repository, handler, walk.iterator());
+		try {
+			detect(gitService, repository, journaledHandler, walk.iterator());
+		} finally {
+			closeJournal(journaledHandler);
+		}
 	}
 
 	@Override
 	public void detectAtCommit(String gitURL, String commitId, RefactoringHandler handler, int timeout) {
-		ExecutorService service = Executors.newSingleThreadExecutor();
 		Future<?> f = null;
 		try {
 			Runnable r = () -> detectRefactorings(handler, gitURL, commitId);
-			f = service.submit(r);
+			f = timeoutExecutor.submit(r);
 			f.get(timeout, TimeUnit.SECONDS);
 		} catch (TimeoutException e) {
 			f.cancel(true);
 		} catch (ExecutionException e) {
 			e.printStackTrace();
 		} catch (InterruptedException e) {
+			f.cancel(true);
 			e.printStackTrace();
-		} finally {
-			service.shutdown();
 		}
 	}
 
 	protected List<Refactoring> detectRefactorings(final RefactoringHandler handler, String gitURL, String currentCommitId) {
 		List<Refactoring> refactoringsAtRevision = Collections.emptyList();
+		DetectionTimeBudget timeBudget = newCommitTimeBudget();
 		try {
 			Set<String> repositoryDirectoriesBefore = ConcurrentHashMap.newKeySet();
 			Set<String> repositoryDirectoriesCurrent = ConcurrentHashMap.newKeySet();
@@ -880,11 +1344,11 @@ public class GitHistoryRefactoringMinerImpl implements GitHistoryRefactoringMine
 			List<MoveSourceFolderRefactoring> moveSourceFolderRefactorings = processIdenticalFiles(fileContentsBefore, fileContentsCurrent, renamedFilesHint, false);
 			UMLModel currentUMLModel = createModel(fileContentsCurrent, repositoryDirectoriesCurrent);
 			UMLModel parentUMLModel = createModel(fileContentsBefore, repositoryDirectoriesBefore);
-			UMLModelDiff modelDiff = parentUMLModel.diff(currentUMLModel);
+			UMLModelDiff modelDiff = parentUMLModel.diff(currentUMLModel, classDiffPool, timeBudget, classRenameBlocking);
 			refactoringsAtRevision = modelDiff.getRefactorings();
 			refactoringsAtRevision.addAll(moveSourceFolderRefactorings);
 			refactoringsAtRevision = filter(refactoringsAtRevision);
-			handler.handle(currentCommitId, refactoringsAtRevision);
+			handle(handler, currentCommitId, refactoringsAtRevision, modelDiff);
 			handler.handleModelDiff(currentCommitId, refactoringsAtRevision, modelDiff);
 		}
 		catch(RefactoringMinerTimedOutException e) {
@@ -910,7 +1374,7 @@ public class GitHistoryRefactoringMinerImpl implements GitHistoryRefactoringMine
 		//if parents.size() == 0 then currentCommit is the initial commit of the repository, but then all files will have an ADDED status
 		final String parentCommitId = currentCommit.getParents().size() > 0 ? currentCommit.getParents().get(0).getSHA1() : null;
 		Set<String> deletedAndRenamedFileParentDirectories = ConcurrentHashMap.newKeySet();
-		ExecutorService pool = Executors.newFixedThreadPool(commitFiles.size());
+		List<Future<?>> downloads = new ArrayList<>();
 		for (GHCommit.File commitFile : commitFiles) {
 			String fileName = commitFile.getFileName();
 			if (commitFile.getFileName().endsWith(".java")) {
@@ -941,7 +1405,7 @@ public class GitHistoryRefactoringMinerImpl implements GitHistoryRefactoringMine
 							e.printStackTrace();
 						}
 					};
-					pool.submit(r);
+					downloads.add(downloadExecutor.submit(r));
 				}
 				else if (commitFile.getStatus().equals("added")) {
 					Runnable r = () -> {
@@ -962,7 +1426,7 @@ public class GitHistoryRefactoringMinerImpl implements GitHistoryRefactoringMine
 							e.printStackTrace();
 						}
 					};
-					pool.submit(r);
+					downloads.add(downloadExecutor.submit(r));
 				}
 				else if (commitFile.getStatus().equals("removed")) {
 					Runnable r = () -> {
@@ -986,7 +1450,7 @@ public class GitHistoryRefactoringMinerImpl implements GitHistoryRefactoringMine
 							e.printStackTrace();
 						}
 					};
-					pool.submit(r);
+					downloads.add(downloadExecutor.submit(r));
 				}
 				else if (commitFile.getStatus().equals("renamed")) {
 					commitFileNames.add(commitFile.getPreviousFilename());
@@ -1022,12 +1486,11 @@ public class GitHistoryRefactoringMinerImpl implements GitHistoryRefactoringMine
 							e.printStackTrace();
 						}
 					};
-					pool.submit(r);
+					downloads.add(downloadExecutor.submit(r));
 				}
 			}
 		}
-		pool.shutdown();
-		pool.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+		DetectionExecutors.awaitAll(downloads);
 		repositoryDirectories(currentCommit.getTree(), "", repositoryDirectoriesCurrent, deletedAndRenamedFileParentDirectories);
 		repositoryDirectoriesCurrent.addAll(deletedAndRenamedFileParentDirectories);
 		//allRepositoryDirectories(currentCommit.getTree(), "", repositoryDirectoriesCurrent);
@@ -1062,7 +1525,7 @@ public class GitHistoryRefactoringMinerImpl implements GitHistoryRefactoringMine
 			List<MoveSourceFolderRefactoring> moveSourceFolderRefactorings = processIdenticalFiles(fileContentsBefore, fileContentsCurrent, renamedFilesHint, false);
 			UMLModel currentUMLModel = createModel(fileContentsCurrent, repositoryDirectoriesCurrent);
 			UMLModel parentUMLModel = createModel(fileContentsBefore, repositoryDirectoriesBefore);
-			UMLModelDiff modelDiff = parentUMLModel.diff(currentUMLModel);
+			UMLModelDiff modelDiff = parentUMLModel.diff(currentUMLModel, classDiffPool, null, classRenameBlocking);
 			refactoringsAtRevision = modelDiff.getRefactorings();
 			refactoringsAtRevision.addAll(moveSourceFolderRefactorings);
 			m.handle(commitId, refactoringsAtRevision);
@@ -1099,7 +1562,7 @@ public class GitHistoryRefactoringMinerImpl implements GitHistoryRefactoringMine
 			List<MoveSourceFolderRefactoring> moveSourceFolderRefactorings = processIdenticalFiles(fileContentsBefore, fileContentsCurrent, renamedFilesHint, false);
 			UMLModel currentUMLModel = createModel(fileContentsCurrent, repositoryDirectoriesCurrent);
 			UMLModel parentUMLModel = createModel(fileContentsBefore, repositoryDirectoriesBefore);
-			UMLModelDiff modelDiff = parentUMLModel.diff(currentUMLModel);
+			UMLModelDiff modelDiff = parentUMLModel.diff(currentUMLModel, classDiffPool, null, classRenameBlocking);
 			refactoringsAtRevision = modelDiff.getRefactorings();
 			refactoringsAtRevision.addAll(moveSourceFolderRefactorings);
 			return modelDiff;
@@ -1214,7 +1677,7 @@ public class GitHistoryRefactoringMinerImpl implements GitHistoryRefactoringMine
 		final String parentCommitId = currentCommit.getParents().size() > 0 ? currentCommit.getParents().get(0).getSHA1() : null;
 		Set<String> deletedAndRenamedFileParentDirectories = ConcurrentHashMap.newKeySet();
 		List<String> commitFileNames = new ArrayList<>();
-		ExecutorService pool = Executors.newFixedThreadPool(commitFiles.size());
+		List<Future<?>> downloads = new ArrayList<>();
 		for (GHCommit.File commitFile : commitFiles) {
 			String fileName = commitFile.getFileName();
 			if (commitFile.getFileName().endsWith(".java")) {
@@ -1249,7 +1712,7 @@ public class GitHistoryRefactoringMinerImpl implements GitHistoryRefactoringMine
 							e.printStackTrace();
 						}
 					};
-					pool.submit(r);
+					downloads.add(downloadExecutor.submit(r));
 				}
 				else if (commitFile.getStatus().equals("added")) {
 					Runnable r = () -> {
@@ -1272,7 +1735,7 @@ public class GitHistoryRefactoringMinerImpl implements GitHistoryRefactoringMine
 							e.printStackTrace();
 						}
 					};
-					pool.submit(r);
+					downloads.add(downloadExecutor.submit(r));
 				}
 				else if (commitFile.getStatus().equals("removed")) {
 					Runnable r = () -> {
@@ -1298,7 +1761,7 @@ public class GitHistoryRefactoringMinerImpl implements GitHistoryRefactoringMine
 							e.printStackTrace();
 						}
 					};
-					pool.submit(r);
+					downloads.add(downloadExecutor.submit(r));
 				}
 				else if (commitFile.getStatus().equals("renamed")) {
 					commitFileNames.add(commitFile.getPreviousFilename());
@@ -1338,12 +1801,11 @@ public class GitHistoryRefactoringMinerImpl implements GitHistoryRefactoringMine
 							e.printStackTrace();
 						}
 					};
-					pool.submit(r);
+					downloads.add(downloadExecutor.submit(r));
 				}
 			}
 		}
-		pool.shutdown();
-		pool.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+		DetectionExecutors.awaitAll(downloads);
 		List<String> orderedFilesBefore = new ArrayList<>();
 		List<String> orderedFilesCurrent = new ArrayList<>();
 		for(String fileName : commitFileNames) {
@@ -1529,9 +1991,9 @@ public class GitHistoryRefactoringMinerImpl implements GitHistoryRefactoringMine
 					populateFileContents(repository, parentCommit, filePathsBefore, fileContentsBefore, repositoryDirectoriesBefore);
 					populateFileContents(repository, currentCommit, filePathsCurrent, fileContentsCurrent, repositoryDirectoriesCurrent);
 					List<MoveSourceFolderRefactoring> moveSourceFolderRefactorings = processIdenticalFiles(fileContentsBefore, fileContentsCurrent, renamedFilesHint, true);
-					UMLModel parentUMLModel = createModelForASTDiff(fileContentsBefore, repositoryDirectoriesBefore);
-					UMLModel currentUMLModel = createModelForASTDiff(fileContentsCurrent, repositoryDirectoriesCurrent);
-					UMLModelDiff modelDiff = parentUMLModel.diff(currentUMLModel);
+					UMLModel parentUMLModel = createModelForASTDiff(fileContentsBefore, repositoryDirectoriesBefore, getJavaLanguageLevel(repository));
+					UMLModel currentUMLModel = createModelForASTDiff(fileContentsCurrent, repositoryDirectoriesCurrent, getJavaLanguageLevel(repository));
+					UMLModelDiff modelDiff = parentUMLModel.diff(currentUMLModel, classDiffPool, null, classRenameBlocking);
 					ProjectASTDiffer differ = new ProjectASTDiffer(modelDiff, fileContentsBefore, fileContentsCurrent);
 					return differ.getProjectASTDiff();
 				}
@@ -1539,9 +2001,9 @@ public class GitHistoryRefactoringMinerImpl implements GitHistoryRefactoringMine
 					//initial commit of the repository
 					populateFileContents(repository, currentCommit, filePathsCurrent, fileContentsCurrent, repositoryDirectoriesCurrent);
 					List<MoveSourceFolderRefactoring> moveSourceFolderRefactorings = processIdenticalFiles(fileContentsBefore, fileContentsCurrent, renamedFilesHint, true);
-					UMLModel parentUMLModel = createModelForASTDiff(fileContentsBefore, repositoryDirectoriesBefore);
-					UMLModel currentUMLModel = createModelForASTDiff(fileContentsCurrent, repositoryDirectoriesCurrent);
-					UMLModelDiff modelDiff = parentUMLModel.diff(currentUMLModel);
+					UMLModel parentUMLModel = createModelForASTDiff(fileContentsBefore, repositoryDirectoriesBefore, getJavaLanguageLevel(repository));
+					UMLModel currentUMLModel = createModelForASTDiff(fileContentsCurrent, repositoryDirectoriesCurrent, getJavaLanguageLevel(repository));
+					UMLModelDiff modelDiff = parentUMLModel.diff(currentUMLModel, classDiffPool, null, classRenameBlocking);
 					ProjectASTDiffer differ = new ProjectASTDiffer(modelDiff, fileContentsBefore, fileContentsCurrent);
 					return differ.getProjectASTDiff();
 				}
@@ -1574,7 +2036,7 @@ public class GitHistoryRefactoringMinerImpl implements GitHistoryRefactoringMine
 					List<MoveSourceFolderRefactoring> moveSourceFolderRefactorings = processIdenticalFiles(fileContentsBefore, fileContentsCurrent, renamedFilesHint, true); 
 					UMLModel parentUMLModel = createModelForASTDiff(fileContentsBefore, repositoryDirectoriesBefore);
 					UMLModel currentUMLModel = createModelForASTDiff(fileContentsCurrent, repositoryDirectoriesCurrent);
-					UMLModelDiff modelDiff = parentUMLModel.diff(currentUMLModel);
+					UMLModelDiff modelDiff = parentUMLModel.diff(currentUMLModel, classDiffPool, null, classRenameBlocking);
 					ProjectASTDiffer differ = new ProjectASTDiffer(modelDiff, fileContentsBefore, fileContentsCurrent);
 					return differ.getProjectASTDiff();
 				}
@@ -1618,7 +2080,7 @@ public class GitHistoryRefactoringMinerImpl implements GitHistoryRefactoringMine
 			List<MoveSourceFolderRefactoring> moveSourceFolderRefactorings = processIdenticalFiles(fileContentsBefore, fileContentsCurrent, renamedFilesHint, true);
 			UMLModel currentUMLModel = createModelForASTDiff(fileContentsCurrent, repositoryDirectoriesCurrent);
 			UMLModel parentUMLModel = createModelForASTDiff(fileContentsBefore, repositoryDirectoriesBefore);
-			UMLModelDiff modelDiff = parentUMLModel.diff(currentUMLModel);
+			UMLModelDiff modelDiff = parentUMLModel.diff(currentUMLModel, classDiffPool, null, classRenameBlocking);
 			ProjectASTDiffer differ = new ProjectASTDiffer(modelDiff, fileContentsBefore, fileContentsCurrent);
 			return differ.getProjectASTDiff();
 		} catch (Exception e) {
@@ -1639,7 +2101,7 @@ public class GitHistoryRefactoringMinerImpl implements GitHistoryRefactoringMine
 		Set<String> repositoryDirectoriesCurrent = ConcurrentHashMap.newKeySet();
 		Set<String> deletedAndRenamedFileParentDirectories = ConcurrentHashMap.newKeySet();
 		List<String> commitFileNames = new ArrayList<>();
-		ExecutorService pool = Executors.newFixedThreadPool(changedFiles);
+		List<Future<?>> downloads = new ArrayList<>();
 		for(GHPullRequestFileDetail commitFile : files) {
 			String fileName = commitFile.getFilename();
 			if (commitFile.getFilename().endsWith(".java")) {
@@ -1667,7 +2129,7 @@ public class GitHistoryRefactoringMinerImpl implements GitHistoryRefactoringMine
 							e.printStackTrace();
 						}
 					};
-					pool.submit(r);
+					downloads.add(downloadExecutor.submit(r));
 				}
 				else if (commitFile.getStatus().equals("added")) {
 					Runnable r = () -> {
@@ -1681,7 +2143,7 @@ public class GitHistoryRefactoringMinerImpl implements GitHistoryRefactoringMine
 							e.printStackTrace();
 						}
 					};
-					pool.submit(r);
+					downloads.add(downloadExecutor.submit(r));
 				}
 				else if (commitFile.getStatus().equals("removed")) {
 					Runnable r = () -> {
@@ -1698,7 +2160,7 @@ public class GitHistoryRefactoringMinerImpl implements GitHistoryRefactoringMine
 							e.printStackTrace();
 						}
 					};
-					pool.submit(r);
+					downloads.add(downloadExecutor.submit(r));
 				}
 				else if (commitFile.getStatus().equals("renamed")) {
 					commitFileNames.add(commitFile.getPreviousFilename());
@@ -1733,15 +2195,15 @@ public class GitHistoryRefactoringMinerImpl implements GitHistoryRefactoringMine
 							e.printStackTrace();
 						}
 					};
-					pool.submit(r);
+					downloads.add(downloadExecutor.submit(r));
 				}
 			}
 		}
-		pool.shutdown();
-		pool.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+		DetectionExecutors.awaitAll(downloads);
 		
 		Set<ProjectASTDiff> diffs = new HashSet<>();
-		ExecutorService service = Executors.newSingleThreadExecutor();
+		//the AST diff does not stop when interrupted, so it runs on a thread of its own instead of a shared thread
+		ExecutorService service = DetectionExecutors.newSingleCallExecutor("RefactoringMiner-diff");
 		Future<?> f = null;
 		try {
 			Runnable r = () -> {
@@ -1759,7 +2221,7 @@ public class GitHistoryRefactoringMinerImpl implements GitHistoryRefactoringMine
 					List<MoveSourceFolderRefactoring> moveSourceFolderRefactorings = processIdenticalFiles(filesContentsBefore, filesContentsCurrent, renamedFilesHint, true);
 					UMLModel currentUMLModel = createModelForASTDiff(filesContentsCurrent, repositoryDirectoriesCurrent);
 					UMLModel parentUMLModel = createModelForASTDiff(filesContentsBefore, repositoryDirectoriesBefore);
-					UMLModelDiff modelDiff = parentUMLModel.diff(currentUMLModel);
+					UMLModelDiff modelDiff = parentUMLModel.diff(currentUMLModel, classDiffPool, null, classRenameBlocking);
 					ProjectASTDiffer differ = new ProjectASTDiffer(modelDiff, filesBefore, filesCurrent);
 					diffs.add(differ.getProjectASTDiff());
 				}
@@ -1777,6 +2239,7 @@ public class GitHistoryRefactoringMinerImpl implements GitHistoryRefactoringMine
 		} catch (ExecutionException e) {
 			e.printStackTrace();
 		} catch (InterruptedException e) {
+			f.cancel(true);
 			e.printStackTrace();
 		} finally {
 			service.shutdown();
@@ -1803,7 +2266,8 @@ public class GitHistoryRefactoringMinerImpl implements GitHistoryRefactoringMine
 	@Override
 	public ProjectASTDiff diffAtCommit(String gitURL, String commitId, int timeout) {
 		Set<ProjectASTDiff> diffs = new HashSet<>();
-		ExecutorService service = Executors.newSingleThreadExecutor();
+		//the AST diff does not stop when interrupted, so it runs on a thread of its own instead of a shared thread
+		ExecutorService service = DetectionExecutors.newSingleCallExecutor("RefactoringMiner-diff");
 		Future<?> f = null;
 		try {
 			Runnable r = () -> {
@@ -1830,7 +2294,7 @@ public class GitHistoryRefactoringMinerImpl implements GitHistoryRefactoringMine
 					List<MoveSourceFolderRefactoring> moveSourceFolderRefactorings = processIdenticalFiles(fileContentsBefore, fileContentsCurrent, renamedFilesHint, true);
 					UMLModel currentUMLModel = createModelForASTDiff(fileContentsCurrent, repositoryDirectoriesCurrent);
 					UMLModel parentUMLModel = createModelForASTDiff(fileContentsBefore, repositoryDirectoriesBefore);
-					UMLModelDiff modelDiff = parentUMLModel.diff(currentUMLModel);
+					UMLModelDiff modelDiff = parentUMLModel.diff(currentUMLModel, classDiffPool, null, classRenameBlocking);
 					ProjectASTDiffer differ = new ProjectASTDiffer(modelDiff, fileContentsBefore, fileContentsCurrent);
 					diffs.add(differ.getProjectASTDiff());
 				}
@@ -1848,6 +2312,7 @@ public class GitHistoryRefactoringMinerImpl implements GitHistoryRefactoringMine
 		} catch (ExecutionException e) {
 			e.printStackTrace();
 		} catch (InterruptedException e) {
+			f.cancel(true);
 			e.printStackTrace();
 		} finally {
 			service.shutdown();
@@ -1877,7 +2342,7 @@ public class GitHistoryRefactoringMinerImpl implements GitHistoryRefactoringMine
 					List<MoveSourceFolderRefactoring> moveSourceFolderRefactorings = processIdenticalFiles(fileContentsBefore, fileContentsCurrent, Collections.emptyMap(), true); 
 					UMLModel parentUMLModel = createModelForASTDiff(fileContentsBefore, repositoryDirectoriesBefore);
 					UMLModel currentUMLModel = createModelForASTDiff(fileContentsCurrent, repositoryDirectoriesCurrent);
-					UMLModelDiff modelDiff = parentUMLModel.diff(currentUMLModel);
+					UMLModelDiff modelDiff = parentUMLModel.diff(currentUMLModel, classDiffPool, null, classRenameBlocking);
 					ProjectASTDiffer differ = new ProjectASTDiffer(modelDiff, fileContentsBefore, fileContentsCurrent);
 					return differ.getProjectASTDiff();
 				}
@@ -1894,7 +2359,7 @@ public class GitHistoryRefactoringMinerImpl implements GitHistoryRefactoringMine
 						List<MoveSourceFolderRefactoring> moveSourceFolderRefactorings = processIdenticalFiles(fileContentsBefore, fileContentsCurrent, Collections.emptyMap(), true); 
 						UMLModel parentUMLModel = createModelForASTDiff(fileContentsBefore, repositoryDirectoriesBefore);
 						UMLModel currentUMLModel = createModelForASTDiff(fileContentsCurrent, repositoryDirectoriesCurrent);
-						UMLModelDiff modelDiff = parentUMLModel.diff(currentUMLModel);
+						UMLModelDiff modelDiff = parentUMLModel.diff(currentUMLModel, classDiffPool, null, classRenameBlocking);
 						ProjectASTDiffer differ = new ProjectASTDiffer(modelDiff, fileContentsBefore, fileContentsCurrent);
 						return differ.getProjectASTDiff();
 					}
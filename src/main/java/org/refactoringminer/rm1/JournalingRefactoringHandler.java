@@ -0,0 +1,176 @@
+package org.refactoringminer.rm1;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.refactoringminer.api.Refactoring;
+import org.refactoringminer.api.RefactoringHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import gr.uom.java.xmi.diff.UMLModelDiff;
+
+/**
+ * Handler that records every analyzed commit in an append-only journal file before passing it to another handler,
+ * and skips the commits already analyzed successfully according to the journal, so that an interrupted analysis can be resumed.
+ * The commits that failed are analyzed again, since the failure may be transient (e.g., I/O errors or lack of memory),
+ * and so are the commits handled with partial results, once their time budget was exhausted.
+ * <p>
+ * Each line of the journal contains the commit id, its status (OK, PARTIAL or ERROR) and the number of detected refactorings,
+ * separated by tabs. Failed commits are forced to disk immediately. Successful commits are forced to disk when
+ * {@code SYNC_COMMITS} commits are pending, when a commit is recorded at least {@code SYNC_INTERVAL_MILLIS} milliseconds
+ * after the previous sync, and when the journal is closed. The commits recorded after the last sync may be analyzed
+ * again after a crash, with no bound on their number while commits take longer than the interval to analyze.
+ */
+public class JournalingRefactoringHandler extends RefactoringHandler implements Closeable {
+	private final static Logger logger = LoggerFactory.getLogger(JournalingRefactoringHandler.class);
+	private static final String OK = "OK";
+	private static final String PARTIAL = "PARTIAL";
+	private static final String ERROR = "ERROR";
+	private static final int SYNC_COMMITS = 64;
+	private static final long SYNC_INTERVAL_MILLIS = 1000;
+	private final RefactoringHandler handler;
+	//commits analyzed successfully
+	private final Set<String> journaledCommits = new HashSet<String>();
+	//commits handled with partial results, and not journaled yet
+	private final Set<String> partialCommits = ConcurrentHashMap.newKeySet();
+	private final FileOutputStream out;
+	private final BufferedWriter writer;
+	private int unsyncedCommits = 0;
+	private long lastSyncTime = System.currentTimeMillis();
+	private boolean closed = false;
+
+	public JournalingRefactoringHandler(Path journal, RefactoringHandler handler) throws IOException {
+		this.handler = handler;
+		boolean partialLastLine = false;
+		if (Files.exists(journal)) {
+			try (BufferedReader reader = Files.newBufferedReader(journal, StandardCharsets.UTF_8)) {
+				String line;
+				while ((line = reader.readLine()) != null) {
+					//a line partially written before a crash does not have all the fields
+					String[] fields = line.split("\t");
+					if (fields.length == 3 && fields[1].equals(OK)) {
+						journaledCommits.add(fields[0]);
+					}
+				}
+			}
+			try (RandomAccessFile file = new RandomAccessFile(journal.toFile(), "r")) {
+				if (file.length() > 0) {
+					file.seek(file.length() - 1);
+					partialLastLine = file.read() != '\n';
+				}
+			}
+			logger.info(String.format("Resuming from journal %s with %d analyzed commits", journal, journaledCommits.size()));
+		}
+		this.out = new FileOutputStream(journal.toFile(), true);
+		this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+		//terminate the line partially written before a crash
+		if (partialLastLine) {
+			writer.write('\n');
+		}
+	}
+
+	/**
+	 * @return True if the journal records that the commit was analyzed successfully.
+	 */
+	public boolean isJournaled(String commitId) {
+		return journaledCommits.contains(commitId);
+	}
+
+	@Override
+	public boolean skipCommit(String commitId) {
+		return isJournaled(commitId) || handler.skipCommit(commitId);
+	}
+
+	@Override
+	public boolean handleInCommitOrder() {
+		return handler.handleInCommitOrder();
+	}
+
+	@Override
+	public void handle(String commitId, List<Refactoring> refactorings) {
+		handler.handle(commitId, refactorings);
+	}
+
+	@Override
+	public void handlePartial(String commitId, List<Refactoring> refactorings) {
+		partialCommits.add(commitId);
+		handler.handlePartial(commitId, refactorings);
+	}
+
+	@Override
+	public void handleModelDiff(String commitId, List<Refactoring> refactoringsAtRevision, UMLModelDiff modelDiff) {
+		handler.handleModelDiff(commitId, refactoringsAtRevision, modelDiff);
+		//the commit is complete once both callbacks have returned
+		journal(commitId, partialCommits.remove(commitId) ? PARTIAL : OK, refactoringsAtRevision.size(), false);
+	}
+
+	@Override
+	public void handleException(String commitId, Exception e) {
+		//the handler may rethrow the exception and stop the analysis
+		journal(commitId, ERROR, 0, true);
+		handler.handleException(commitId, e);
+	}
+
+	@Override
+	public void onFinish(int refactoringsCount, int commitsCount, int errorCommitsCount) {
+		try {
+			close();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		handler.onFinish(refactoringsCount, commitsCount, errorCommitsCount);
+	}
+
+	private synchronized void journal(String commitId, String status, int refactoringsCount, boolean sync) {
+		if (closed) {
+			return;
+		}
+		try {
+			writer.write(commitId + "\t" + status + "\t" + refactoringsCount);
+			writer.write('\n');
+			if (status.equals(OK)) {
+				journaledCommits.add(commitId);
+			}
+			unsyncedCommits++;
+			long time = System.currentTimeMillis();
+			if (sync || unsyncedCommits >= SYNC_COMMITS || time - lastSyncTime >= SYNC_INTERVAL_MILLIS) {
+				sync();
+				lastSyncTime = time;
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private void sync() throws IOException {
+		writer.flush();
+		out.getChannel().force(false);
+		unsyncedCommits = 0;
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		if (!closed) {
+			closed = true;
+			try {
+				sync();
+			} finally {
+				writer.close();
+			}
+		}
+	}
+}
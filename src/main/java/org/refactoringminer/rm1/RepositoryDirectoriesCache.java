@@ -0,0 +1,139 @@
+package org.refactoringminer.rm1;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.jgit.errors.MissingObjectException;
+import org.eclipse.jgit.lib.FileMode;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevTree;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.filter.AndTreeFilter;
+import org.eclipse.jgit.treewalk.filter.PathSuffixFilter;
+import org.eclipse.jgit.treewalk.filter.TreeFilter;
+
+/**
+ * Directories containing java files, indexed by the id of the git tree they were computed from.
+ * Tree ids identify the tree contents, so the same index can be safely reused across commits
+ * (e.g., the tree of a commit is the parent tree of its child commit) and repositories.
+ * <p>
+ * Each index counts the java files under every directory. The index of a tree that is not cached is
+ * derived from the index most recently used for the same repository by applying the java files added and removed
+ * between the two trees, which for consecutive commits is proportional to the size of the change rather than the size
+ * of the repository. The trees of a repository are read only with the readers of that repository.
+ */
+public class RepositoryDirectoriesCache {
+	private final int maxCachedTrees;
+	private final Map<ObjectId, Map<String, Integer>> map;
+	//the most recently used tree of each repository, by git directory
+	private final Map<Object, ObjectId> mostRecentTrees;
+
+	public RepositoryDirectoriesCache(int maxCachedTrees) {
+		this.maxCachedTrees = maxCachedTrees;
+		this.map = new LinkedHashMap<ObjectId, Map<String, Integer>>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<ObjectId, Map<String, Integer>> eldest) {
+				return size() > RepositoryDirectoriesCache.this.maxCachedTrees;
+			}
+		};
+		this.mostRecentTrees = new LinkedHashMap<Object, ObjectId>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Object, ObjectId> eldest) {
+				return size() > RepositoryDirectoriesCache.this.maxCachedTrees;
+			}
+		};
+	}
+
+	/**
+	 * @param repository The repository containing the tree.
+	 * @param reader A reader of the given repository.
+	 */
+	public Set<String> getRepositoryDirectories(Repository repository, ObjectReader reader, RevTree tree) throws Exception {
+		Object repositoryKey = repository.getDirectory() != null ? repository.getDirectory().getAbsoluteFile() : repository;
+		ObjectId baseTree;
+		Map<String, Integer> baseDirectoryFileCounts;
+		synchronized (map) {
+			Map<String, Integer> directoryFileCounts = map.get(tree);
+			if(directoryFileCounts != null) {
+				mostRecentTrees.put(repositoryKey, tree.copy());
+				return Collections.unmodifiableSet(directoryFileCounts.keySet());
+			}
+			baseTree = mostRecentTrees.get(repositoryKey);
+			baseDirectoryFileCounts = baseTree != null ? map.get(baseTree) : null;
+		}
+		Map<String, Integer> directoryFileCounts = null;
+		if(baseDirectoryFileCounts != null) {
+			try {
+				directoryFileCounts = deriveDirectoryFileCounts(reader, baseTree, baseDirectoryFileCounts, tree);
+			} catch (MissingObjectException e) {
+				//the base tree is no longer available in the repository
+			}
+		}
+		if(directoryFileCounts == null) {
+			directoryFileCounts = computeDirectoryFileCounts(reader, tree);
+		}
+		synchronized (map) {
+			ObjectId treeId = tree.copy();
+			mostRecentTrees.put(repositoryKey, treeId);
+			map.put(treeId, directoryFileCounts);
+		}
+		return Collections.unmodifiableSet(directoryFileCounts.keySet());
+	}
+
+	private static Map<String, Integer> computeDirectoryFileCounts(ObjectReader reader, RevTree tree) throws Exception {
+		Map<String, Integer> directoryFileCounts = new HashMap<String, Integer>();
+		try (TreeWalk treeWalk = new TreeWalk(reader)) {
+			treeWalk.addTree(tree);
+			treeWalk.setRecursive(true);
+			treeWalk.setFilter(PathSuffixFilter.create(".java"));
+			while (treeWalk.next()) {
+				updateDirectoryFileCounts(treeWalk.getPathString(), directoryFileCounts, 1);
+			}
+		}
+		return directoryFileCounts;
+	}
+
+	private static Map<String, Integer> deriveDirectoryFileCounts(ObjectReader reader, ObjectId baseTree, Map<String, Integer> baseDirectoryFileCounts, RevTree tree) throws Exception {
+		Map<String, Integer> directoryFileCounts = new HashMap<String, Integer>(baseDirectoryFileCounts);
+		try (TreeWalk treeWalk = new TreeWalk(reader)) {
+			treeWalk.addTree(baseTree);
+			treeWalk.addTree(tree);
+			treeWalk.setRecursive(true);
+			treeWalk.setFilter(AndTreeFilter.create(TreeFilter.ANY_DIFF, PathSuffixFilter.create(".java")));
+			while (treeWalk.next()) {
+				boolean inBaseTree = isFile(treeWalk.getRawMode(0));
+				boolean inTree = isFile(treeWalk.getRawMode(1));
+				if(inBaseTree && !inTree) {
+					updateDirectoryFileCounts(treeWalk.getPathString(), directoryFileCounts, -1);
+				}
+				else if(!inBaseTree && inTree) {
+					updateDirectoryFileCounts(treeWalk.getPathString(), directoryFileCounts, 1);
+				}
+			}
+		}
+		return directoryFileCounts;
+	}
+
+	private static boolean isFile(int rawMode) {
+		return rawMode != FileMode.TYPE_MISSING && (rawMode & FileMode.TYPE_MASK) != FileMode.TYPE_TREE;
+	}
+
+	private static void updateDirectoryFileCounts(String pathString, Map<String, Integer> directoryFileCounts, int delta) {
+		String directory = pathString;
+		while(directory.contains("/")) {
+			directory = directory.substring(0, directory.lastIndexOf("/"));
+			int count = directoryFileCounts.getOrDefault(directory, 0) + delta;
+			if(count > 0) {
+				directoryFileCounts.put(directory, count);
+			}
+			else {
+				directoryFileCounts.remove(directory);
+			}
+		}
+	}
+}
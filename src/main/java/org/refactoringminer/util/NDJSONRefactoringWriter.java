@@ -0,0 +1,85 @@
+package org.refactoringminer.util;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import org.refactoringminer.api.Refactoring;
+import org.refactoringminer.rm1.GitHistoryRefactoringMinerImpl;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import gr.uom.java.xmi.diff.CodeRange;
+
+/**
+ * Writes the refactorings detected in each commit as a single line of JSON (newline-delimited JSON),
+ * with the same properties as the JSON output of the command line.
+ * Each line is flushed once written, so that the output can be consumed while the commits are still being analyzed.
+ * A file whose name ends with .gz is compressed with gzip.
+ */
+public class NDJSONRefactoringWriter implements Closeable {
+	private static final int BUFFER_SIZE = 1 << 16;
+	private final JsonGenerator generator;
+
+	public NDJSONRefactoringWriter(Path path) throws IOException {
+		OutputStream out = new BufferedOutputStream(Files.newOutputStream(path), BUFFER_SIZE);
+		if(path.getFileName().toString().endsWith(".gz")) {
+			out = new GZIPOutputStream(out, BUFFER_SIZE, true);
+		}
+		this.generator = new JsonFactory().createGenerator(out, JsonEncoding.UTF8);
+		this.generator.setRootValueSeparator(null);
+	}
+
+	public void writeCommit(String cloneURL, String commitId, List<Refactoring> refactorings) throws IOException {
+		generator.writeStartObject();
+		generator.writeStringField("repository", cloneURL);
+		generator.writeStringField("sha1", commitId);
+		generator.writeStringField("url", GitHistoryRefactoringMinerImpl.extractCommitURL(cloneURL, commitId));
+		generator.writeArrayFieldStart("refactorings");
+		for(Refactoring refactoring : refactorings) {
+			writeRefactoring(refactoring);
+		}
+		generator.writeEndArray();
+		generator.writeEndObject();
+		generator.writeRaw('\n');
+		generator.flush();
+	}
+
+	private void writeRefactoring(Refactoring refactoring) throws IOException {
+		generator.writeStartObject();
+		generator.writeStringField("type", refactoring.getName());
+		generator.writeStringField("description", refactoring.toString().replace('\t', ' '));
+		writeCodeRanges("leftSideLocations", refactoring.leftSide());
+		writeCodeRanges("rightSideLocations", refactoring.rightSide());
+		generator.writeEndObject();
+	}
+
+	private void writeCodeRanges(String fieldName, List<CodeRange> codeRanges) throws IOException {
+		generator.writeArrayFieldStart(fieldName);
+		for(CodeRange codeRange : codeRanges) {
+			generator.writeStartObject();
+			generator.writeStringField("filePath", codeRange.getFilePath());
+			generator.writeNumberField("startLine", codeRange.getStartLine());
+			generator.writeNumberField("endLine", codeRange.getEndLine());
+			generator.writeNumberField("startColumn", codeRange.getStartColumn());
+			generator.writeNumberField("endColumn", codeRange.getEndColumn());
+			generator.writeStringField("codeElementType", codeRange.getCodeElementType().name());
+			generator.writeStringField("description", codeRange.getDescription());
+			generator.writeStringField("codeElement", codeRange.getCodeElement());
+			generator.writeEndObject();
+		}
+		generator.writeEndArray();
+	}
+
+	@Override
+	public void close() throws IOException {
+		generator.close();
+	}
+}
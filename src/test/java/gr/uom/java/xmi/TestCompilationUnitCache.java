@@ -0,0 +1,101 @@
+package gr.uom.java.xmi;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class TestCompilationUnitCache {
+
+	@Test
+	public void testLeastRecentlyUsedEviction() {
+		CompilationUnitCache cache = new CompilationUnitCache(100);
+		CompilationUnit a = newCompilationUnit();
+		CompilationUnit b = newCompilationUnit();
+		CompilationUnit c = newCompilationUnit();
+		cache.put("a", a, 40);
+		cache.put("b", b, 40);
+		Assertions.assertSame(a, cache.get("a"));
+		//b is the least recently used entry
+		cache.put("c", c, 40);
+		Assertions.assertEquals(2, cache.size());
+		Assertions.assertSame(a, cache.get("a"));
+		Assertions.assertNull(cache.get("b"));
+		Assertions.assertSame(c, cache.get("c"));
+		//a file longer than the cache is not cached, and does not evict the cached files
+		cache.put("d", newCompilationUnit(), 101);
+		Assertions.assertNull(cache.get("d"));
+		Assertions.assertEquals(2, cache.size());
+		//a replaced entry releases its length
+		cache.put("c", c, 10);
+		cache.put("e", newCompilationUnit(), 50);
+		Assertions.assertEquals(3, cache.size());
+		cache.put("f", newCompilationUnit(), 1);
+		Assertions.assertNull(cache.get("a"));
+		Assertions.assertEquals(3, cache.size());
+		cache.clear();
+		Assertions.assertEquals(0, cache.size());
+		cache.put("a", a, 100);
+		Assertions.assertSame(a, cache.get("a"));
+	}
+
+	@Test
+	public void testHitsByBlobId() throws Exception {
+		for(ForkJoinPool parserPool : new ForkJoinPool[] {null, new ForkJoinPool(2)}) {
+			CompilationUnitCache cache = new CompilationUnitCache(1 << 20);
+			Map<String, String> cachedContents = new LinkedHashMap<String, String>();
+			cachedContents.put("src/p/Cached.java", "package p;\npublic class Cached {\n}\n");
+			Map<String, String> cachedKeys = new LinkedHashMap<String, String>();
+			cachedKeys.put("src/p/Cached.java", "blob-1");
+			Assertions.assertEquals(List.of("p.Cached"), classNames(read(cachedContents, cachedKeys, cache, parserPool)));
+			Assertions.assertEquals(1, cache.size());
+			CompilationUnit cached = cache.get("blob-1");
+			Assertions.assertNotNull(cached);
+
+			//the compilation unit is looked up by the blob id of the file, without parsing its contents
+			Map<String, String> fileContents = new LinkedHashMap<String, String>();
+			fileContents.put("src/q/Fresh.java", "package q;\npublic class Fresh {\n}\n");
+			fileContents.put("src/q/Other.java", "package q;\npublic class Other {\n}\n");
+			Map<String, String> fileContentKeys = new LinkedHashMap<String, String>();
+			fileContentKeys.put("src/q/Fresh.java", "blob-1");
+			fileContentKeys.put("src/q/Other.java", "blob-2");
+			Assertions.assertEquals(List.of("p.Cached", "q.Other"), classNames(read(fileContents, fileContentKeys, cache, parserPool)));
+			Assertions.assertSame(cached, cache.get("blob-1"));
+			Assertions.assertEquals(2, cache.size());
+			//the same contents are parsed when their blob id is not cached
+			fileContentKeys.put("src/q/Fresh.java", "blob-3");
+			Assertions.assertEquals(List.of("q.Fresh", "q.Other"), classNames(read(fileContents, fileContentKeys, cache, parserPool)));
+			Assertions.assertEquals(3, cache.size());
+			//without a cache, the blob ids are ignored
+			Assertions.assertEquals(List.of("q.Fresh", "q.Other"), classNames(read(fileContents, fileContentKeys, null, parserPool)));
+			if(parserPool != null) {
+				parserPool.shutdown();
+			}
+		}
+	}
+
+	private static UMLModel read(Map<String, String> fileContents, Map<String, String> fileContentKeys, CompilationUnitCache cache, ForkJoinPool parserPool) throws Exception {
+		return new UMLModelASTReader(fileContents, new LinkedHashSet<String>(), false, fileContentKeys, cache, parserPool, null).getUmlModel();
+	}
+
+	private static List<String> classNames(UMLModel model) {
+		List<String> classNames = new ArrayList<String>();
+		for(UMLClass umlClass : model.getClassList()) {
+			classNames.add(umlClass.getName());
+		}
+		Collections.sort(classNames);
+		return classNames;
+	}
+
+	private static CompilationUnit newCompilationUnit() {
+		return AST.newAST(AST.getJLSLatest(), false).newCompilationUnit();
+	}
+}
@@ -0,0 +1,68 @@
+package gr.uom.java.xmi;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import gr.uom.java.xmi.decomposition.AbstractCodeFragment;
+
+public class TestJavaLanguageLevel {
+
+	@Test
+	public void testSameModelWithRememberedLevel() throws Exception {
+		Map<String, String> fileContents = new LinkedHashMap<String, String>();
+		fileContents.put("src/p/Point.java", "package p;\npublic record Point(int x, int y) {\n	public int sum() {\n		return x + y;\n	}\n}\n");
+		fileContents.put("src/p/Shape.java", "package p;\npublic sealed interface Shape permits Circle {\n	double area();\n}\n");
+		fileContents.put("src/p/Circle.java", "package p;\npublic final class Circle implements Shape {\n	public double area() {\n" +
+				"		var radius = 2.0;\n		return switch ((int) radius) {\n			case 0 -> 0;\n			default -> {\n				yield Math.PI * radius * radius;\n			}\n		};\n	}\n}\n");
+		//restricted identifiers of later levels, valid at the default level
+		fileContents.put("src/p/Legacy.java", "package p;\npublic class Legacy {\n	int record = 1;\n	int sealed = 2;\n	int permits = 3;\n" +
+				"	int total() {\n		int var = record + sealed;\n		return var + permits;\n	}\n}\n");
+		List<String> expected = fingerprint(new UMLModelASTReader(fileContents, new LinkedHashSet<String>(), false).getUmlModel());
+
+		JavaLanguageLevel languageLevel = new JavaLanguageLevel();
+		List<String> detected = fingerprint(read(fileContents, languageLevel));
+		Assertions.assertNotNull(languageLevel.getJavaCoreVersion());
+		Assertions.assertEquals(expected, detected);
+		//the later readers parse the files at the remembered level
+		Assertions.assertEquals(expected, fingerprint(read(fileContents, languageLevel)));
+		Map<String, String> reversed = new LinkedHashMap<String, String>();
+		List<String> filePaths = new ArrayList<String>(fileContents.keySet());
+		Collections.reverse(filePaths);
+		for(String filePath : filePaths) {
+			reversed.put(filePath, fileContents.get(filePath));
+		}
+		List<String> expectedReversed = fingerprint(new UMLModelASTReader(reversed, new LinkedHashSet<String>(), false).getUmlModel());
+		Assertions.assertEquals(expectedReversed, fingerprint(read(reversed, languageLevel)));
+	}
+
+	private static UMLModel read(Map<String, String> fileContents, JavaLanguageLevel languageLevel) throws Exception {
+		return new UMLModelASTReader(fileContents, new LinkedHashSet<String>(), false, Collections.emptyMap(), null, null, languageLevel).getUmlModel();
+	}
+
+	private static List<String> fingerprint(UMLModel model) {
+		List<String> fingerprint = new ArrayList<String>();
+		for(UMLClass umlClass : model.getClassList()) {
+			fingerprint.add(umlClass.getTypeDeclarationKind() + " " + umlClass.getName());
+			for(UMLAttribute attribute : umlClass.getAttributes()) {
+				fingerprint.add(attribute.toString());
+			}
+			for(UMLOperation operation : umlClass.getOperations()) {
+				fingerprint.add(operation.toString());
+				if(operation.getBody() != null) {
+					for(AbstractCodeFragment leaf : operation.getBody().getCompositeStatement().getLeaves()) {
+						fingerprint.add(leaf.getString());
+					}
+				}
+			}
+		}
+		Assertions.assertEquals(4, model.getClassList().size());
+		return fingerprint;
+	}
+}
@@ -0,0 +1,72 @@
+package gr.uom.java.xmi;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import gr.uom.java.xmi.decomposition.AbstractCodeFragment;
+import gr.uom.java.xmi.decomposition.CompositeStatementObject;
+
+public class TestParallelParsing {
+	private static final String DEFECTS4J = System.getProperty("user.dir") + "/src/test/resources/oracle/commits/defects4j/before/";
+
+	@Test
+	public void testSameModelAsSequentialParsing() throws Exception {
+		Map<String, String> fileContents = new LinkedHashMap<String, String>();
+		for(String project : new String[] {"Cli", "Codec", "Jsoup", "Time"}) {
+			for(File bug : new File(DEFECTS4J + project).listFiles()) {
+				for(File file : bug.listFiles()) {
+					if(file.getName().endsWith(".java")) {
+						fileContents.put(project + "/" + bug.getName() + "/" + file.getName().replace('_', '/'), Files.readString(file.toPath()));
+					}
+				}
+			}
+		}
+		//more files than a batch of parallel parsing, including a record parsed at a later language level
+		for(int i = 0; fileContents.size() <= 300; i++) {
+			fileContents.put("src/p/Point" + i + ".java", "package p;\npublic record Point" + i + "(int x, int y) {\n	public int sum() {\n		return x + y + " + i + ";\n	}\n}\n");
+		}
+		Map<String, String> fileContentKeys = new LinkedHashMap<String, String>();
+		List<String> expected = fingerprint(new UMLModelASTReader(fileContents, new LinkedHashSet<String>(), false).getUmlModel());
+		ForkJoinPool parserPool = new ForkJoinPool(4);
+		try {
+			Assertions.assertEquals(expected, fingerprint(new UMLModelASTReader(fileContents, new LinkedHashSet<String>(), false,
+					fileContentKeys, null, parserPool, null).getUmlModel()));
+			Assertions.assertEquals(expected, fingerprint(new UMLModelASTReader(fileContents, new LinkedHashSet<String>(), false,
+					fileContentKeys, null, parserPool, new JavaLanguageLevel()).getUmlModel()));
+		}
+		finally {
+			parserPool.shutdown();
+		}
+	}
+
+	private static List<String> fingerprint(UMLModel model) {
+		List<String> fingerprint = new ArrayList<String>();
+		for(UMLClass umlClass : model.getClassList()) {
+			fingerprint.add(umlClass.getSourceFile() + " " + umlClass.getName() + " " + umlClass.getLocationInfo());
+			for(UMLAttribute attribute : umlClass.getAttributes()) {
+				fingerprint.add(attribute.toString() + " " + attribute.getLocationInfo());
+			}
+			for(UMLOperation operation : umlClass.getOperations()) {
+				fingerprint.add(operation.toString() + " " + operation.getLocationInfo());
+				if(operation.getBody() != null) {
+					CompositeStatementObject composite = operation.getBody().getCompositeStatement();
+					fingerprint.add(String.valueOf(composite.getInnerNodes().size()));
+					for(AbstractCodeFragment leaf : composite.getLeaves()) {
+						fingerprint.add(leaf.getString() + " " + leaf.getLocationInfo());
+					}
+				}
+			}
+		}
+		Assertions.assertFalse(model.getClassList().isEmpty());
+		return fingerprint;
+	}
+}
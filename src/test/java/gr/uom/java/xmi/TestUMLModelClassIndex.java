@@ -0,0 +1,90 @@
+package gr.uom.java.xmi;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import gr.uom.java.xmi.diff.UMLModelDiff;
+
+public class TestUMLModelClassIndex {
+
+	@Test
+	public void testSameClassesAsScanningTheClassList() throws Exception {
+		Map<String, String> fileContentsBefore = new LinkedHashMap<String, String>();
+		fileContentsBefore.put("src/a/b/Outer.java", "package a.b;\npublic class Outer {\n	class Inner {\n		class Deep {\n		}\n	}\n	enum Kind {\n		ONE\n	}\n}\n");
+		fileContentsBefore.put("src/c/Outer.java", "package c;\npublic class Outer {\n}\n");
+		//the same class in another source folder
+		fileContentsBefore.put("test/a/b/Outer.java", "package a.b;\npublic class Outer {\n	class Inner {\n	}\n}\n");
+		fileContentsBefore.put("src/b/Inner.java", "package b;\npublic interface Inner {\n}\n");
+		fileContentsBefore.put("src/Default.java", "public class Default {\n	class Inner {\n	}\n}\n");
+		Map<String, String> fileContentsCurrent = new LinkedHashMap<String, String>();
+		fileContentsCurrent.put("src/a/b/Outer.java", "package a.b;\npublic class Outer {\n	class Inner {\n	}\n}\n");
+		fileContentsCurrent.put("src/d/Outer.java", "package d;\npublic class Outer {\n}\n");
+		fileContentsCurrent.put("src/b/Inner.java", "package b;\npublic interface Inner {\n}\n");
+		UMLModel parentModel = new UMLModelASTReader(fileContentsBefore, new LinkedHashSet<String>(), false).getUmlModel();
+		UMLModel childModel = new UMLModelASTReader(fileContentsCurrent, new LinkedHashSet<String>(), false).getUmlModel();
+		UMLModelDiff modelDiff = new UMLModelDiff(parentModel, childModel);
+		Set<String> classNames = new LinkedHashSet<String>();
+		for(UMLModel model : new UMLModel[] {parentModel, childModel}) {
+			for(UMLClass umlClass : model.getClassList()) {
+				String name = umlClass.getName();
+				classNames.add(name);
+				for(int index = name.indexOf('.'); index != -1; index = name.indexOf('.', index + 1)) {
+					classNames.add(name.substring(index + 1));
+					//not a suffix starting after a dot
+					classNames.add(name.substring(index + 2));
+				}
+			}
+		}
+		classNames.add("Missing");
+		classNames.add("");
+		classNames.add(".Outer");
+		Assertions.assertTrue(classNames.size() > 20);
+		for(String className : classNames) {
+			Assertions.assertSame(scanByName(parentModel, className), parentModel.getClassByName(className), className);
+			Assertions.assertSame(scanByName(childModel, className), childModel.getClassByName(className), className);
+			Assertions.assertSame(scanByName(parentModel, className), modelDiff.findClassInParentModel(className), className);
+			Assertions.assertSame(scanByName(childModel, className), modelDiff.findClassInChildModel(className), className);
+		}
+		for(UMLModel model : new UMLModel[] {parentModel, childModel}) {
+			for(UMLModel otherModel : new UMLModel[] {parentModel, childModel}) {
+				for(UMLClass umlClass : otherModel.getClassList()) {
+					Assertions.assertSame(scan(model, umlClass), model.getClass(umlClass), umlClass.toString());
+					Assertions.assertEquals(model.getClassList().contains(umlClass), model.containsClass(umlClass), umlClass.toString());
+				}
+			}
+		}
+		//a class of the other model is found by equality
+		UMLClass unchanged = parentModel.getClassByName("b.Inner");
+		Assertions.assertTrue(childModel.containsClass(unchanged));
+		Assertions.assertSame(childModel.getClassByName("b.Inner"), childModel.getClass(unchanged));
+		Assertions.assertNotSame(unchanged, childModel.getClass(unchanged));
+	}
+
+	private static UMLClass scan(UMLModel model, UMLClass umlClassFromOtherModel) {
+		for(UMLClass umlClass : model.getClassList()) {
+			if(umlClass.equals(umlClassFromOtherModel)) {
+				return umlClass;
+			}
+		}
+		return null;
+	}
+
+	private static UMLClass scanByName(UMLModel model, String className) {
+		for(UMLClass umlClass : model.getClassList()) {
+			if(umlClass.getName().equals(className)) {
+				return umlClass;
+			}
+		}
+		for(UMLClass umlClass : model.getClassList()) {
+			if(umlClass.getName().endsWith("." + className)) {
+				return umlClass;
+			}
+		}
+		return null;
+	}
+}
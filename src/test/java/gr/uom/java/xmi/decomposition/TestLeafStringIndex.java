@@ -0,0 +1,58 @@
+package gr.uom.java.xmi.decomposition;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.refactoringminer.rm1.GitHistoryRefactoringMinerImpl;
+
+import gr.uom.java.xmi.UMLModel;
+import gr.uom.java.xmi.UMLOperation;
+
+public class TestLeafStringIndex {
+
+	@Test
+	public void testRemovalThroughIndex() throws Exception {
+		VersionedArrayList<AbstractCodeFragment> leaves = new VersionedArrayList<>(leaves());
+		LeafStringIndex index = new LeafStringIndex(leaves);
+		AbstractCodeFragment first = leaves.get(0);
+		Assertions.assertEquals(List.of(leaves.get(0), leaves.get(2)), index.leavesWithString(first.getString()));
+		Assertions.assertTrue(index.remove(first));
+		Assertions.assertFalse(index.remove(first));
+		Assertions.assertEquals(List.of(leaves.get(1)), index.leavesWithString(first.getString()));
+		Assertions.assertEquals(3, leaves.size());
+	}
+
+	@Test
+	public void testModificationWithSameSize() throws Exception {
+		List<AbstractCodeFragment> all = leaves();
+		VersionedArrayList<AbstractCodeFragment> leaves = new VersionedArrayList<>(all.subList(0, 3));
+		LeafStringIndex index = new LeafStringIndex(leaves);
+		AbstractCodeFragment last = all.get(3);
+		Assertions.assertEquals(List.of(), index.leavesWithString(last.getString()));
+		//removing a leaf and adding another without the index leaves the list with the same size
+		leaves.remove(1);
+		leaves.add(last);
+		Assertions.assertEquals(List.of(last), index.leavesWithString(last.getString()));
+		Assertions.assertEquals(List.of(last), index.candidates(last));
+		Assertions.assertEquals(List.of(all.get(0), all.get(2)), index.leavesWithString(all.get(0).getString()));
+		//a leaf replaced in place
+		leaves.set(0, all.get(1));
+		Assertions.assertEquals(List.of(all.get(2)), index.leavesWithString(all.get(0).getString()));
+		Assertions.assertEquals(List.of(all.get(1)), index.leavesWithString(all.get(1).getString()));
+	}
+
+	private static List<AbstractCodeFragment> leaves() throws Exception {
+		Map<String, String> fileContents = new LinkedHashMap<String, String>();
+		fileContents.put("src/p/Counter.java", "package p;\npublic class Counter {\n	private int count;\n	public void count() {\n" +
+				"		count++;\n		count--;\n		count++;\n		count = 0;\n	}\n}\n");
+		UMLModel model = GitHistoryRefactoringMinerImpl.createModel(fileContents, new LinkedHashSet<String>());
+		UMLOperation operation = model.getClassList().get(0).getOperations().get(0);
+		List<AbstractCodeFragment> leaves = operation.getBody().getCompositeStatement().getLeaves();
+		Assertions.assertEquals(4, leaves.size());
+		return leaves;
+	}
+}
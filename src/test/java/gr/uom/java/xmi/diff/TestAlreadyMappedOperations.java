@@ -0,0 +1,84 @@
+package gr.uom.java.xmi.diff;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.refactoringminer.rm1.GitHistoryRefactoringMinerImpl;
+
+import gr.uom.java.xmi.UMLModel;
+import gr.uom.java.xmi.UMLOperation;
+import gr.uom.java.xmi.decomposition.AbstractCodeMapping;
+import gr.uom.java.xmi.decomposition.UMLOperationBodyMapper;
+
+public class TestAlreadyMappedOperations {
+	private static final String DEFECTS4J = System.getProperty("user.dir") + "/src/test/resources/oracle/commits/defects4j/";
+
+	@Test
+	public void testAlreadyMappedOperationsAreNotMappedAgain() throws Exception {
+		//the inference of method signature changes meets the already mapped exitScope operations
+		UMLModel parentModel = createModel(new File(DEFECTS4J + "before/Closure/163"));
+		UMLModel currentModel = createModel(new File(DEFECTS4J + "after/Closure/163"));
+		UMLModelDiff modelDiff = parentModel.diff(currentModel);
+		Assertions.assertFalse(modelDiff.getRefactorings().isEmpty());
+		int alreadyMapped = 0;
+		int candidates = 0;
+		for(UMLClassDiff classDiff : modelDiff.getCommonClassDiffList()) {
+			for(UMLOperationBodyMapper mapper : new ArrayList<UMLOperationBodyMapper>(classDiff.getOperationBodyMapperList())) {
+				if(!(mapper.getContainer1() instanceof UMLOperation) || !(mapper.getContainer2() instanceof UMLOperation)) {
+					continue;
+				}
+				UMLOperation operation1 = (UMLOperation)mapper.getContainer1();
+				UMLOperation operation2 = (UMLOperation)mapper.getContainer2();
+				Assertions.assertTrue(classDiff.containsMapper(operation1, operation2), mapper.toString());
+				if(!operation1.getName().equals("exitScope")) {
+					continue;
+				}
+				alreadyMapped++;
+				//the mapper that was built and then discarded, because an equal mapper was in the list
+				List<String> before = describe(classDiff);
+				UMLOperationBodyMapper rebuilt = new UMLOperationBodyMapper(operation1, operation2, classDiff);
+				Assertions.assertTrue(classDiff.getOperationBodyMapperList().contains(rebuilt));
+				Assertions.assertEquals(before, describe(classDiff));
+				//the mapped operations are still candidates of the inference
+				if(classDiff.getRemovedOperations().contains(operation1) && classDiff.getAddedOperations().contains(operation2)) {
+					candidates++;
+				}
+				for(UMLOperation addedOperation : classDiff.getAddedOperations()) {
+					Assertions.assertEquals(addedOperation.equals(operation2), classDiff.containsMapper(operation1, addedOperation), addedOperation.toString());
+				}
+			}
+		}
+		Assertions.assertTrue(alreadyMapped > 0);
+		Assertions.assertTrue(candidates > 0);
+	}
+
+	private static List<String> describe(UMLClassDiff classDiff) {
+		List<String> description = new ArrayList<String>();
+		for(UMLOperationBodyMapper mapper : classDiff.getOperationBodyMapperList()) {
+			description.add(mapper.toString());
+			for(AbstractCodeMapping mapping : mapper.getMappings()) {
+				description.add(mapping.toString());
+			}
+		}
+		description.add(classDiff.getRemovedOperations().toString());
+		description.add(classDiff.getAddedOperations().toString());
+		return description;
+	}
+
+	private static UMLModel createModel(File directory) throws Exception {
+		Map<String, String> fileContents = new LinkedHashMap<String, String>();
+		for(File file : directory.listFiles()) {
+			if(file.getName().endsWith(".java")) {
+				fileContents.put(file.getName().replace('_', '/'), Files.readString(file.toPath()));
+			}
+		}
+		return GitHistoryRefactoringMinerImpl.createModel(fileContents, new LinkedHashSet<String>());
+	}
+}
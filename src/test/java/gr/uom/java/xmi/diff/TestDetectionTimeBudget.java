@@ -0,0 +1,148 @@
+package gr.uom.java.xmi.diff;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.refactoringminer.api.Refactoring;
+import org.refactoringminer.api.RefactoringType;
+import org.refactoringminer.rm1.GitHistoryRefactoringMinerImpl;
+
+import gr.uom.java.xmi.UMLModel;
+
+public class TestDetectionTimeBudget {
+	private static final String SOURCE_BEFORE =
+			"package p;\n" +
+			"public class Source {\n" +
+			"	private int total;\n" +
+			"	public int total() {\n" +
+			"		return total;\n" +
+			"	}\n" +
+			"	public int first(int a, int b) {\n" +
+			"		int sum = a + b;\n" +
+			"		if(sum > 10) {\n" +
+			"			sum = sum - 10;\n" +
+			"		}\n" +
+			"		System.out.println(\"first \" + sum);\n" +
+			"		return sum * 2;\n" +
+			"	}\n" +
+			"	public String second(String name, int count) {\n" +
+			"		StringBuilder sb = new StringBuilder();\n" +
+			"		for(int i = 0; i < count; i++) {\n" +
+			"			sb.append(name);\n" +
+			"		}\n" +
+			"		System.out.println(\"second \" + sb);\n" +
+			"		return sb.toString();\n" +
+			"	}\n" +
+			"}\n";
+	private static final String SOURCE_CURRENT =
+			"package p;\n" +
+			"public class Source {\n" +
+			"	private int total;\n" +
+			"	public int total() {\n" +
+			"		return total;\n" +
+			"	}\n" +
+			"}\n";
+	private static final String TARGET_BEFORE =
+			"package p;\n" +
+			"public class Target {\n" +
+			"	private String label;\n" +
+			"	public String label() {\n" +
+			"		String text = label.trim();\n" +
+			"		return text.isEmpty() ? null : text;\n" +
+			"	}\n" +
+			"}\n";
+	private static final String TARGET_CURRENT =
+			"package p;\n" +
+			"public class Target {\n" +
+			"	private String label;\n" +
+			"	public String label() {\n" +
+			"		String trimmed = label.trim();\n" +
+			"		return trimmed.isEmpty() ? null : trimmed;\n" +
+			"	}\n" +
+			"	public int first(int a, int b) {\n" +
+			"		int sum = a + b;\n" +
+			"		if(sum > 10) {\n" +
+			"			sum = sum - 10;\n" +
+			"		}\n" +
+			"		System.out.println(\"first \" + sum);\n" +
+			"		return sum * 2;\n" +
+			"	}\n" +
+			"	public String second(String name, int count) {\n" +
+			"		StringBuilder sb = new StringBuilder();\n" +
+			"		for(int i = 0; i < count; i++) {\n" +
+			"			sb.append(name);\n" +
+			"		}\n" +
+			"		System.out.println(\"second \" + sb);\n" +
+			"		return sb.toString();\n" +
+			"	}\n" +
+			"}\n";
+
+	@Test
+	public void testPartialResultsOfCompletedPhases() throws Exception {
+		CountingTimeBudget unlimited = new CountingTimeBudget(Integer.MAX_VALUE);
+		List<String> complete = refactorings(unlimited);
+		Assertions.assertEquals(3, complete.size(), complete.toString());
+		Assertions.assertEquals(2, moves(complete), complete.toString());
+		Assertions.assertTrue(unlimited.checks > 1);
+		int partialResults = 0;
+		for(int limit = 0; limit < unlimited.checks; limit++) {
+			List<String> partial = refactorings(new CountingTimeBudget(limit));
+			//the budget expiring between the two moves returns the refactorings detected before the phase of the moves
+			Assertions.assertNotEquals(1, moves(partial), "limit " + limit + " " + partial);
+			Assertions.assertTrue(complete.containsAll(partial), "limit " + limit + " " + partial);
+			if(!partial.isEmpty()) {
+				partialResults++;
+			}
+		}
+		Assertions.assertTrue(partialResults > 0);
+	}
+
+	private static List<String> refactorings(CountingTimeBudget timeBudget) throws Exception {
+		Map<String, String> fileContentsBefore = new LinkedHashMap<String, String>();
+		Map<String, String> fileContentsCurrent = new LinkedHashMap<String, String>();
+		fileContentsBefore.put("src/p/Source.java", SOURCE_BEFORE);
+		fileContentsBefore.put("src/p/Target.java", TARGET_BEFORE);
+		fileContentsCurrent.put("src/p/Source.java", SOURCE_CURRENT);
+		fileContentsCurrent.put("src/p/Target.java", TARGET_CURRENT);
+		UMLModel parentUMLModel = GitHistoryRefactoringMinerImpl.createModel(fileContentsBefore, new LinkedHashSet<String>());
+		UMLModel currentUMLModel = GitHistoryRefactoringMinerImpl.createModel(fileContentsCurrent, new LinkedHashSet<String>());
+		UMLModelDiff modelDiff = parentUMLModel.diff(currentUMLModel, null, timeBudget);
+		List<String> refactorings = new ArrayList<String>();
+		for(Refactoring refactoring : modelDiff.getRefactorings()) {
+			refactorings.add(refactoring.toString());
+		}
+		Assertions.assertEquals(timeBudget.checks > timeBudget.limit, modelDiff.isIncomplete());
+		return refactorings;
+	}
+
+	private static int moves(List<String> refactorings) {
+		int moves = 0;
+		for(String refactoring : refactorings) {
+			if(refactoring.startsWith(RefactoringType.MOVE_OPERATION.getDisplayName() + "\t")) {
+				moves++;
+			}
+		}
+		return moves;
+	}
+
+	//exhausted after the given number of checks
+	private static class CountingTimeBudget extends DetectionTimeBudget {
+		private final int limit;
+		private int checks;
+
+		private CountingTimeBudget(int limit) {
+			super(0, true);
+			this.limit = limit;
+		}
+
+		@Override
+		public boolean isExhausted() {
+			return checks++ >= limit;
+		}
+	}
+}
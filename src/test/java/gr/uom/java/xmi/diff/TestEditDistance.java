@@ -0,0 +1,153 @@
+package gr.uom.java.xmi.diff;
+
+import java.util.Random;
+
+import org.apache.commons.text.similarity.LevenshteinDistance;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class TestEditDistance {
+	private static final String[] ALPHABETS = {"ab", "abcdefghijklmnopqrstuvwxyz().;= ", "aé€b", "xyé中文", "a𝄞b"};
+	private static final int[] WORD_BOUNDARY_LENGTHS = {1, 63, 64, 65, 127, 128, 129};
+
+	@Test
+	public void testRandomStrings() {
+		Random random = new Random(42);
+		for(int i = 0; i < 3000; i++) {
+			String alphabet = ALPHABETS[random.nextInt(ALPHABETS.length)];
+			String a = randomString(random, random.nextInt(4) == 0 ? random.nextInt(400) : random.nextInt(140), alphabet);
+			String b = random.nextBoolean() ? mutate(random, a, random.nextInt(a.length() / 3 + 2), alphabet) :
+				randomString(random, random.nextInt(140), alphabet);
+			assertSameDistance(a, b, random);
+		}
+	}
+
+	@Test
+	public void testWordBoundaryLengths() {
+		Random random = new Random(64);
+		for(int length1 : WORD_BOUNDARY_LENGTHS) {
+			for(int length2 : WORD_BOUNDARY_LENGTHS) {
+				for(String alphabet : ALPHABETS) {
+					String a = randomString(random, length1, alphabet);
+					assertSameDistance(a, randomString(random, length2, alphabet), random);
+					assertSameDistance(a, mutate(random, a, random.nextInt(8) + 1, alphabet), random);
+					//without a common prefix and suffix, the whole strings are compared
+					assertSameDistance("(" + a + ")", "[" + randomString(random, length2, alphabet) + "]", random);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testNonAsciiCharacters() {
+		Random random = new Random(7);
+		//patterns with as many distinct characters outside ASCII as bits in a word
+		StringBuilder distinct = new StringBuilder();
+		for(char c = 'Ā'; c < 'ŀ'; c++) {
+			distinct.append(c);
+		}
+		String pattern = distinct.toString();
+		assertSameDistance(pattern, new StringBuilder(pattern).reverse().toString(), random);
+		assertSameDistance(pattern, pattern.substring(1) + "Ł", random);
+		assertSameDistance(pattern + pattern, pattern.substring(32) + pattern, random);
+		assertSameDistance("int été = 0;", "int ete = 0;", random);
+		assertSameDistance("𝄞", "𝄟", random);
+	}
+
+	@Test
+	public void testMultipleWordPatterns() {
+		Random random = new Random(128);
+		for(int length : new int[] {130, 192, 193, 500, 1000}) {
+			for(String alphabet : ALPHABETS) {
+				String a = randomString(random, length, alphabet);
+				//thresholds wide enough for the bit vectors of all the blocks, instead of the diagonal band
+				assertSameDistance(a, mutate(random, a, length / 4, alphabet), random);
+				assertSameDistance(a, randomString(random, length - random.nextInt(40), alphabet), random);
+				assertSameDistance("(" + a + ")", "[" + mutate(random, a, 5, alphabet) + "]", random);
+			}
+		}
+		//patterns with more distinct characters outside ASCII than bits in a word
+		StringBuilder distinct = new StringBuilder();
+		for(char c = 'Ā'; c < 'ǈ'; c++) {
+			distinct.append(c);
+		}
+		String pattern = distinct.toString();
+		assertSameDistance(pattern, new StringBuilder(pattern).reverse().toString(), random);
+		assertSameDistance(pattern, mutate(random, pattern, 50, pattern), random);
+	}
+
+	@Test
+	public void testDistanceBelowLimit() {
+		Random random = new Random(1100);
+		for(int i = 0; i < 1000; i++) {
+			String alphabet = ALPHABETS[random.nextInt(ALPHABETS.length)];
+			String a = randomString(random, random.nextInt(300), alphabet);
+			String b = mutate(random, a, random.nextInt(a.length() / 2 + 2), alphabet);
+			int distance = new LevenshteinDistance().apply(a, b);
+			for(int limit : new int[] {-1, 0, distance, distance + 1, random.nextInt(2 * distance + 2)}) {
+				Assertions.assertEquals(distance < limit ? distance : -1, StringDistance.editDistanceBelow(a, b, limit), message(a, b, limit));
+			}
+		}
+		Assertions.assertEquals(-1, StringDistance.editDistanceBelow("x", "x", 0));
+		Assertions.assertEquals(-1, StringDistance.editDistanceBelow("x", "x", -1));
+		Assertions.assertEquals(0, StringDistance.editDistanceBelow("x", "x", 1));
+		//the strings longer than the maximum length are not compared, and their distance is the larger length
+		String longString = randomString(random, 1101, ALPHABETS[1]);
+		Assertions.assertEquals(1101, StringDistance.editDistance(longString, longString));
+		Assertions.assertEquals(1101, StringDistance.editDistanceBelow(longString, "x", 1102));
+		Assertions.assertEquals(-1, StringDistance.editDistanceBelow(longString, "x", 1101));
+		Assertions.assertEquals(-1, StringDistance.editDistanceBelow("x", longString, 0));
+		String maximumString = longString.substring(1);
+		Assertions.assertEquals(new LevenshteinDistance().apply(maximumString, "x"), StringDistance.editDistanceBelow(maximumString, "x", 1101));
+	}
+
+	@Test
+	public void testThresholdZero() {
+		Assertions.assertEquals(0, EditDistance.distance("", "", 0));
+		Assertions.assertEquals(0, EditDistance.distance("return x;", "return x;", 0));
+		Assertions.assertEquals(-1, EditDistance.distance("return x;", "return y;", 0));
+		Assertions.assertEquals(-1, EditDistance.distance("", "x", 0));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> EditDistance.distance("a", "b", -1));
+	}
+
+	//compares the unbounded distance, and the distances with the thresholds around the distance
+	private static void assertSameDistance(String a, String b, Random random) {
+		int expected = new LevenshteinDistance().apply(a, b);
+		Assertions.assertEquals(expected, EditDistance.distance(a, b), message(a, b, Integer.MAX_VALUE));
+		int[] thresholds = {0, expected - 1, expected, expected + 1, random.nextInt(2 * expected + 2), Math.max(a.length(), b.length())};
+		for(int threshold : thresholds) {
+			if(threshold >= 0) {
+				Assertions.assertEquals(new LevenshteinDistance(threshold).apply(a, b), EditDistance.distance(a, b, threshold), message(a, b, threshold));
+			}
+		}
+	}
+
+	private static String message(String a, String b, int threshold) {
+		return "[" + a + "] [" + b + "] threshold " + threshold;
+	}
+
+	private static String randomString(Random random, int length, String alphabet) {
+		StringBuilder sb = new StringBuilder();
+		for(int i = 0; i < length; i++) {
+			sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+		}
+		return sb.toString();
+	}
+
+	private static String mutate(Random random, String s, int edits, String alphabet) {
+		StringBuilder sb = new StringBuilder(s);
+		for(int i = 0; i < edits; i++) {
+			int operation = random.nextInt(3);
+			if(operation == 0 || sb.length() == 0) {
+				sb.insert(random.nextInt(sb.length() + 1), alphabet.charAt(random.nextInt(alphabet.length())));
+			}
+			else if(operation == 1) {
+				sb.deleteCharAt(random.nextInt(sb.length()));
+			}
+			else {
+				sb.setCharAt(random.nextInt(sb.length()), alphabet.charAt(random.nextInt(alphabet.length())));
+			}
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,113 @@
+package gr.uom.java.xmi.diff;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.refactoringminer.rm1.GitHistoryRefactoringMinerImpl;
+
+import gr.uom.java.xmi.UMLClass;
+import gr.uom.java.xmi.UMLModel;
+import gr.uom.java.xmi.UMLOperation;
+import gr.uom.java.xmi.decomposition.UMLOperationBodyMapper;
+
+public class TestOperationBodiesMayMatch {
+	private static final String DEFECTS4J = System.getProperty("user.dir") + "/src/test/resources/oracle/commits/defects4j/";
+
+	@Test
+	public void testSkippedPairsHaveNoMappings() throws Exception {
+		Map<String, String> fileContentsBefore = new LinkedHashMap<String, String>();
+		fileContentsBefore.put("src/p/A.java", "package p;\npublic abstract class A {\n" +
+				"	public A() {\n	}\n" +
+				"	public void empty() {\n	}\n" +
+				"	public void commented() {\n		//return 1;\n	}\n" +
+				"	public int one() {\n		return 1;\n	}\n" +
+				"	public void semicolon() {\n		;\n	}\n" +
+				"	public void block() {\n		{\n		}\n	}\n" +
+				"	public abstract int value();\n" +
+				"	public abstract void run(int times);\n}\n");
+		fileContentsBefore.put("src/p/Marker.java", "package p;\npublic @interface Marker {\n	int value() default 1;\n	String name();\n}\n");
+		Map<String, String> fileContentsCurrent = new LinkedHashMap<String, String>();
+		fileContentsCurrent.put("src/p/B.java", "package p;\npublic abstract class B {\n" +
+				"	public B() {\n		super();\n	}\n" +
+				"	public void empty() {\n	}\n" +
+				"	public int one() {\n		return 1;\n	}\n" +
+				"	public void call() {\n		empty();\n	}\n" +
+				"	public void lambda() {\n		Runnable r = () -> {\n		};\n	}\n" +
+				"	public abstract int value();\n" +
+				"	public abstract void run(int count);\n}\n");
+		fileContentsCurrent.put("src/p/Tag.java", "package p;\npublic @interface Tag {\n	int value() default 1;\n	String name() default \"\";\n}\n");
+		UMLModel parentModel = GitHistoryRefactoringMinerImpl.createModel(fileContentsBefore, new LinkedHashSet<String>());
+		UMLModel currentModel = GitHistoryRefactoringMinerImpl.createModel(fileContentsCurrent, new LinkedHashSet<String>());
+		int[] counts = assertSkippedPairsHaveNoMappings(parentModel, currentModel);
+		Assertions.assertTrue(counts[0] > 0);
+		Assertions.assertTrue(counts[1] > 0);
+	}
+
+	@ParameterizedTest
+	@CsvSource({
+		"Closure, 148",
+		"Closure, 158",
+		"Jsoup, 56"
+	})
+	public void testSkippedPairsHaveNoMappings(String project, String bug) throws Exception {
+		UMLModel parentModel = createModel(new File(DEFECTS4J + "before/" + project + "/" + bug));
+		UMLModel currentModel = createModel(new File(DEFECTS4J + "after/" + project + "/" + bug));
+		int[] counts = assertSkippedPairsHaveNoMappings(parentModel, currentModel);
+		Assertions.assertTrue(counts[0] > 0);
+	}
+
+	/**
+	 * Maps the bodies of every removed and added operation pair skipped by checkForOperationMoves, and fails if the body mapper
+	 * would have produced a mapping, or if the pair would have been accepted as abstract methods with an equal signature.
+	 * @return the number of skipped and mapped pairs.
+	 */
+	private static int[] assertSkippedPairsHaveNoMappings(UMLModel parentModel, UMLModel currentModel) throws Exception {
+		List<UMLOperation> removedOperations = operations(parentModel);
+		List<UMLOperation> addedOperations = operations(currentModel);
+		int skipped = 0;
+		int mapped = 0;
+		for(UMLOperation removedOperation : removedOperations) {
+			for(UMLOperation addedOperation : addedOperations) {
+				if(UMLModelDiff.operationBodiesMayMatch(removedOperation, addedOperation)) {
+					mapped++;
+				}
+				else {
+					skipped++;
+					String pair = removedOperation + " -> " + addedOperation;
+					Assertions.assertFalse(addedOperation.equalSignatureForAbstractMethods(removedOperation), pair);
+					UMLOperationBodyMapper operationBodyMapper = new UMLOperationBodyMapper(removedOperation, addedOperation, null);
+					Assertions.assertEquals(0, operationBodyMapper.mappingsWithoutBlocks(), pair);
+					Assertions.assertTrue(operationBodyMapper.getMappings().isEmpty(), pair);
+				}
+			}
+		}
+		return new int[] {skipped, mapped};
+	}
+
+	private static List<UMLOperation> operations(UMLModel model) {
+		List<UMLOperation> operations = new ArrayList<UMLOperation>();
+		for(UMLClass umlClass : model.getClassList()) {
+			operations.addAll(umlClass.getOperations());
+		}
+		return operations;
+	}
+
+	private static UMLModel createModel(File directory) throws Exception {
+		Map<String, String> fileContents = new LinkedHashMap<String, String>();
+		for(File file : directory.listFiles()) {
+			if(file.getName().endsWith(".java")) {
+				fileContents.put(file.getName().replace('_', '/'), Files.readString(file.toPath()));
+			}
+		}
+		return GitHistoryRefactoringMinerImpl.createModel(fileContents, new LinkedHashSet<String>());
+	}
+}
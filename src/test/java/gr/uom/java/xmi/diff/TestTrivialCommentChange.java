@@ -0,0 +1,110 @@
+package gr.uom.java.xmi.diff;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.github.difflib.DiffUtils;
+import com.github.difflib.patch.AbstractDelta;
+import com.github.difflib.patch.Chunk;
+
+public class TestTrivialCommentChange {
+	private static final Pattern COMMENT_LINE = Pattern.compile("^\\s*(//|\\*|import\\s).*");
+	private static final String[] LINES = {"int a;", "int b = a + 1;", "", "	", "// comment", "//", "	// other comment",
+			" * javadoc", "/**", " */", "import java.util.List;", "import java.util.Map;", "}", "return a;"};
+
+	@Test
+	public void testTrivialCommentChange() throws IOException {
+		assertTrivialCommentChange(true, "int a;\n// abc\n", "int a;\n// abc\n");
+		assertTrivialCommentChange(true, "int a;\n// abc\n", "int a;\n// xyz\n");
+		//same number of lines, different length
+		assertTrivialCommentChange(true, "int a;\n// abc\nint b;\n", "int a;\n// a much longer comment\nint b;\n");
+		assertTrivialCommentChange(true, "import java.util.List;\nint a;\n", "import java.util.Map;\nint a;\n");
+		assertTrivialCommentChange(true, "int a;\n\n", "int a;\n	\n");
+		//same length, different number of lines
+		assertTrivialCommentChange(true, "int a;\n// abc\n", "int a;\n//\n//a\n");
+		assertTrivialCommentChange(false, "int a;\n// abc\n", "int b;\n// abc\n");
+		assertTrivialCommentChange(false, "int a;\n// abc\n", "int a;\n// abc\n// def\n");
+		//only the first line of each changed chunk is checked
+		assertTrivialCommentChange(true, "// a\nint a;\n", "// b\nint b;\n");
+		assertTrivialCommentChange(false, "int a;\n// a\n", "int b;\n// b\n");
+	}
+
+	@Test
+	public void testSameResultAsReadingBothFilesForEachPair() throws IOException {
+		Random random = new Random(42);
+		int trivial = 0;
+		int nonTrivial = 0;
+		for(int i = 0; i < 5000; i++) {
+			List<String> before = new ArrayList<String>();
+			int lines = random.nextInt(8);
+			for(int j = 0; j < lines; j++) {
+				before.add(LINES[random.nextInt(LINES.length)]);
+			}
+			List<String> after = new ArrayList<String>(before);
+			int edits = random.nextInt(3);
+			for(int j = 0; j < edits; j++) {
+				int edit = random.nextInt(3);
+				if(edit == 0 || after.isEmpty()) {
+					after.add(random.nextInt(after.size() + 1), LINES[random.nextInt(LINES.length)]);
+				}
+				else if(edit == 1) {
+					after.remove(random.nextInt(after.size()));
+				}
+				else {
+					after.set(random.nextInt(after.size()), LINES[random.nextInt(LINES.length)]);
+				}
+			}
+			String fileBefore = String.join("\n", before) + (random.nextBoolean() ? "\n" : "");
+			String fileAfter = String.join("\n", after) + (random.nextBoolean() ? "\n" : "");
+			boolean expected = trivialCommentChangeReadingBothFiles(fileBefore, fileAfter);
+			Assertions.assertEquals(expected, StringDistance.trivialCommentChange(fileBefore, fileAfter), fileBefore + " -> " + fileAfter);
+			Assertions.assertEquals(expected, StringDistance.trivialCommentChange(fileBefore.length() == fileAfter.length(),
+					IOUtils.readLines(new StringReader(fileBefore)), IOUtils.readLines(new StringReader(fileAfter))), fileBefore + " -> " + fileAfter);
+			if(expected) {
+				trivial++;
+			}
+			else {
+				nonTrivial++;
+			}
+		}
+		Assertions.assertTrue(trivial > 500);
+		Assertions.assertTrue(nonTrivial > 500);
+	}
+
+	private static void assertTrivialCommentChange(boolean expected, String fileBefore, String fileAfter) throws IOException {
+		Assertions.assertEquals(expected, trivialCommentChangeReadingBothFiles(fileBefore, fileAfter));
+		Assertions.assertEquals(expected, StringDistance.trivialCommentChange(fileBefore, fileAfter));
+		Assertions.assertEquals(expected, StringDistance.trivialCommentChange(fileBefore.length() == fileAfter.length(),
+				IOUtils.readLines(new StringReader(fileBefore)), IOUtils.readLines(new StringReader(fileAfter))));
+	}
+
+	/**
+	 * The check before the lines of a file could be read once, reading the lines of both files for each pair.
+	 */
+	private static boolean trivialCommentChangeReadingBothFiles(String fileBefore, String fileAfter) throws IOException {
+		List<String> original = IOUtils.readLines(new StringReader(fileBefore));
+		List<String> revised = IOUtils.readLines(new StringReader(fileAfter));
+		if(fileBefore.length() == fileAfter.length() || original.size() == revised.size()) {
+			for(AbstractDelta<String> delta : DiffUtils.diff(original, revised).getDeltas()) {
+				Chunk<String> source = delta.getSource();
+				if(source.getLines().size() > 0 && !source.getLines().get(0).isBlank() && !COMMENT_LINE.matcher(source.getLines().get(0)).matches()) {
+					return false;
+				}
+				Chunk<String> target = delta.getTarget();
+				if(target.getLines().size() > 0 && !target.getLines().get(0).isBlank() && !COMMENT_LINE.matcher(target.getLines().get(0)).matches()) {
+					return false;
+				}
+			}
+			return true;
+		}
+		return false;
+	}
+}
@@ -0,0 +1,93 @@
+package gr.uom.java.xmi.diff;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.refactoringminer.api.Refactoring;
+import org.refactoringminer.api.RefactoringType;
+import org.refactoringminer.rm1.GitHistoryRefactoringMinerImpl;
+
+import gr.uom.java.xmi.UMLClass;
+import gr.uom.java.xmi.UMLModel;
+
+public class TestUMLClassMinHashIndex {
+	//more removed and added class pairs than compared exhaustively
+	private static final int NUMBER_OF_CLASSES = 501;
+
+	@Test
+	public void testBlockedCandidates() throws Exception {
+		UMLModel parentModel = createModel(false);
+		UMLModel currentModel = createModel(true);
+		ClassNameIndexedList<UMLClass> removedClasses = ClassNameIndexedList.ofClasses();
+		removedClasses.addAll(parentModel.getClassList());
+		ClassNameIndexedList<UMLClass> addedClasses = ClassNameIndexedList.ofClasses();
+		addedClasses.addAll(currentModel.getClassList());
+		UMLClass oldClass = parentModel.getClassByName("p.Old");
+		UMLClass newClass = currentModel.getClassByName("p.New");
+		UMLClass tinyClass = currentModel.getClassByName("p.Tiny");
+
+		UMLClassMinHashIndex exhaustiveIndex = new UMLClassMinHashIndex(removedClasses, addedClasses, false);
+		Assertions.assertTrue(exhaustiveIndex.isExhaustive());
+		Assertions.assertEquals(addedClasses, exhaustiveIndex.getAddedClassCandidates(oldClass));
+
+		UMLClassMinHashIndex index = new UMLClassMinHashIndex(removedClasses, addedClasses, true);
+		Assertions.assertFalse(index.isExhaustive());
+		//the classes with the same member names, and the classes with too few member names to be sketched, in list order
+		Assertions.assertEquals(List.of(newClass, tinyClass), index.getAddedClassCandidates(oldClass));
+		Assertions.assertEquals(List.of(oldClass), index.getRemovedClassCandidates(newClass));
+		Assertions.assertEquals(removedClasses, index.getRemovedClassCandidates(tinyClass));
+		//the classes removed from the lists are no longer compared
+		addedClasses.remove(newClass);
+		Assertions.assertEquals(List.of(tinyClass), index.getAddedClassCandidates(oldClass));
+	}
+
+	@Test
+	public void testSameRenameWithBlocking() throws Exception {
+		UMLModel parentModel = createModel(false);
+		UMLModel currentModel = createModel(true);
+		List<String> exhaustive = renames(parentModel.diff(currentModel, null, null, false).getRefactorings());
+		List<String> blocked = renames(createModel(false).diff(createModel(true), null, null, true).getRefactorings());
+		Assertions.assertEquals(1, exhaustive.size(), exhaustive.toString());
+		Assertions.assertEquals(exhaustive, blocked);
+	}
+
+	private static List<String> renames(List<Refactoring> refactorings) {
+		List<String> renames = new ArrayList<String>();
+		for(Refactoring refactoring : refactorings) {
+			if(refactoring.getRefactoringType().equals(RefactoringType.RENAME_CLASS)) {
+				renames.add(refactoring.toString());
+			}
+		}
+		Collections.sort(renames);
+		return renames;
+	}
+
+	//the classes of each version have distinct member names, except for the renamed class
+	private static UMLModel createModel(boolean current) throws Exception {
+		Map<String, String> fileContents = new LinkedHashMap<String, String>();
+		String renamedClass = current ? "New" : "Old";
+		fileContents.put("src/p/" + renamedClass + ".java", "package p;\npublic class " + renamedClass + " {\n" +
+				"	int alpha;\n	int beta;\n	void gamma() {\n		alpha++;\n	}\n	void delta() {\n		beta++;\n	}\n}\n");
+		String prefix = current ? "Added" : "Removed";
+		for(int i=1; i<NUMBER_OF_CLASSES; i++) {
+			String className = prefix + i;
+			StringBuilder members = new StringBuilder();
+			for(int j=0; j<4; j++) {
+				//member names unrelated to the class names, so that they do not follow the rename pattern of the classes
+				String memberName = "m" + Integer.toHexString((className + j).hashCode());
+				members.append("	void " + memberName + "() {\n		System.out.println(\"" + memberName + "\");\n	}\n");
+			}
+			fileContents.put("src/p/" + className + ".java", "package p;\npublic class " + className + " {\n" + members + "}\n");
+		}
+		if(current) {
+			fileContents.put("src/p/Tiny.java", "package p;\npublic class Tiny {\n	void tiny() {\n	}\n}\n");
+		}
+		return GitHistoryRefactoringMinerImpl.createModel(fileContents, new LinkedHashSet<String>());
+	}
+}
@@ -0,0 +1,146 @@
+package org.refactoringminer.rm1;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.refactoringminer.api.Refactoring;
+import org.refactoringminer.api.RefactoringHandler;
+import org.refactoringminer.api.RefactoringMinerTimedOutException;
+
+import gr.uom.java.xmi.UMLModel;
+import gr.uom.java.xmi.diff.DetectionTimeBudget;
+
+public class TestDetectionExecutors {
+	@TempDir
+	Path tempDir;
+
+	@Test
+	public void testTimedOutDetectionFreesSharedThread() throws Exception {
+		ExecutorService executor = DetectionExecutors.newBoundedExecutor(1, "test-timeout-");
+		try (Git git = Git.init().setDirectory(tempDir.toFile()).setInitialBranch("master").call()) {
+			commit(git, "int total;");
+			String commitId = commit(git, "int sum;").getName();
+			GitHistoryRefactoringMinerImpl miner = new GitHistoryRefactoringMinerImpl();
+			miner.setTimeoutExecutor(executor);
+			CountDownLatch interrupted = new CountDownLatch(1);
+			miner.detectAtCommit(git.getRepository(), commitId, new RefactoringHandler() {
+				@Override
+				public void handle(String commitId, List<Refactoring> refactorings) {
+					try {
+						Thread.sleep(Long.MAX_VALUE);
+					} catch (InterruptedException e) {
+						interrupted.countDown();
+					}
+				}
+			}, 1);
+			Assertions.assertTrue(interrupted.await(10, TimeUnit.SECONDS));
+			//the only thread of the executor runs the next call
+			List<String> handled = new ArrayList<String>();
+			miner.detectAtCommit(git.getRepository(), commitId, new RefactoringHandler() {
+				@Override
+				public void handle(String commitId, List<Refactoring> refactorings) {
+					handled.add(commitId);
+				}
+			}, 10);
+			Assertions.assertEquals(List.of(commitId), handled);
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testInterruptedDiffReportsNoPartialResults() throws Exception {
+		Map<String, String> before = new LinkedHashMap<String, String>();
+		before.put("src/p/A.java", "package p;\npublic class A {\n	void a() {\n	}\n}\n");
+		Map<String, String> after = new LinkedHashMap<String, String>();
+		after.put("src/p/B.java", "package p;\npublic class B {\n	void a() {\n	}\n}\n");
+		UMLModel parentModel = GitHistoryRefactoringMinerImpl.createModel(before, new LinkedHashSet<String>());
+		UMLModel currentModel = GitHistoryRefactoringMinerImpl.createModel(after, new LinkedHashSet<String>());
+		Thread.currentThread().interrupt();
+		try {
+			//the parsing stops before the first file, instead of returning a model without classes
+			Assertions.assertThrows(RefactoringMinerTimedOutException.class,
+					() -> GitHistoryRefactoringMinerImpl.createModel(after, new LinkedHashSet<String>()));
+			Assertions.assertTrue(Thread.currentThread().isInterrupted());
+			Assertions.assertThrows(RefactoringMinerTimedOutException.class,
+					() -> parentModel.diff(currentModel, null, new DetectionTimeBudget(60000, true)));
+		}
+		finally {
+			Thread.interrupted();
+		}
+		Assertions.assertFalse(parentModel.diff(currentModel, null, new DetectionTimeBudget(60000, true)).isIncomplete());
+	}
+
+	@Test
+	public void testSemaphoreBoundedExecutor() throws Exception {
+		ExecutorService executor = new DetectionExecutors.SemaphoreBoundedExecutor(Executors.newCachedThreadPool(), 2);
+		AtomicInteger running = new AtomicInteger();
+		AtomicInteger maximumRunning = new AtomicInteger();
+		List<Future<?>> futures = new ArrayList<Future<?>>();
+		try {
+			for(int i=0; i<8; i++) {
+				futures.add(executor.submit(() -> {
+					maximumRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+					try {
+						Thread.sleep(50);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+					running.decrementAndGet();
+				}));
+			}
+			DetectionExecutors.awaitAll(futures);
+			Assertions.assertEquals(2, maximumRunning.get());
+			//a task cancelled while waiting for a permit never runs
+			CountDownLatch release = new CountDownLatch(1);
+			AtomicInteger started = new AtomicInteger();
+			Runnable blocking = () -> {
+				started.incrementAndGet();
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			};
+			Future<?> first = executor.submit(blocking);
+			Future<?> second = executor.submit(blocking);
+			Future<?> waiting = executor.submit(blocking);
+			waiting.cancel(true);
+			release.countDown();
+			first.get();
+			second.get();
+			Assertions.assertEquals(2, started.get());
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private static RevCommit commit(Git git, String field) throws Exception {
+		String path = "src/p/Counter.java";
+		File file = new File(git.getRepository().getWorkTree(), path);
+		file.getParentFile().mkdirs();
+		Files.writeString(file.toPath(), "package p;\npublic class Counter {\n	" + field + "\n}\n", StandardCharsets.UTF_8);
+		git.add().addFilepattern(path).call();
+		return git.commit().setMessage(field).setAuthor("author", "author@example.com").setCommitter("author", "author@example.com").call();
+	}
+}
@@ -0,0 +1,102 @@
+package org.refactoringminer.rm1;
+
+import java.io.File;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class TestPopulateFileContents {
+	@TempDir
+	Path tempDir;
+
+	@Test
+	public void testOnlyRequestedBlobsAreLoaded() throws Exception {
+		try (Git git = Git.init().setDirectory(tempDir.toFile()).setInitialBranch("master").call()) {
+			write(git, "src/p/A.java", "package p;\npublic class A {\n}\n");
+			write(git, "src/p/A.java.orig", "package p;\npublic class A {\n	int old;\n}\n");
+			write(git, "src/p/a/B.java", "package p.a;\npublic class B {\n}\n");
+			write(git, "src/p/a.txt", "not java");
+			write(git, "test/q/r/C.java", "package q.r;\npublic class C {\n	String s = \"é\";\n}\n");
+			write(git, "docs/README.md", "readme");
+			write(git, "D.java", "public class D {\n}\n");
+			RevCommit first = commit(git, "first");
+			Set<String> filePaths = new LinkedHashSet<String>();
+			filePaths.add("src/p/A.java");
+			filePaths.add("test/q/r/C.java");
+			filePaths.add("D.java");
+			//requested paths missing from the commit, or prefixes of the paths in the commit
+			filePaths.add("src/p/Missing.java");
+			filePaths.add("src/p/a");
+			filePaths.add("src/p/A.jav");
+			assertSameAsFullTreeWalk(git.getRepository(), first, filePaths);
+
+			write(git, "src/p/A.java", "package p;\npublic class A {\n	int count;\n}\n");
+			write(git, "lib/s/E.java", "package s;\npublic class E {\n}\n");
+			RevCommit second = commit(git, "second");
+			//the directories of the second commit are not those cached for the first commit
+			assertSameAsFullTreeWalk(git.getRepository(), second, filePaths);
+			assertSameAsFullTreeWalk(git.getRepository(), first, filePaths);
+			filePaths.add("lib/s/E.java");
+			assertSameAsFullTreeWalk(git.getRepository(), second, filePaths);
+			assertSameAsFullTreeWalk(git.getRepository(), second, new LinkedHashSet<String>());
+		}
+	}
+
+	private static void assertSameAsFullTreeWalk(Repository repository, RevCommit commit, Set<String> filePaths) throws Exception {
+		Map<String, String> expectedContents = new HashMap<String, String>();
+		Map<String, String> expectedBlobIds = new HashMap<String, String>();
+		Set<String> expectedDirectories = new TreeSet<String>();
+		try (TreeWalk treeWalk = new TreeWalk(repository)) {
+			treeWalk.addTree(commit.getTree());
+			treeWalk.setRecursive(true);
+			while(treeWalk.next()) {
+				String pathString = treeWalk.getPathString();
+				if(filePaths.contains(pathString)) {
+					expectedContents.put(pathString, new String(repository.open(treeWalk.getObjectId(0)).getBytes(), Charset.defaultCharset()));
+					expectedBlobIds.put(pathString, treeWalk.getObjectId(0).getName());
+				}
+				if(pathString.endsWith(".java") && pathString.contains("/")) {
+					String directory = pathString.substring(0, pathString.lastIndexOf("/"));
+					expectedDirectories.add(directory);
+					while(directory.contains("/")) {
+						directory = directory.substring(0, directory.lastIndexOf("/"));
+						expectedDirectories.add(directory);
+					}
+				}
+			}
+		}
+		Map<String, String> fileContents = new LinkedHashMap<String, String>();
+		Map<String, String> fileBlobIds = new HashMap<String, String>();
+		Set<String> repositoryDirectories = new LinkedHashSet<String>();
+		GitHistoryRefactoringMinerImpl.populateFileContents(repository, commit, filePaths, fileContents, repositoryDirectories, fileBlobIds);
+		Assertions.assertEquals(expectedContents, fileContents);
+		Assertions.assertEquals(expectedBlobIds, fileBlobIds);
+		Assertions.assertEquals(expectedDirectories, new TreeSet<String>(repositoryDirectories));
+	}
+
+	private static void write(Git git, String path, String contents) throws Exception {
+		File file = new File(git.getRepository().getWorkTree(), path);
+		file.getParentFile().mkdirs();
+		Files.writeString(file.toPath(), contents, StandardCharsets.UTF_8);
+		git.add().addFilepattern(path).call();
+	}
+
+	private static RevCommit commit(Git git, String message) throws Exception {
+		return git.commit().setMessage(message).setAuthor("author", "author@example.com").setCommitter("author", "author@example.com").call();
+	}
+}
@@ -0,0 +1,206 @@
+package org.refactoringminer.rm1;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import gr.uom.java.xmi.diff.MoveSourceFolderRefactoring;
+import gr.uom.java.xmi.diff.MovedClassToAnotherSourceFolder;
+import gr.uom.java.xmi.diff.RenamePattern;
+import gr.uom.java.xmi.diff.StringDistance;
+
+public class TestProcessIdenticalFiles {
+	private static final String[] SOURCE_FOLDERS = {"src", "source", "lib"};
+	private static final String[] PACKAGES = {"p", "main/java/p", "q/r"};
+	private static final String[] NAMES = {"A", "B", "Ab", "package-info"};
+
+	@Test
+	public void testSameMatchesAsComparingAllFiles() throws Exception {
+		Random random = new Random(42);
+		int moves = 0;
+		for(int i = 0; i < 2000; i++) {
+			Map<String, String> fileContentsBefore = new LinkedHashMap<String, String>();
+			Map<String, String> fileContentsCurrent = new LinkedHashMap<String, String>();
+			Map<String, String> renamedFilesHint = new HashMap<String, String>();
+			int files = 1 + random.nextInt(10);
+			for(int j = 0; j < files; j++) {
+				String pathBefore = randomPath(random);
+				String contents = contents(random.nextInt(4), 0);
+				fileContentsBefore.put(pathBefore, contents);
+				int change = random.nextInt(4);
+				String pathCurrent = change == 0 ? pathBefore : randomPath(random);
+				if(change < 3) {
+					fileContentsCurrent.put(pathCurrent, random.nextBoolean() ? contents : contents(random.nextInt(4), random.nextInt(5)));
+					if(change == 1) {
+						renamedFilesHint.put(pathBefore, pathCurrent);
+					}
+				}
+			}
+			for(boolean astDiff : new boolean[] {false, true}) {
+				Map<String, String> expectedBefore = new LinkedHashMap<String, String>(fileContentsBefore);
+				Map<String, String> expectedCurrent = new LinkedHashMap<String, String>(fileContentsCurrent);
+				List<String> expected = describe(processIdenticalFilesComparingAllFiles(expectedBefore, expectedCurrent, renamedFilesHint, astDiff));
+				Map<String, String> actualBefore = new LinkedHashMap<String, String>(fileContentsBefore);
+				Map<String, String> actualCurrent = new LinkedHashMap<String, String>(fileContentsCurrent);
+				List<String> actual = describe(GitHistoryRefactoringMinerImpl.processIdenticalFiles(actualBefore, actualCurrent, renamedFilesHint, astDiff));
+				String message = fileContentsBefore.keySet() + " -> " + fileContentsCurrent.keySet();
+				Assertions.assertEquals(expected, actual, message);
+				Assertions.assertEquals(new ArrayList<String>(expectedBefore.keySet()), new ArrayList<String>(actualBefore.keySet()), message);
+				Assertions.assertEquals(new ArrayList<String>(expectedCurrent.keySet()), new ArrayList<String>(actualCurrent.keySet()), message);
+				moves += actual.size();
+			}
+		}
+		Assertions.assertTrue(moves > 100);
+	}
+
+	private static String randomPath(Random random) {
+		return SOURCE_FOLDERS[random.nextInt(SOURCE_FOLDERS.length)] + "/" + PACKAGES[random.nextInt(PACKAGES.length)] + "/" +
+				NAMES[random.nextInt(NAMES.length)] + ".java";
+	}
+
+	/**
+	 * @param variant 0 for the original contents, 1 and 2 for comment changes with the same number of lines,
+	 * 3 for a code change with the same number of lines, 4 for an additional comment line.
+	 */
+	private static String contents(int type, int variant) {
+		StringBuilder sb = new StringBuilder();
+		sb.append("package p;\n\n");
+		sb.append(variant == 1 ? "//a comment\n" : variant == 2 ? "/* other */\n" : "// comment\n");
+		if(variant == 4) {
+			sb.append("// another comment\n");
+		}
+		sb.append("public class C").append(type).append(" {\n");
+		sb.append(variant == 3 ? "	int value = 2;\n" : "	int value = 1;\n");
+		for(int i = 0; i < type; i++) {
+			sb.append("	void m").append(i).append("() {\n	}\n");
+		}
+		sb.append("}\n");
+		return sb.toString();
+	}
+
+	private static List<String> describe(List<MoveSourceFolderRefactoring> refactorings) {
+		List<String> descriptions = new ArrayList<String>();
+		for(MoveSourceFolderRefactoring refactoring : refactorings) {
+			descriptions.add(refactoring.getPattern() + " " + refactoring.getIdenticalFilePaths());
+		}
+		return descriptions;
+	}
+
+	/**
+	 * The matching of identical files before the candidate files were bucketed, comparing every remaining file before the commit
+	 * with every remaining file after the commit.
+	 */
+	private static List<MoveSourceFolderRefactoring> processIdenticalFilesComparingAllFiles(Map<String, String> fileContentsBefore, Map<String, String> fileContentsCurrent,
+			Map<String, String> renamedFilesHint, boolean astDiff) throws IOException {
+		Map<String, String> identicalFiles = new HashMap<String, String>();
+		Map<Pair<String, String>, Integer> consistentSourceFolderChanges = new HashMap<>();
+		Map<String, String> nonIdenticalFiles = new HashMap<String, String>();
+		for(String key : fileContentsBefore.keySet()) {
+			if(renamedFilesHint.containsKey(key)) {
+				String renamedFile = renamedFilesHint.get(key);
+				String fileBefore = fileContentsBefore.get(key);
+				String fileAfter = fileContentsCurrent.get(renamedFile);
+				if(matchCondition(fileBefore, fileAfter, astDiff)) {
+					identicalFiles.put(key, renamedFile);
+					if(key.contains("/") && renamedFile.contains("/")) {
+						String prefix1 = key.substring(0, key.indexOf("/"));
+						String prefix2 = renamedFile.substring(0, renamedFile.indexOf("/"));
+						consistentSourceFolderChanges.merge(Pair.of(prefix1, prefix2), 1, Integer::sum);
+					}
+				}
+				else {
+					nonIdenticalFiles.put(key, renamedFile);
+				}
+			}
+			if(fileContentsCurrent.containsKey(key)) {
+				if(matchCondition(fileContentsBefore.get(key), fileContentsCurrent.get(key), astDiff)) {
+					identicalFiles.put(key, key);
+				}
+				else {
+					nonIdenticalFiles.put(key, key);
+				}
+			}
+		}
+		fileContentsBefore.keySet().removeAll(identicalFiles.keySet());
+		fileContentsCurrent.keySet().removeAll(identicalFiles.values());
+		for(String key1 : fileContentsBefore.keySet()) {
+			if(!identicalFiles.containsKey(key1) && !nonIdenticalFiles.containsKey(key1) && key1.contains("/")) {
+				String prefix1 = key1.substring(0, key1.indexOf("/"));
+				String fileBefore = fileContentsBefore.get(key1);
+				boolean matchWithConsistentSourceFolderChangeFound = false;
+				List<String> matches = new ArrayList<String>();
+				for(String key2 : fileContentsCurrent.keySet()) {
+					if(!identicalFiles.containsValue(key2) && !nonIdenticalFiles.containsValue(key2) && key2.contains("/")) {
+						String prefix2 = key2.substring(0, key2.indexOf("/"));
+						if(matchCondition(fileBefore, fileContentsCurrent.get(key2), astDiff)) {
+							if(consistentSourceFolderChanges.containsKey(Pair.of(prefix1, prefix2))) {
+								identicalFiles.put(key1, key2);
+								matchWithConsistentSourceFolderChangeFound = true;
+								break;
+							}
+							matches.add(key2);
+						}
+					}
+				}
+				if(!matchWithConsistentSourceFolderChangeFound) {
+					if(matches.size() == 1) {
+						identicalFiles.put(key1, matches.get(0));
+					}
+					else if(matches.size() > 1) {
+						int minEditDistance = key1.length();
+						String bestMatch = null;
+						for(String key2 : matches) {
+							int editDistance = StringDistance.editDistance(key1, key2);
+							if(editDistance < minEditDistance) {
+								minEditDistance = editDistance;
+								bestMatch = key2;
+							}
+						}
+						if(bestMatch != null) {
+							identicalFiles.put(key1, bestMatch);
+						}
+					}
+				}
+			}
+		}
+		fileContentsBefore.keySet().removeAll(identicalFiles.keySet());
+		fileContentsCurrent.keySet().removeAll(identicalFiles.values());
+		List<MoveSourceFolderRefactoring> moveSourceFolderRefactorings = new ArrayList<MoveSourceFolderRefactoring>();
+		for(String key : identicalFiles.keySet()) {
+			String movedPath = identicalFiles.get(key);
+			String originalPathPrefix = key.contains("/") ? key.substring(0, key.lastIndexOf('/')) : "";
+			String movedPathPrefix = movedPath.contains("/") ? movedPath.substring(0, movedPath.lastIndexOf('/')) : "";
+			if(!originalPathPrefix.equals(movedPathPrefix) && !key.endsWith("package-info.java")) {
+				RenamePattern renamePattern = new MovedClassToAnotherSourceFolder(null, null, originalPathPrefix, movedPathPrefix).getRenamePattern();
+				MoveSourceFolderRefactoring matching = null;
+				for(MoveSourceFolderRefactoring moveSourceFolderRefactoring : moveSourceFolderRefactorings) {
+					if(moveSourceFolderRefactoring.getPattern().equals(renamePattern)) {
+						matching = moveSourceFolderRefactoring;
+						break;
+					}
+				}
+				if(matching == null) {
+					matching = new MoveSourceFolderRefactoring(renamePattern);
+					moveSourceFolderRefactorings.add(matching);
+				}
+				matching.putIdenticalFilePaths(key, movedPath);
+			}
+		}
+		return moveSourceFolderRefactorings;
+	}
+
+	private static boolean matchCondition(String fileBefore, String fileAfter, boolean astDiff) throws IOException {
+		if(astDiff) {
+			return fileBefore.equals(fileAfter);
+		}
+		return fileBefore.equals(fileAfter) || StringDistance.trivialCommentChange(fileBefore, fileAfter);
+	}
+}
@@ -0,0 +1,88 @@
+package org.refactoringminer.test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.refactoringminer.rm1.GitHistoryRefactoringMinerImpl;
+
+import gr.uom.java.xmi.UMLModel;
+import gr.uom.java.xmi.diff.UMLModelDiff;
+
+public class TestInheritanceHierarchy {
+	private static final String[] CLASSES = {"Top", "Left", "Right", "Diamond", "Base", "CycleA", "CycleB", "Added", "Changed", "Moved", "NewBase"};
+
+	@Test
+	public void testSubclassRelationships() throws Exception {
+		Map<String, String> fileContentsBefore = new LinkedHashMap<String, String>();
+		Map<String, String> fileContentsCurrent = new LinkedHashMap<String, String>();
+		put(fileContentsBefore, "Top", "public interface Top {\n}\n");
+		put(fileContentsBefore, "Left", "public interface Left extends Top {\n}\n");
+		put(fileContentsBefore, "Right", "public interface Right extends Top {\n}\n");
+		put(fileContentsBefore, "Diamond", type("class Diamond implements Left, Right", "run", "diamond"));
+		put(fileContentsBefore, "Base", type("class Base implements Top", "base", "base"));
+		put(fileContentsBefore, "CycleA", type("class CycleA extends CycleB", "a", "a"));
+		put(fileContentsBefore, "CycleB", type("class CycleB extends CycleA", "b", "b"));
+		put(fileContentsBefore, "Added", type("class Added", "added", "added"));
+		put(fileContentsBefore, "Changed", type("class Changed extends Base", "changed", "changed"));
+		put(fileContentsBefore, "Moved", type("class Moved extends Base", "moved", "moved"));
+		fileContentsCurrent.putAll(fileContentsBefore);
+		put(fileContentsCurrent, "Diamond", type("class Diamond implements Left, Right", "run", "diamond!"));
+		put(fileContentsCurrent, "CycleA", type("class CycleA extends CycleB", "a", "a!"));
+		put(fileContentsCurrent, "NewBase", type("class NewBase extends Base", "newBase", "new base"));
+		//a superclass added to a class, and superclasses changed to an existing class and to an added class
+		put(fileContentsCurrent, "Added", type("class Added extends NewBase", "added", "added"));
+		put(fileContentsCurrent, "Changed", type("class Changed extends Diamond", "changed", "changed"));
+		put(fileContentsCurrent, "Moved", type("class Moved extends NewBase", "moved", "moved"));
+		UMLModel parentUMLModel = GitHistoryRefactoringMinerImpl.createModel(fileContentsBefore, new LinkedHashSet<String>());
+		UMLModel currentUMLModel = GitHistoryRefactoringMinerImpl.createModel(fileContentsCurrent, new LinkedHashSet<String>());
+
+		UMLModelDiff modelDiff = parentUMLModel.diff(currentUMLModel);
+		modelDiff.getRefactorings();
+		List<String> expected = List.of(
+				"Top:",
+				"Left: Top",
+				"Right: Top",
+				"Diamond: Top Left Right",
+				"Base: Top",
+				"CycleA: CycleA CycleB",
+				"CycleB: CycleA CycleB",
+				"Added: Top Base NewBase",
+				"Changed:",
+				"Moved: Top Base",
+				"NewBase: Top Base");
+		Assertions.assertEquals(expected, superclasses(modelDiff));
+		//the second lookups use the memoized supertypes
+		Assertions.assertEquals(expected, superclasses(modelDiff));
+	}
+
+	private static List<String> superclasses(UMLModelDiff modelDiff) {
+		List<String> actual = new ArrayList<String>();
+		for(String subclass : CLASSES) {
+			StringBuilder sb = new StringBuilder(subclass + ":");
+			for(String superclass : CLASSES) {
+				if(modelDiff.isSubclassOf("p." + subclass, "p." + superclass)) {
+					sb.append(" ").append(superclass);
+				}
+			}
+			actual.add(sb.toString());
+		}
+		return actual;
+	}
+
+	private static String type(String declaration, String methodName, String message) {
+		return "public " + declaration + " {\n" +
+				"	public void " + methodName + "() {\n" +
+				"		System.out.println(\"" + message + "\");\n" +
+				"	}\n" +
+				"}\n";
+	}
+
+	private static void put(Map<String, String> fileContents, String className, String contents) {
+		fileContents.put("src/p/" + className + ".java", "package p;\n\n" + contents);
+	}
+}
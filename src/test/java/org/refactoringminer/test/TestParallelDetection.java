@@ -0,0 +1,57 @@
+package org.refactoringminer.test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.refactoringminer.api.Refactoring;
+import org.refactoringminer.api.RefactoringHandler;
+import org.refactoringminer.rm1.GitHistoryRefactoringMinerImpl;
+
+import gr.uom.java.xmi.diff.UMLModelDiff;
+
+public class TestParallelDetection {
+	private static final String DEFECTS4J = System.getProperty("user.dir") + "/src/test/resources/oracle/commits/defects4j/";
+
+	@ParameterizedTest
+	@CsvSource({
+		"Closure, 149",
+		"Closure, 158",
+		"Closure, 169",
+		"JacksonDatabind, 15",
+		"JacksonDatabind, 111",
+		"Jsoup, 92",
+		"Mockito, 19",
+		"Time, 26"
+	})
+	public void testParallelClassDiffs(String project, String bug) throws Exception {
+		File before = new File(DEFECTS4J + "before/" + project + "/" + bug);
+		File after = new File(DEFECTS4J + "after/" + project + "/" + bug);
+		List<String> expected = modelDiffRefactorings(before, after, 1);
+		Assertions.assertFalse(expected.isEmpty());
+		Assertions.assertEquals(expected, modelDiffRefactorings(before, after, 4));
+	}
+
+	private static List<String> modelDiffRefactorings(File before, File after, int numberOfClassDiffThreads) {
+		GitHistoryRefactoringMinerImpl miner = new GitHistoryRefactoringMinerImpl();
+		miner.setNumberOfClassDiffThreads(numberOfClassDiffThreads);
+		List<String> actual = new ArrayList<String>();
+		miner.detectAtDirectories(before, after, new RefactoringHandler() {
+			@Override
+			public void handleModelDiff(String commitId, List<Refactoring> refactoringsAtRevision, UMLModelDiff modelDiff) {
+				for(Refactoring refactoring : refactoringsAtRevision) {
+					actual.add(refactoring.toString());
+				}
+			}
+
+			@Override
+			public void handleException(String commitId, Exception e) {
+				Assertions.fail(e);
+			}
+		});
+		return actual;
+	}
+}
@@ -547,7 +547,7 @@ class TestParameterizeTestRefactoring {
         }
     }
 
-    private static UMLModel createUmlModel(String sourceCode) {
+    private static UMLModel createUmlModel(String sourceCode) throws RefactoringMinerTimedOutException {
         CompilationUnit cu = parse(sourceCode.toCharArray());
         Map<String, String> javaFileContents = Map.of("TestClass.java", sourceCode);
         UMLModel model = new UMLModelASTReader(javaFileContents, Set.of("."), false).getUmlModel();
@@ -0,0 +1,281 @@
+package org.refactoringminer.test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.refactoringminer.api.GitService;
+import org.refactoringminer.api.Refactoring;
+import org.refactoringminer.api.RefactoringHandler;
+import org.refactoringminer.api.RefactoringType;
+import org.refactoringminer.rm1.GitHistoryRefactoringMinerImpl;
+
+import gr.uom.java.xmi.diff.UMLModelDiff;
+
+public class TestRepositoryMining {
+	@TempDir
+	Path tempDir;
+
+	@Test
+	public void testTwoRepositoriesWithOneMiner() throws Exception {
+		GitHistoryRefactoringMinerImpl miner = new GitHistoryRefactoringMinerImpl();
+		for(String packageName : new String[] {"first", "second"}) {
+			try (Git git = createRepository(packageName)) {
+				Map<String, List<Refactoring>> actual = new LinkedHashMap<String, List<Refactoring>>();
+				List<Exception> exceptions = new ArrayList<Exception>();
+				miner.detectAll(git.getRepository(), "master", new RefactoringHandler() {
+					@Override
+					public void handle(String commitId, List<Refactoring> refactorings) {
+						actual.put(commitId, refactorings);
+					}
+
+					@Override
+					public void handleException(String commitId, Exception e) {
+						exceptions.add(e);
+					}
+				});
+				Assertions.assertEquals(List.of(), exceptions);
+				Assertions.assertEquals(2, actual.size());
+				List<Refactoring> renames = new ArrayList<Refactoring>();
+				for(List<Refactoring> refactorings : actual.values()) {
+					for(Refactoring refactoring : refactorings) {
+						if(refactoring.getRefactoringType().equals(RefactoringType.RENAME_METHOD)) {
+							renames.add(refactoring);
+						}
+					}
+				}
+				Assertions.assertEquals(2, renames.size());
+			}
+		}
+	}
+
+	@Test
+	public void testJournalRetriesFailedCommits() throws Exception {
+		try (Git git = createRepository("journal")) {
+			List<String> commitIds = new ArrayList<String>();
+			for(RevCommit commit : git.log().call()) {
+				commitIds.add(commit.getId().getName());
+			}
+			Path journal = tempDir.resolve("journal.txt");
+			Files.writeString(journal, commitIds.get(0) + "\tOK\t1\n" + commitIds.get(1) + "\tERROR\t0\n", StandardCharsets.UTF_8);
+			GitHistoryRefactoringMinerImpl miner = new GitHistoryRefactoringMinerImpl();
+			miner.setJournal(journal);
+			List<String> actual = new ArrayList<String>();
+			miner.detectAll(git.getRepository(), "master", new RefactoringHandler() {
+				@Override
+				public void handle(String commitId, List<Refactoring> refactorings) {
+					actual.add(commitId);
+				}
+			});
+			Assertions.assertEquals(List.of(commitIds.get(1)), actual);
+			Assertions.assertEquals(List.of(commitIds.get(0) + "\tOK\t1", commitIds.get(1) + "\tERROR\t0", commitIds.get(1) + "\tOK\t1"),
+					Files.readAllLines(journal, StandardCharsets.UTF_8));
+		}
+	}
+
+	@Test
+	public void testJournalRetriesPartialCommits() throws Exception {
+		try (Git git = createRepository("partial")) {
+			Path journal = tempDir.resolve("partial.txt");
+			for(int run = 0; run < 2; run++) {
+				GitHistoryRefactoringMinerImpl miner = new GitHistoryRefactoringMinerImpl();
+				miner.setJournal(journal);
+				miner.setCommitTimeBudget(1, true);
+				List<String> partial = new ArrayList<String>();
+				List<Exception> exceptions = new ArrayList<Exception>();
+				miner.detectAll(git.getRepository(), "master", new RefactoringHandler() {
+					@Override
+					public void handle(String commitId, List<Refactoring> refactorings) {
+						Assertions.fail("complete results for " + commitId);
+					}
+
+					@Override
+					public void handlePartial(String commitId, List<Refactoring> refactorings) {
+						partial.add(commitId);
+					}
+
+					@Override
+					public void handleModelDiff(String commitId, List<Refactoring> refactoringsAtRevision, UMLModelDiff modelDiff) {
+						Assertions.assertTrue(modelDiff.isIncomplete());
+					}
+
+					@Override
+					public void handleException(String commitId, Exception e) {
+						exceptions.add(e);
+					}
+				});
+				Assertions.assertEquals(List.of(), exceptions);
+				//the commits handled with partial results are not skipped in the second run
+				Assertions.assertEquals(2, partial.size());
+			}
+			List<String> lines = Files.readAllLines(journal, StandardCharsets.UTF_8);
+			Assertions.assertEquals(4, lines.size());
+			for(String line : lines) {
+				Assertions.assertEquals("PARTIAL", line.split("\t")[1]);
+			}
+		}
+	}
+
+	@ParameterizedTest
+	@ValueSource(booleans = {true, false})
+	public void testParallelCallbackSequence(boolean handleInCommitOrder) throws Exception {
+		try (Git git = createRepository("callbacks")) {
+			String path = "src/callbacks/Calculator.java";
+			commit(git, path, calculator("callbacks", "plus", "difference"), "Warn about plus");
+			commit(git, path, calculator("callbacks", "plus", "minus"), "Fail on minus");
+			commit(git, path, calculator("callbacks", "add", "minus"), "Rename plus");
+			commit(git, path, calculator("callbacks", "add", "subtract"), "Rename minus");
+			List<String> expected = callbacks(git.getRepository(), 1, handleInCommitOrder);
+			List<String> actual = callbacks(git.getRepository(), 4, handleInCommitOrder);
+			//the commits are skipped while walking the history, which the parallel detection reads ahead
+			Assertions.assertEquals(skipCommitCallbacks(expected, true), skipCommitCallbacks(actual, true));
+			expected = skipCommitCallbacks(expected, false);
+			actual = skipCommitCallbacks(actual, false);
+			Assertions.assertEquals(5, expected.stream().filter(callback -> callback.startsWith("handleModelDiff")).count());
+			Assertions.assertEquals(2, expected.stream().filter(callback -> callback.startsWith("handleException")).count());
+			if(handleInCommitOrder) {
+				Assertions.assertEquals(expected, actual);
+			}
+			else {
+				//the commits are handled in the order their analysis is completed, but the callbacks of each commit are not interleaved
+				Assertions.assertEquals(callbacksByCommit(expected), callbacksByCommit(actual));
+				Assertions.assertEquals(expected.get(expected.size() - 1), actual.get(actual.size() - 1));
+			}
+		}
+	}
+
+	private static List<String> callbacks(Repository repository, int numberOfThreads, boolean handleInCommitOrder) throws Exception {
+		GitHistoryRefactoringMinerImpl miner = new GitHistoryRefactoringMinerImpl() {
+			@Override
+			protected List<Refactoring> detectRefactorings(GitService gitService, Repository repository, RefactoringHandler handler, RevCommit currentCommit) throws Exception {
+				String commitId = currentCommit.getId().getName();
+				String message = currentCommit.getShortMessage();
+				if(message.startsWith("Warn")) {
+					handler.handleException(commitId, new IllegalStateException(message));
+				}
+				else if(message.startsWith("Fail")) {
+					handler.handle(commitId, new ArrayList<Refactoring>());
+					throw new IllegalStateException(message);
+				}
+				return super.detectRefactorings(gitService, repository, handler, currentCommit);
+			}
+		};
+		miner.setNumberOfThreads(numberOfThreads);
+		List<String> callbacks = new ArrayList<String>();
+		miner.detectAll(repository, "master", new RefactoringHandler() {
+			@Override
+			public boolean skipCommit(String commitId) {
+				callbacks.add("skipCommit " + commitId);
+				return false;
+			}
+
+			@Override
+			public void handle(String commitId, List<Refactoring> refactorings) {
+				callbacks.add("handle " + commitId + " " + refactorings);
+			}
+
+			@Override
+			public void handlePartial(String commitId, List<Refactoring> refactorings) {
+				callbacks.add("handlePartial " + commitId + " " + refactorings);
+			}
+
+			@Override
+			public boolean handleInCommitOrder() {
+				return handleInCommitOrder;
+			}
+
+			@Override
+			public void handleException(String commitId, Exception e) {
+				callbacks.add("handleException " + commitId + " " + e.getMessage());
+			}
+
+			@Override
+			public void handleModelDiff(String commitId, List<Refactoring> refactoringsAtRevision, UMLModelDiff modelDiff) {
+				callbacks.add("handleModelDiff " + commitId + " " + refactoringsAtRevision);
+			}
+
+			@Override
+			public void onFinish(int refactoringsCount, int commitsCount, int errorCommitsCount) {
+				callbacks.add("onFinish " + refactoringsCount + " " + commitsCount + " " + errorCommitsCount);
+			}
+		});
+		return callbacks;
+	}
+
+	private static List<String> skipCommitCallbacks(List<String> callbacks, boolean skipCommit) {
+		List<String> filtered = new ArrayList<String>();
+		for(String callback : callbacks) {
+			if(callback.startsWith("skipCommit") == skipCommit) {
+				filtered.add(callback);
+			}
+		}
+		if(skipCommit) {
+			Collections.sort(filtered);
+		}
+		return filtered;
+	}
+
+	private static Map<String, List<String>> callbacksByCommit(List<String> callbacks) {
+		Map<String, List<String>> callbacksByCommit = new LinkedHashMap<String, List<String>>();
+		for(String callback : callbacks) {
+			String[] tokens = callback.split(" ");
+			if(tokens.length > 1) {
+				callbacksByCommit.computeIfAbsent(tokens[1], commitId -> new ArrayList<String>()).add(callback);
+			}
+		}
+		return callbacksByCommit;
+	}
+
+	private Git createRepository(String packageName) throws Exception {
+		File directory = tempDir.resolve(packageName).toFile();
+		Git git = Git.init().setDirectory(directory).setInitialBranch("master").call();
+		String path = "src/" + packageName + "/Calculator.java";
+		commit(git, path, calculator(packageName, "add", "subtract"), "Add calculator");
+		commit(git, path, calculator(packageName, "sum", "subtract"), "Rename add");
+		commit(git, path, calculator(packageName, "sum", "difference"), "Rename subtract");
+		return git;
+	}
+
+	private static String calculator(String packageName, String addition, String subtraction) {
+		return "package " + packageName + ";\n" +
+				"\n" +
+				"public class Calculator {\n" +
+				"	private int total;\n" +
+				"\n" +
+				"	public int " + addition + "(int value) {\n" +
+				"		total = total + value;\n" +
+				"		System.out.println(\"added \" + value);\n" +
+				"		return total;\n" +
+				"	}\n" +
+				"\n" +
+				"	public int " + subtraction + "(int value) {\n" +
+				"		total = total - value;\n" +
+				"		System.out.println(\"subtracted \" + value);\n" +
+				"		return total;\n" +
+				"	}\n" +
+				"}\n";
+	}
+
+	private static void commit(Git git, String path, String contents, String message) throws Exception {
+		Repository repository = git.getRepository();
+		File file = new File(repository.getWorkTree(), path);
+		file.getParentFile().mkdirs();
+		Files.writeString(file.toPath(), contents, StandardCharsets.UTF_8);
+		git.add().addFilepattern(path).call();
+		git.commit().setMessage(message).setAuthor("author", "author@example.com").setCommitter("author", "author@example.com").call();
+	}
+}
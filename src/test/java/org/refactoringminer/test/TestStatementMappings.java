@@ -17,6 +17,7 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 import org.refactoringminer.api.Refactoring;
 import org.refactoringminer.api.RefactoringHandler;
+import org.refactoringminer.api.RefactoringType;
 import org.refactoringminer.rm1.GitHistoryRefactoringMinerImpl;
 
 import gr.uom.java.xmi.UMLModel;
@@ -1522,6 +1523,268 @@ public class TestStatementMappings {
 		Assertions.assertTrue(expected.size() == actual.size() && expected.containsAll(actual) && actual.containsAll(expected));
 	}
 
+	@Test
+	public void testHugeMethodStatementMappings() throws Exception {
+		Map<String, String> fileContentsBefore = new LinkedHashMap<String, String>();
+		Map<String, String> fileContentsCurrent = new LinkedHashMap<String, String>();
+		fileContentsBefore.put("src/main/java/p/Generated.java", generatedClass(false));
+		fileContentsCurrent.put("src/main/java/p/Generated.java", generatedClass(true));
+		UMLModel parentUMLModel = GitHistoryRefactoringMinerImpl.createModel(fileContentsBefore, new LinkedHashSet<String>());
+		UMLModel currentUMLModel = GitHistoryRefactoringMinerImpl.createModel(fileContentsCurrent, new LinkedHashSet<String>());
+
+		UMLModelDiff modelDiff = parentUMLModel.diff(currentUMLModel);
+		int renamedVariables = 0;
+		for(Refactoring refactoring : modelDiff.getRefactorings()) {
+			if(refactoring.getRefactoringType().equals(RefactoringType.RENAME_VARIABLE)) {
+				renamedVariables++;
+			}
+		}
+		Assertions.assertEquals(10, renamedVariables);
+		List<String> mappedStatements = new ArrayList<>();
+		for(UMLClassDiff classDiff : modelDiff.getCommonClassDiffList()) {
+			for(UMLOperationBodyMapper mapper : classDiff.getOperationBodyMapperList()) {
+				if(mapper.getContainer1().getName().equals("generated") && mapper.getContainer2().getName().equals("generated")) {
+					for(AbstractCodeMapping mapping : mapper.getMappings()) {
+						mappedStatements.add(mapping.getFragment1().getString());
+					}
+				}
+			}
+		}
+		//the bodies of the anonymous class and lambda declared in identical statements are mapped
+		Assertions.assertTrue(mappedStatements.contains("log(\"anonymous\");\n"));
+		Assertions.assertTrue(mappedStatements.contains("log(\"lambda\");\n"));
+	}
+
+	@Test
+	public void testHugeMethodWithoutUniqueStatementMappings() throws Exception {
+		Map<String, String> fileContentsBefore = new LinkedHashMap<String, String>();
+		Map<String, String> fileContentsCurrent = new LinkedHashMap<String, String>();
+		fileContentsBefore.put("src/main/java/p/Generated.java", generatedClassWithDuplicateStatements(false));
+		fileContentsCurrent.put("src/main/java/p/Generated.java", generatedClassWithDuplicateStatements(true));
+		UMLModel parentUMLModel = GitHistoryRefactoringMinerImpl.createModel(fileContentsBefore, new LinkedHashSet<String>());
+		UMLModel currentUMLModel = GitHistoryRefactoringMinerImpl.createModel(fileContentsCurrent, new LinkedHashSet<String>());
+
+		UMLModelDiff modelDiff = parentUMLModel.diff(currentUMLModel);
+		int mappedStatements = 0;
+		for(UMLClassDiff classDiff : modelDiff.getCommonClassDiffList()) {
+			for(UMLOperationBodyMapper mapper : classDiff.getOperationBodyMapperList()) {
+				if(mapper.getContainer1().getName().equals("generated") && mapper.getContainer2().getName().equals("generated")) {
+					for(AbstractCodeMapping mapping : mapper.getMappings()) {
+						Assertions.assertEquals(mapping.getFragment1().getString(), mapping.getFragment2().getString());
+						mappedStatements++;
+					}
+				}
+			}
+		}
+		//no statement is unique to anchor the mapping, so the identical statements are mapped without the matching with replacements
+		Assertions.assertEquals(1600, mappedStatements);
+	}
+
+	@Test
+	public void testIdenticalStatementMappings() throws Exception {
+		Map<String, String> fileContentsBefore = new LinkedHashMap<String, String>();
+		Map<String, String> fileContentsCurrent = new LinkedHashMap<String, String>();
+		//duplicate identical statements, a returned expression mapped to a lambda expression, and statements moved to other levels
+		fileContentsBefore.put("src/main/java/p/Counter.java", """
+				package p;
+
+				import java.util.List;
+				import java.util.function.Supplier;
+				import java.util.stream.Collectors;
+
+				public class Counter {
+					private int count;
+
+					void log(Object o) {
+						System.out.println(o);
+					}
+
+					public void duplicates(boolean flag) {
+						count++;
+						log("same");
+						count++;
+						log("same");
+						if(flag) {
+							count++;
+							log("same");
+						}
+						count++;
+					}
+
+					public List<Integer> lengths(List<String> items) {
+						return items.stream().map(s -> {
+							return s.length();
+						}).collect(Collectors.toList());
+					}
+
+					public void nesting(List<String> items) {
+						int total = 0;
+						log("start");
+						for(String item : items) {
+							total += item.length();
+							log(item);
+						}
+						if(total > 10) {
+							log("long");
+							count = total;
+						}
+						log("end");
+					}
+
+					public int totals() {
+						int total = count;
+						Supplier<Integer> supplier = () -> {
+							return total;
+						};
+						log(supplier);
+						return total;
+					}
+				}
+				""");
+		fileContentsCurrent.put("src/main/java/p/Counter.java", """
+				package p;
+
+				import java.util.List;
+				import java.util.function.Supplier;
+				import java.util.stream.Collectors;
+
+				public class Counter {
+					private int count;
+
+					void log(Object o) {
+						System.out.println(o);
+					}
+
+					public void duplicates(boolean flag) {
+						count++;
+						log("same");
+						if(flag) {
+							count++;
+							log("same");
+							count++;
+						}
+						log("same");
+						count++;
+						log("inserted");
+					}
+
+					public List<Integer> lengths(List<String> items) {
+						return items.stream().map(s -> s.length()).collect(Collectors.toList());
+					}
+
+					public void nesting(List<String> items) {
+						int total = 0;
+						try {
+							log("start");
+							for(String item : items) {
+								log(item);
+								total += item.length();
+							}
+						}
+						finally {
+							log("end");
+						}
+						log("long");
+						count = total;
+					}
+
+					public int totals() {
+						int total = count;
+						Supplier<Integer> supplier = () -> total;
+						log(supplier);
+						return total;
+					}
+				}
+				""");
+		UMLModel parentUMLModel = GitHistoryRefactoringMinerImpl.createModel(fileContentsBefore, new LinkedHashSet<String>());
+		UMLModel currentUMLModel = GitHistoryRefactoringMinerImpl.createModel(fileContentsCurrent, new LinkedHashSet<String>());
+
+		UMLModelDiff modelDiff = parentUMLModel.diff(currentUMLModel);
+		modelDiff.getRefactorings();
+		List<String> actual = new ArrayList<>();
+		for(UMLClassDiff classDiff : modelDiff.getCommonClassDiffList()) {
+			for(UMLOperationBodyMapper mapper : classDiff.getOperationBodyMapperList()) {
+				mapperInfo(mapper, actual);
+			}
+		}
+		List<String> expected = List.of(
+				"package log(o Object) : void -> package log(o Object) : void",
+				"line range:11-11==line range:11-11",
+				"public duplicates(flag boolean) : void -> public duplicates(flag boolean) : void",
+				"line range:15-15==line range:15-15",
+				"line range:16-16==line range:16-16",
+				"line range:17-17==line range:23-23",
+				"line range:18-18==line range:22-22",
+				"line range:20-20==line range:18-18",
+				"line range:21-21==line range:19-19",
+				"line range:23-23==line range:20-20",
+				"line range:19-22==line range:17-21",
+				"line range:19-22==line range:17-21",
+				"public lengths(items List<String>) : List<Integer> -> public lengths(items List<String>) : List<Integer>",
+				"line range:28-28==line range:28-28",
+				"line range:27-29==line range:28-28",
+				"public nesting(items List<String>) : void -> public nesting(items List<String>) : void",
+				"line range:33-33==line range:32-32",
+				"line range:34-34==line range:34-34",
+				"line range:36-36==line range:37-37",
+				"line range:37-37==line range:36-36",
+				"line range:40-40==line range:43-43",
+				"line range:41-41==line range:44-44",
+				"line range:43-43==line range:41-41",
+				"line range:35-38==line range:35-38",
+				"line range:35-38==line range:35-38",
+				"public totals() : int -> public totals() : int",
+				"line range:47-47==line range:48-48",
+				"line range:51-51==line range:50-50",
+				"line range:52-52==line range:51-51",
+				"line range:49-49==line range:49-49");
+		Assertions.assertEquals(expected, actual);
+	}
+
+	//a method with more than 1500 statements, mapped between the statements that are unique and identical in both versions
+	private static String generatedClass(boolean modified) {
+		StringBuilder sb = new StringBuilder();
+		sb.append("package p;\n\n");
+		sb.append("public class Generated {\n");
+		sb.append("\tint compute(int i) {\n\t\treturn i;\n\t}\n\n");
+		sb.append("\tvoid log(Object o) {\n\t\tSystem.out.println(o);\n\t}\n\n");
+		sb.append("\tpublic void generated() {\n");
+		for(int i=0; i<1000; i++) {
+			String variable = modified && i % 100 == 50 ? "renamed" + i : "x" + i;
+			sb.append("\t\tint ").append(variable).append(" = compute(").append(i).append(");\n");
+			if(modified && i % 100 == 70) {
+				sb.append("\t\tlog(\"inserted ").append(i).append("\");\n");
+			}
+			sb.append("\t\tlog(").append(variable).append(");\n");
+			if(i == 500) {
+				sb.append("\t\tRunnable task = new Runnable() {\n\t\t\tpublic void run() {\n\t\t\t\tlog(\"anonymous\");\n\t\t\t}\n\t\t};\n");
+				sb.append("\t\tRunnable lambda = () -> {\n\t\t\tlog(\"lambda\");\n\t\t};\n");
+			}
+		}
+		sb.append("\t}\n");
+		sb.append("}\n");
+		return sb.toString();
+	}
+
+	//a method with more than 1500 statements, each appearing twice in both versions
+	private static String generatedClassWithDuplicateStatements(boolean modified) {
+		StringBuilder sb = new StringBuilder();
+		sb.append("package p;\n\n");
+		sb.append("public class Generated {\n");
+		sb.append("\tvoid log(Object o) {\n\t\tSystem.out.println(o);\n\t}\n\n");
+		sb.append("\tpublic void generated() {\n");
+		for(int i=0; i<800; i++) {
+			sb.append("\t\tlog(").append(i).append(");\n");
+			if(modified && i % 100 == 50) {
+				sb.append("\t\tlog(\"inserted\");\n");
+			}
+			sb.append("\t\tlog(").append(i).append(");\n");
+		}
+		sb.append("\t}\n");
+		sb.append("}\n");
+		return sb.toString();
+	}
+
 	private void mapperInfo(UMLOperationBodyMapper bodyMapper, final List<String> actual) {
 		actual.add(bodyMapper.toString());
 		//System.out.println(bodyMapper.toString());
@@ -0,0 +1,109 @@
+package org.refactoringminer.util;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.refactoringminer.api.Refactoring;
+import org.refactoringminer.rm1.GitHistoryRefactoringMinerImpl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import gr.uom.java.xmi.UMLModel;
+
+public class TestNDJSONRefactoringWriter {
+	private static final String CLONE_URL = "https://github.com/owner/project.git";
+	@TempDir
+	Path tempDir;
+
+	@Test
+	public void testReadBackAfterSuccess() throws Exception {
+		List<Refactoring> refactorings = detectRefactorings();
+		for(String fileName : List.of("refactorings.ndjson", "refactorings.ndjson.gz")) {
+			Path path = tempDir.resolve(fileName);
+			try (NDJSONRefactoringWriter writer = new NDJSONRefactoringWriter(path)) {
+				writer.writeCommit(CLONE_URL, "a1", refactorings);
+				writer.writeCommit(CLONE_URL, "b2", new ArrayList<Refactoring>());
+			}
+			List<JsonNode> commits = readBack(path);
+			Assertions.assertEquals(2, commits.size());
+			assertCommit(commits.get(0), "a1", refactorings);
+			assertCommit(commits.get(1), "b2", new ArrayList<Refactoring>());
+		}
+	}
+
+	@Test
+	public void testReadBackAfterFailure() throws Exception {
+		List<Refactoring> refactorings = detectRefactorings();
+		for(String fileName : List.of("refactorings.ndjson", "refactorings.ndjson.gz")) {
+			Path path = tempDir.resolve(fileName);
+			Assertions.assertThrows(IllegalStateException.class, () -> {
+				try (NDJSONRefactoringWriter writer = new NDJSONRefactoringWriter(path)) {
+					writer.writeCommit(CLONE_URL, "a1", refactorings);
+					throw new IllegalStateException("detection failed");
+				}
+			});
+			//the commits written before the failure are complete
+			List<JsonNode> commits = readBack(path);
+			Assertions.assertEquals(1, commits.size());
+			assertCommit(commits.get(0), "a1", refactorings);
+		}
+	}
+
+	private static List<Refactoring> detectRefactorings() throws Exception {
+		Map<String, String> before = new LinkedHashMap<String, String>();
+		before.put("src/p/A.java", "package p;\npublic class A {\n	int count;\n	int total() {\n		return count + 1;\n	}\n}\n");
+		Map<String, String> after = new LinkedHashMap<String, String>();
+		after.put("src/p/A.java", "package p;\npublic class A {\n	int count;\n	int sum() {\n		return count + 1;\n	}\n}\n");
+		UMLModel parentModel = GitHistoryRefactoringMinerImpl.createModel(before, new LinkedHashSet<String>());
+		UMLModel currentModel = GitHistoryRefactoringMinerImpl.createModel(after, new LinkedHashSet<String>());
+		List<Refactoring> refactorings = parentModel.diff(currentModel).getRefactorings();
+		Assertions.assertFalse(refactorings.isEmpty());
+		return refactorings;
+	}
+
+	private static List<JsonNode> readBack(Path path) throws Exception {
+		ObjectMapper mapper = new ObjectMapper();
+		List<JsonNode> commits = new ArrayList<JsonNode>();
+		InputStream in = Files.newInputStream(path);
+		if(path.getFileName().toString().endsWith(".gz")) {
+			in = new GZIPInputStream(in);
+		}
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+			String line;
+			while((line = reader.readLine()) != null) {
+				commits.add(mapper.readTree(line));
+			}
+		}
+		return commits;
+	}
+
+	private static void assertCommit(JsonNode commit, String commitId, List<Refactoring> refactorings) {
+		Assertions.assertEquals(CLONE_URL, commit.get("repository").asText());
+		Assertions.assertEquals(commitId, commit.get("sha1").asText());
+		Assertions.assertEquals(GitHistoryRefactoringMinerImpl.extractCommitURL(CLONE_URL, commitId), commit.get("url").asText());
+		JsonNode array = commit.get("refactorings");
+		Assertions.assertEquals(refactorings.size(), array.size());
+		for(int i=0; i<refactorings.size(); i++) {
+			Refactoring refactoring = refactorings.get(i);
+			JsonNode node = array.get(i);
+			Assertions.assertEquals(refactoring.getName(), node.get("type").asText());
+			Assertions.assertEquals(refactoring.toString().replace('\t', ' '), node.get("description").asText());
+			Assertions.assertEquals(refactoring.leftSide().size(), node.get("leftSideLocations").size());
+			Assertions.assertEquals(refactoring.rightSide().size(), node.get("rightSideLocations").size());
+		}
+	}
+}